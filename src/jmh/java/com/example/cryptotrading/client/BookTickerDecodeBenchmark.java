@@ -0,0 +1,85 @@
+package com.example.cryptotrading.client;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the streaming decoder with the previous data-binding path, which read the whole bookTicker array into
+ * {@code List<BinanceTicker>} (what {@code restTemplate.exchange(..., ParameterizedTypeReference)} does) and then
+ * filtered it. Run with {@code ./gradlew jmh}; add {@code -Pjmh.profilers=gc} to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookTickerDecodeBenchmark {
+
+    private static final Set<String> ACTIVE_SYMBOLS = Set.of("BTCUSDT", "ETHUSDT");
+    private static final TypeReference<List<BinanceTicker>> TICKER_LIST = new TypeReference<>() {
+    };
+
+    @Param({"3000"})
+    public int marketSize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < marketSize; i++) {
+            String symbol = switch (i) {
+                case 1000 -> "BTCUSDT";
+                case 2000 -> "ETHUSDT";
+                default -> "SYM" + i + "USDT";
+            };
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"symbol\":\"").append(symbol)
+                    .append("\",\"bidPrice\":\"").append(1000 + i).append(".12345678\"")
+                    .append(",\"bidQty\":\"12.50000000\"")
+                    .append(",\"askPrice\":\"").append(1000 + i).append(".22345678\"")
+                    .append(",\"askQty\":\"3.10000000\"}");
+        }
+        payload = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Map<String, BookTicker> dataBinding() throws IOException {
+        List<BinanceTicker> response = objectMapper.readValue(new ByteArrayInputStream(payload), TICKER_LIST);
+        return response.stream()
+                .filter(t -> ACTIVE_SYMBOLS.contains(t.symbol()))
+                .collect(Collectors.toMap(
+                        BinanceTicker::symbol,
+                        t -> new BookTicker(new BigDecimal(t.bidPrice()), new BigDecimal(t.askPrice()))
+                ));
+    }
+
+    @Benchmark
+    public Map<String, BookTicker> streaming() throws IOException {
+        return BookTickerDecoder.decodeBinance(new ByteArrayInputStream(payload), ACTIVE_SYMBOLS);
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record BinanceTicker(String symbol, String bidPrice, String askPrice) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.cryptotrading.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The three price-path operations, {@link Amount} units against the {@code BigDecimal} code they replaced: parsing
+ * a ticker price out of a parser's char buffer, quantity times price rounded to 8 decimals, and picking the best
+ * of two quotes. Run with {@code gradle jmh -Pjmh.includes=AmountBenchmark -Pjmh.profilers=gc}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AmountBenchmark {
+
+    private final char[] buffer = "{\"bidPrice\":\"50123.45678901\"}".toCharArray();
+    private final int priceOffset = 13;
+    private final int priceLength = 14;
+
+    private BigDecimal quantity;
+    private BigDecimal price;
+    private BigDecimal otherPrice;
+    private long quantityUnits;
+    private long priceUnits;
+    private long otherPriceUnits;
+
+    @Setup
+    public void setUp() {
+        quantity = new BigDecimal("0.12345678");
+        price = new BigDecimal("50123.45678901");
+        otherPrice = new BigDecimal("50123.45678900");
+        quantityUnits = Amount.unitsOf(quantity);
+        priceUnits = Amount.unitsOf(price);
+        otherPriceUnits = Amount.unitsOf(otherPrice);
+    }
+
+    @Benchmark
+    public BigDecimal parseBigDecimal() {
+        return new BigDecimal(buffer, priceOffset, priceLength);
+    }
+
+    @Benchmark
+    public long parseAmount() {
+        return Amount.parseUnits(buffer, priceOffset, priceLength);
+    }
+
+    @Benchmark
+    public BigDecimal multiplyBigDecimal() {
+        return quantity.multiply(price).setScale(Amount.SCALE, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public long multiplyAmount() {
+        return Amount.multiplyUnits(quantityUnits, priceUnits);
+    }
+
+    @Benchmark
+    public BigDecimal bestBigDecimal() {
+        return price.compareTo(otherPrice) >= 0 ? price : otherPrice;
+    }
+
+    @Benchmark
+    public long bestAmount() {
+        return Math.max(priceUnits, otherPriceUnits);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.cryptotrading.service;
+
+import com.example.cryptotrading.CryptoTradingApplication;
+import com.example.cryptotrading.domain.Amount;
+import com.example.cryptotrading.domain.OrderSideCodeEnum;
+import com.example.cryptotrading.domain.PriceSnapshot;
+import com.example.cryptotrading.dto.TradeRequestDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trade throughput of {@link TradeService#executeTrade} with wallet-row locking ({@code database}) and with the
+ * sharded in-memory engine ({@code engine}, journal fsync on), eight threads trading for {@value #USERS} users.
+ * Run with {@code ./gradlew jmh -Pjmh.includes=TradeExecutionBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class TradeExecutionBenchmark {
+
+    private static final int USERS = 64;
+    private static final long FIRST_USER_ID = 1000;
+    private static final TradeRequestDto BUY =
+            new TradeRequestDto("BTCUSDT", OrderSideCodeEnum.BUY, Amount.of("0.001"));
+    private static final TradeRequestDto SELL =
+            new TradeRequestDto("BTCUSDT", OrderSideCodeEnum.SELL, Amount.of("0.001"));
+
+    @Param({"database", "engine"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private TradeService tradeService;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path journalDir = Files.createTempDirectory("trade-benchmark");
+        context = new SpringApplicationBuilder(CryptoTradingApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.scheduling.enabled=false",
+                        "--price.aggregation.max-price-age=1h",
+                        "--trading.engine.enabled=" + "engine".equals(mode),
+                        "--trading.engine.journal-dir=" + journalDir,
+                        "--logging.level.root=WARN");
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        for (long userId = FIRST_USER_ID; userId < FIRST_USER_ID + USERS; userId++) {
+            jdbcTemplate.update("INSERT INTO crypto_user (id, username, ctl_act, ctl_tcn, ctl_cre_ts, ctl_cre_uid) "
+                    + "VALUES (?, ?, TRUE, 0, CURRENT_TIMESTAMP, 'benchmark')", userId, "user" + userId);
+            for (long currencyId = 1; currencyId <= 3; currencyId++) {
+                jdbcTemplate.update("INSERT INTO crypto_wallet (id, user_id, currency_id, balance, ctl_act, ctl_tcn, "
+                        + "ctl_cre_ts, ctl_cre_uid) VALUES (?, ?, ?, 1000000000, TRUE, 0, CURRENT_TIMESTAMP, 'benchmark')",
+                        userId * 3 + currencyId, userId, currencyId);
+            }
+        }
+        context.getBean(PriceBook.class).publish(new PriceSnapshot(1L, "BTCUSDT",
+                Amount.of("50000"), Amount.of("50100"), "BINANCE", "HUOBI", LocalDateTime.now()));
+        tradeService = context.getBean(TradeService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object executeTrade() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long userId = FIRST_USER_ID + random.nextInt(USERS);
+        return tradeService.executeTrade(userId, random.nextBoolean() ? BUY : SELL);
+    }
+}
@@ -1,56 +1,91 @@
 package com.example.cryptotrading.client;
 
-import java.math.BigDecimal;
+import java.net.URI;
 import java.util.Collections;
-import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import lombok.AllArgsConstructor;
+import com.example.cryptotrading.config.ExchangeProperties;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
-@Component
-@AllArgsConstructor
 @Slf4j
-public class BinanceClient {
+@Component
+@Order(1)
+@RequiredArgsConstructor
+public class BinanceClient implements ExchangeClient {
+
+    public static final String NAME = "BINANCE";
 
-    private static final String URL = "https://api.binance.com/api/v3/ticker/bookTicker";
+    private static final String DEFAULT_BASE_URL = "https://api.binance.com";
+    private static final String BOOK_TICKER_PATH = "/api/v3/ticker/bookTicker";
+    private static final String INVALID_SYMBOL = "-1121";
 
     private final RestTemplate restTemplate;
+    private final ExchangeProperties exchangeProperties;
+
+    /**
+     * The last pair set Binance rejected as scoped because one of its symbols is not listed there. It is fetched
+     * from the full-market dump until the set changes.
+     */
+    private volatile Set<String> unscopableSymbols = Set.of();
+
+    @Override
+    public String name() {
+        return NAME;
+    }
 
+    @Override
     public Map<String, BookTicker> getBookTickers(Set<String> supportedSymbols) {
+        boolean scoped = isScoped(supportedSymbols);
         try {
-            List<BinanceTicker> response = restTemplate.exchange(
-                    URL, HttpMethod.GET, null,
-                    new ParameterizedTypeReference<List<BinanceTicker>>() {}
-            ).getBody();
-
-            if (response == null) {
-                return Collections.emptyMap();
+            return fetch(bookTickerUri(supportedSymbols, scoped), supportedSymbols);
+        } catch (HttpClientErrorException.BadRequest e) {
+            // Binance rejects the whole scoped request if a single symbol is not listed; unlisted symbols are
+            // simply missing from the full dump
+            if (!scoped || !e.getResponseBodyAsString().contains(INVALID_SYMBOL)) {
+                throw e;
             }
-
-            return response.stream()
-                    .filter(t -> supportedSymbols.contains(t.symbol()))
-                    .collect(Collectors.toMap(
-                            BinanceTicker::symbol,
-                            t -> new BookTicker(new BigDecimal(t.bidPrice()), new BigDecimal(t.askPrice()))
-                    ));
-        } catch (Exception e) {
-            log.warn("Failed to fetch Binance tickers: {}", e.getMessage());
-            return Collections.emptyMap();
+            log.info("Binance does not list all of {}, requesting the full market instead", supportedSymbols);
+            unscopableSymbols = Set.copyOf(supportedSymbols);
+            return fetch(bookTickerUri(supportedSymbols, false), supportedSymbols);
         }
     }
 
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    public record BinanceTicker(String symbol, String bidPrice, String askPrice) {
+    private Map<String, BookTicker> fetch(URI uri, Set<String> supportedSymbols) {
+        Map<String, BookTicker> tickers = restTemplate.execute(uri, HttpMethod.GET, null,
+                response -> BookTickerDecoder.decodeBinance(response.getBody(), supportedSymbols));
+        return tickers != null ? tickers : Collections.emptyMap();
     }
 
-    public record BookTicker(BigDecimal bidPrice, BigDecimal askPrice) {
+    /**
+     * Small pair sets are requested with {@code symbols=["BTCUSDT",...]}; larger ones, and sets Binance rejected
+     * for an unlisted symbol, fall back to the full-market dump, which Binance serves at the same request weight.
+     */
+    private boolean isScoped(Set<String> symbols) {
+        return symbols.size() <= exchangeProperties.venue(NAME).getMaxScopedSymbols()
+                && !symbols.equals(unscopableSymbols);
+    }
+
+    private URI bookTickerUri(Set<String> symbols, boolean scoped) {
+        ExchangeProperties.Venue venue = exchangeProperties.venue(NAME);
+        UriComponentsBuilder uri = UriComponentsBuilder
+                .fromUriString(Objects.requireNonNullElse(venue.getBaseUrl(), DEFAULT_BASE_URL))
+                .path(BOOK_TICKER_PATH);
+        if (scoped) {
+            uri.queryParam("symbols", symbols.stream()
+                    .sorted()
+                    .map(symbol -> "\"" + symbol + "\"")
+                    .collect(Collectors.joining(",", "[", "]")));
+        }
+        return uri.encode().build().toUri();
     }
 }
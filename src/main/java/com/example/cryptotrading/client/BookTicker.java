@@ -0,0 +1,23 @@
+package com.example.cryptotrading.client;
+
+import com.example.cryptotrading.domain.Amount;
+
+import java.math.BigDecimal;
+
+/**
+ * One venue's top of book, in {@link Amount} units so tickers can be decoded and compared without allocating.
+ */
+public record BookTicker(long bidUnits, long askUnits) {
+
+    public BookTicker(BigDecimal bidPrice, BigDecimal askPrice) {
+        this(Amount.unitsOf(bidPrice), Amount.unitsOf(askPrice));
+    }
+
+    public Amount bidPrice() {
+        return Amount.ofUnits(bidUnits);
+    }
+
+    public Amount askPrice() {
+        return Amount.ofUnits(askUnits);
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.cryptotrading.client;
+
+import com.example.cryptotrading.domain.Amount;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Token-level decoding of exchange ticker payloads. Objects are filtered while they are read: once the symbol is
+ * known not to be active, the rest of the object is skipped without decoding its values, and prices are only
+ * parsed for matching symbols.
+ */
+@UtilityClass
+public class BookTickerDecoder {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final TickerFields BINANCE_FIELDS = new TickerFields("symbol", "bidPrice", "askPrice");
+    private static final TickerFields HUOBI_FIELDS = new TickerFields("symbol", "bid", "ask");
+
+    /**
+     * Decodes the Binance {@code /api/v3/ticker/bookTicker} array.
+     */
+    public static Map<String, BookTicker> decodeBinance(InputStream body, Set<String> symbols) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            Map<String, BookTicker> tickers = new HashMap<>();
+            if (parser.nextToken() == JsonToken.START_ARRAY) {
+                decodeArray(parser, SymbolMatcher.of(symbols), BINANCE_FIELDS, tickers);
+            }
+            return tickers;
+        }
+    }
+
+    /**
+     * Decodes the Huobi {@code /market/tickers} envelope, reading only its {@code data} array.
+     */
+    public static Map<String, BookTicker> decodeHuobi(InputStream body, Set<String> symbols) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            Map<String, BookTicker> tickers = new HashMap<>();
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return tickers;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if ("data".equals(field) && parser.nextToken() == JsonToken.START_ARRAY) {
+                    decodeArray(parser, SymbolMatcher.of(symbols), HUOBI_FIELDS, tickers);
+                } else {
+                    parser.nextToken();
+                    parser.skipChildren();
+                }
+            }
+            return tickers;
+        }
+    }
+
+    /**
+     * Decodes a Huobi {@code /market/detail/merged} response, whose {@code tick.bid} and {@code tick.ask} are
+     * {@code [price, size]} pairs. Returns null when the response carries no tick.
+     */
+    public static BookTicker decodeHuobiMerged(InputStream body) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            BookTicker ticker = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if ("tick".equals(field) && parser.nextToken() == JsonToken.START_OBJECT) {
+                    ticker = decodeMergedTick(parser);
+                } else {
+                    parser.nextToken();
+                    parser.skipChildren();
+                }
+            }
+            return ticker;
+        }
+    }
+
+    private static BookTicker decodeMergedTick(JsonParser parser) throws IOException {
+        long bid = 0;
+        long ask = 0;
+        boolean hasBid = false;
+        boolean hasAsk = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.START_ARRAY && ("bid".equals(field) || "ask".equals(field))) {
+                boolean numeric = parser.nextToken().isNumeric();
+                long price = numeric ? priceUnits(parser) : 0;
+                skipRemainingElements(parser);
+                if ("bid".equals(field)) {
+                    bid = price;
+                    hasBid = numeric;
+                } else {
+                    ask = price;
+                    hasAsk = numeric;
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return hasBid && hasAsk ? new BookTicker(bid, ask) : null;
+    }
+
+    private static void decodeArray(JsonParser parser, SymbolMatcher matcher, TickerFields fields,
+            Map<String, BookTicker> tickers) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token == JsonToken.START_OBJECT) {
+                decodeObject(parser, matcher, fields, tickers);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void decodeObject(JsonParser parser, SymbolMatcher matcher, TickerFields fields,
+            Map<String, BookTicker> tickers) throws IOException {
+        String symbol = null;
+        // Prices seen before the symbol are kept as text; we cannot know yet whether they are needed.
+        String pendingBid = null;
+        String pendingAsk = null;
+        long bid = 0;
+        long ask = 0;
+        boolean hasBid = false;
+        boolean hasAsk = false;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (!value.isScalarValue() || value == JsonToken.VALUE_NULL) {
+                parser.skipChildren();
+            } else if (field.equals(fields.symbol())) {
+                symbol = matcher.match(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                if (symbol == null) {
+                    skipRemainingFields(parser);
+                    return;
+                }
+            } else if (field.equals(fields.bid())) {
+                if (symbol != null) {
+                    bid = priceUnits(parser);
+                    hasBid = true;
+                } else {
+                    pendingBid = parser.getText();
+                }
+            } else if (field.equals(fields.ask())) {
+                if (symbol != null) {
+                    ask = priceUnits(parser);
+                    hasAsk = true;
+                } else {
+                    pendingAsk = parser.getText();
+                }
+            }
+        }
+
+        if (symbol == null) {
+            return;
+        }
+        if (!hasBid && pendingBid != null) {
+            bid = Amount.parseUnits(pendingBid);
+            hasBid = true;
+        }
+        if (!hasAsk && pendingAsk != null) {
+            ask = Amount.parseUnits(pendingAsk);
+            hasAsk = true;
+        }
+        if (hasBid && hasAsk) {
+            tickers.put(symbol, new BookTicker(bid, ask));
+        }
+    }
+
+    /**
+     * Parses the current number or numeric string into {@link Amount} units straight from the parser's buffer.
+     */
+    public static long priceUnits(JsonParser parser) throws IOException {
+        return Amount.parseUnits(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+    }
+
+    private static void skipRemainingFields(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            parser.nextToken();
+            parser.skipChildren();
+        }
+    }
+
+    private static void skipRemainingElements(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        while (token != JsonToken.END_ARRAY && token != null) {
+            parser.skipChildren();
+            token = parser.nextToken();
+        }
+    }
+
+    private record TickerFields(String symbol, String bid, String ask) {
+    }
+}
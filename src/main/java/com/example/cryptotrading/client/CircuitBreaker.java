@@ -0,0 +1,57 @@
+package com.example.cryptotrading.client;
+
+import com.example.cryptotrading.config.ExchangeProperties;
+
+/**
+ * Consecutive-failure breaker. Once open, calls are rejected until the open duration has passed; then exactly one
+ * probe is admitted, whose outcome closes the breaker or opens it again.
+ */
+class CircuitBreaker {
+
+    enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    CircuitBreaker(ExchangeProperties.Breaker properties) {
+        this.failureThreshold = properties.getFailureThreshold();
+        this.openNanos = properties.getOpenDuration().toNanos();
+    }
+
+    synchronized boolean tryAcquire() {
+        return switch (state) {
+            case CLOSED -> true;
+            case HALF_OPEN -> false;
+            case OPEN -> {
+                if (System.nanoTime() - openedAt < openNanos) {
+                    yield false;
+                }
+                state = State.HALF_OPEN;
+                yield true;
+            }
+        };
+    }
+
+    synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+    }
+
+    synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+}
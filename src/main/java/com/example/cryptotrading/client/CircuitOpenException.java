@@ -0,0 +1,11 @@
+package com.example.cryptotrading.client;
+
+/**
+ * Thrown instead of calling a venue whose circuit breaker is open.
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    public CircuitOpenException(String exchange) {
+        super(exchange + " circuit breaker is open");
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.cryptotrading.client;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A venue the price aggregation can query for top-of-book quotes. Implementations are picked up by
+ * {@link ExchangeClientRegistry}; failures are propagated to the caller, which drops the venue for the cycle.
+ */
+public interface ExchangeClient {
+
+    /**
+     * Venue code stored as bid/ask exchange on aggregated prices, e.g. {@code BINANCE}.
+     */
+    String name();
+
+    /**
+     * Returns the best bid/ask per requested symbol, keyed by the upper-case symbol. Symbols the venue does not
+     * list are simply absent.
+     */
+    Map<String, BookTicker> getBookTickers(Set<String> symbols);
+}
@@ -0,0 +1,33 @@
+package com.example.cryptotrading.client;
+
+import com.example.cryptotrading.config.ExchangeProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Holds the enabled venues, each guarded by its own circuit breaker and optional request hedging.
+ */
+@Component
+@Slf4j
+public class ExchangeClientRegistry {
+
+    private final List<ExchangeClient> enabledClients;
+
+    public ExchangeClientRegistry(List<ExchangeClient> clients, ExchangeProperties properties,
+            ExecutorService exchangeFetchExecutor, MeterRegistry meterRegistry) {
+        this.enabledClients = clients.stream()
+                .filter(client -> properties.venue(client.name()).isEnabled())
+                .<ExchangeClient>map(client -> new GuardedExchangeClient(
+                        client, properties.venue(client.name()), exchangeFetchExecutor, meterRegistry))
+                .toList();
+        log.info("Enabled exchanges: {}", enabledClients.stream().map(ExchangeClient::name).toList());
+    }
+
+    public List<ExchangeClient> getEnabledClients() {
+        return enabledClients;
+    }
+}
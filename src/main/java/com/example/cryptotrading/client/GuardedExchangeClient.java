@@ -0,0 +1,134 @@
+package com.example.cryptotrading.client;
+
+import com.example.cryptotrading.config.ExchangeProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps a venue client with a {@link CircuitBreaker} and, if enabled for the venue, hedged requests: when the first
+ * request is slower than the configured latency percentile a second one is sent and the first answer wins.
+ */
+@Slf4j
+class GuardedExchangeClient implements ExchangeClient {
+
+    static final String BREAKER_STATE_GAUGE = "price.exchange.breaker.state";
+    static final String BREAKER_REJECTED_COUNTER = "price.exchange.breaker.rejected";
+    static final String HEDGE_COUNTER = "price.exchange.hedge";
+
+    private final ExchangeClient delegate;
+    private final ExchangeProperties.Hedge hedge;
+    private final ExecutorService executor;
+    private final CircuitBreaker breaker;
+    private final LatencyTracker latencies;
+    private final Counter rejected;
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+
+    GuardedExchangeClient(ExchangeClient delegate, ExchangeProperties.Venue venue, ExecutorService executor,
+            MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.hedge = venue.getHedge();
+        this.executor = executor;
+        this.breaker = new CircuitBreaker(venue.getBreaker());
+        this.latencies = new LatencyTracker(hedge.getSampleSize());
+        String exchange = delegate.name();
+        Gauge.builder(BREAKER_STATE_GAUGE, breaker, b -> b.state().ordinal())
+                .description("0 closed, 1 half-open, 2 open")
+                .tag("exchange", exchange)
+                .register(meterRegistry);
+        this.rejected = meterRegistry.counter(BREAKER_REJECTED_COUNTER, "exchange", exchange);
+        this.hedgesSent = meterRegistry.counter(HEDGE_COUNTER, "exchange", exchange, "outcome", "sent");
+        this.hedgesWon = meterRegistry.counter(HEDGE_COUNTER, "exchange", exchange, "outcome", "won");
+    }
+
+    @Override
+    public String name() {
+        return delegate.name();
+    }
+
+    @Override
+    public Map<String, BookTicker> getBookTickers(Set<String> symbols) {
+        if (!breaker.tryAcquire()) {
+            rejected.increment();
+            throw new CircuitOpenException(name());
+        }
+        long start = System.nanoTime();
+        try {
+            Map<String, BookTicker> tickers = hedge.isEnabled() ? fetchHedged(symbols) : delegate.getBookTickers(symbols);
+            latencies.record(System.nanoTime() - start);
+            breaker.onSuccess();
+            return tickers;
+        } catch (RuntimeException e) {
+            breaker.onFailure();
+            throw e;
+        }
+    }
+
+    CircuitBreaker.State breakerState() {
+        return breaker.state();
+    }
+
+    private Map<String, BookTicker> fetchHedged(Set<String> symbols) {
+        long hedgeDelay = Math.max(hedge.getMinDelay().toNanos(), latencies.percentile(hedge.getPercentile()));
+        ExecutorCompletionService<Map<String, BookTicker>> completion = new ExecutorCompletionService<>(executor);
+        List<Future<Map<String, BookTicker>>> requests = new ArrayList<>(2);
+        requests.add(completion.submit(() -> delegate.getBookTickers(symbols)));
+        try {
+            Future<Map<String, BookTicker>> done = completion.poll(hedgeDelay, TimeUnit.NANOSECONDS);
+            if (done != null) {
+                return done.get();
+            }
+            Future<Map<String, BookTicker>> hedged = completion.submit(() -> delegate.getBookTickers(symbols));
+            requests.add(hedged);
+            hedgesSent.increment();
+            log.debug("{} slower than {} ms, hedging", name(), TimeUnit.NANOSECONDS.toMillis(hedgeDelay));
+            return firstSuccessful(completion, requests, hedged);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while fetching " + name());
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } finally {
+            requests.forEach(request -> request.cancel(true));
+        }
+    }
+
+    /**
+     * Waits for the first request that succeeds; fails only if both did.
+     */
+    private Map<String, BookTicker> firstSuccessful(ExecutorCompletionService<Map<String, BookTicker>> completion,
+            List<Future<Map<String, BookTicker>>> requests, Future<Map<String, BookTicker>> hedged)
+            throws InterruptedException, ExecutionException {
+        ExecutionException firstFailure = null;
+        for (int i = 0; i < requests.size(); i++) {
+            Future<Map<String, BookTicker>> done = completion.take();
+            try {
+                Map<String, BookTicker> tickers = done.get();
+                if (done == hedged) {
+                    hedgesWon.increment();
+                }
+                return tickers;
+            } catch (ExecutionException e) {
+                firstFailure = e;
+            }
+        }
+        throw firstFailure;
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        return e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+    }
+}
@@ -1,55 +1,102 @@
 package com.example.cryptotrading.client;
 
-import java.math.BigDecimal;
+import java.net.URI;
 import java.util.Collections;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.example.cryptotrading.config.ExchangeProperties;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
 @Component
+@Order(2)
 @AllArgsConstructor
 @Slf4j
-public class HuobiClient {
+public class HuobiClient implements ExchangeClient {
 
-    private static final String URL = "https://api.huobi.pro/market/tickers";
+    public static final String NAME = "HUOBI";
 
-    private final RestTemplate restTemplate;
+    private static final String DEFAULT_BASE_URL = "https://api.huobi.pro";
+    private static final String TICKERS_PATH = "/market/tickers";
+    private static final String MERGED_PATH = "/market/detail/merged";
 
-    public Map<String, BinanceClient.BookTicker> getBookTickers(Set<String> supportedSymbols) {
-        Set<String> lowerCaseSymbols = supportedSymbols.stream()
-                .map(String::toLowerCase)
-                .collect(Collectors.toSet());
-        try {
-            HuobiResponse response = restTemplate.getForObject(URL, HuobiResponse.class);
+    private final RestTemplate restTemplate;
+    private final ExchangeProperties exchangeProperties;
+    private final ExecutorService exchangeFetchExecutor;
 
-            if (response == null || response.data() == null) {
-                return Collections.emptyMap();
-            }
+    @Override
+    public String name() {
+        return NAME;
+    }
 
-            return response.data().stream()
-                    .filter(t -> lowerCaseSymbols.contains(t.symbol()))
-                    .collect(Collectors.toMap(
-                            t -> t.symbol().toUpperCase(),
-                            t -> new BinanceClient.BookTicker(t.bid(), t.ask())
-                    ));
-        } catch (Exception e) {
-            log.warn("Failed to fetch Huobi tickers: {}", e.getMessage());
-            return Collections.emptyMap();
+    @Override
+    public Map<String, BookTicker> getBookTickers(Set<String> supportedSymbols) {
+        if (supportedSymbols.size() <= exchangeProperties.venue(NAME).getMaxScopedSymbols()) {
+            return getMergedTickers(supportedSymbols);
         }
+        Map<String, BookTicker> tickers = restTemplate.execute(uri(TICKERS_PATH, null), HttpMethod.GET, null,
+                response -> BookTickerDecoder.decodeHuobi(response.getBody(), supportedSymbols));
+        return tickers != null ? tickers : Collections.emptyMap();
     }
 
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    public record HuobiResponse(String status, List<HuobiTicker> data) {
+    /**
+     * Huobi has no multi-symbol BBO endpoint, so each symbol gets its own merged-ticker call, all in flight at once.
+     * Symbols whose call fails are left out; the venue only fails as a whole when every call does.
+     */
+    private Map<String, BookTicker> getMergedTickers(Set<String> symbols) {
+        Map<String, Future<BookTicker>> fetches = new HashMap<>();
+        for (String symbol : symbols) {
+            URI uri = uri(MERGED_PATH, symbol.toLowerCase(Locale.ROOT));
+            fetches.put(symbol, exchangeFetchExecutor.submit(() -> restTemplate.execute(uri, HttpMethod.GET, null,
+                    response -> BookTickerDecoder.decodeHuobiMerged(response.getBody()))));
+        }
+
+        Map<String, BookTicker> tickers = new HashMap<>();
+        RuntimeException failure = null;
+        try {
+            for (Map.Entry<String, Future<BookTicker>> fetch : fetches.entrySet()) {
+                try {
+                    BookTicker ticker = fetch.getValue().get();
+                    if (ticker != null) {
+                        tickers.put(fetch.getKey(), ticker);
+                    }
+                } catch (ExecutionException e) {
+                    log.warn("Failed to fetch Huobi ticker for {}: {}", fetch.getKey(), e.getCause().getMessage());
+                    failure = e.getCause() instanceof RuntimeException cause
+                            ? cause : new IllegalStateException(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            fetches.values().forEach(fetch -> fetch.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while fetching Huobi tickers", e);
+        }
+
+        if (tickers.isEmpty() && failure != null) {
+            throw failure;
+        }
+        return tickers;
     }
 
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    public record HuobiTicker(String symbol, BigDecimal bid, BigDecimal ask) {
+    private URI uri(String path, String symbol) {
+        UriComponentsBuilder uri = UriComponentsBuilder
+                .fromUriString(Objects.requireNonNullElse(exchangeProperties.venue(NAME).getBaseUrl(), DEFAULT_BASE_URL))
+                .path(path);
+        if (symbol != null) {
+            uri.queryParam("symbol", symbol);
+        }
+        return uri.encode().build().toUri();
     }
 }
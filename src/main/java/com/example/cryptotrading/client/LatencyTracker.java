@@ -0,0 +1,38 @@
+package com.example.cryptotrading.client;
+
+import java.util.Arrays;
+
+/**
+ * Ring buffer of the most recent fetch latencies.
+ */
+class LatencyTracker {
+
+    private static final int MIN_SAMPLES = 10;
+
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    LatencyTracker(int size) {
+        this.samples = new long[size];
+    }
+
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    /**
+     * @return the latency at {@code percentile} in nanoseconds, or {@code -1} until enough samples were recorded
+     */
+    synchronized long percentile(double percentile) {
+        if (count < Math.min(MIN_SAMPLES, samples.length)) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * count) - 1;
+        return sorted[Math.max(0, Math.min(index, count - 1))];
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.cryptotrading.client;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Case-insensitive lookup of a symbol held in a parser's character buffer, without materialising a String for
+ * symbols that are not in the active set. Backed by an open-addressing table sized to a power of two.
+ */
+final class SymbolMatcher {
+
+    private final char[][] keys;
+    private final String[] symbols;
+    private final int mask;
+
+    private SymbolMatcher(Set<String> activeSymbols) {
+        int capacity = Integer.highestOneBit(Math.max(2, activeSymbols.size()) * 4 - 1) << 1;
+        this.keys = new char[capacity][];
+        this.symbols = new String[capacity];
+        this.mask = capacity - 1;
+        for (String symbol : activeSymbols) {
+            String canonical = symbol.toUpperCase(Locale.ROOT);
+            char[] key = canonical.toCharArray();
+            int slot = hash(key, 0, key.length) & mask;
+            while (keys[slot] != null && !matches(keys[slot], key, 0, key.length)) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            symbols[slot] = canonical;
+        }
+    }
+
+    static SymbolMatcher of(Set<String> activeSymbols) {
+        return new SymbolMatcher(activeSymbols);
+    }
+
+    /**
+     * Returns the upper-case active symbol equal to {@code buffer[offset, offset + length)}, or null.
+     */
+    String match(char[] buffer, int offset, int length) {
+        int slot = hash(buffer, offset, length) & mask;
+        while (keys[slot] != null) {
+            if (matches(keys[slot], buffer, offset, length)) {
+                return symbols[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    private static int hash(char[] buffer, int offset, int length) {
+        int h = 0;
+        for (int i = offset; i < offset + length; i++) {
+            h = 31 * h + upper(buffer[i]);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(char[] key, char[] buffer, int offset, int length) {
+        if (key.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key[i] != upper(buffer[offset + i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char upper(char c) {
+        return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+    }
+}
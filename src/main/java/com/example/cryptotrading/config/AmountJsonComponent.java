@@ -0,0 +1,74 @@
+package com.example.cryptotrading.config;
+
+import com.example.cryptotrading.domain.Amount;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link Amount} as a plain JSON number with its 8 decimals, the same shape the {@code BigDecimal} fields
+ * had, and reads it from a number or a numeric string. Reading rejects more than 8 significant decimals instead of
+ * rounding them away, as {@code @Digits(fraction = 8)} did for request amounts.
+ */
+@JsonComponent
+public class AmountJsonComponent {
+
+    public static class Serializer extends JsonSerializer<Amount> {
+
+        @Override
+        public void serialize(Amount value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeNumber(value.toString());
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<Amount> {
+
+        @Override
+        public Amount deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (!token.isNumeric() && token != JsonToken.VALUE_STRING) {
+                return (Amount) context.handleUnexpectedToken(Amount.class, parser);
+            }
+            char[] chars = parser.getTextCharacters();
+            int offset = parser.getTextOffset();
+            int length = parser.getTextLength();
+            if (fractionDigits(chars, offset, length) > Amount.SCALE) {
+                throw InvalidFormatException.from(parser,
+                        "Amount supports at most " + Amount.SCALE + " decimal places", parser.getText(), Amount.class);
+            }
+            try {
+                return Amount.ofUnits(Amount.parseUnits(chars, offset, length));
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw InvalidFormatException.from(parser, e.getMessage(), parser.getText(), Amount.class);
+            }
+        }
+
+        /**
+         * Decimals up to the last non-zero one, so {@code 0.10000000000} still counts as one.
+         */
+        private static int fractionDigits(char[] chars, int offset, int length) {
+            int end = offset + length;
+            int point = -1;
+            int lastNonZero = -1;
+            for (int i = offset; i < end; i++) {
+                char c = chars[i];
+                if (c == '.') {
+                    point = i;
+                } else if (c == 'e' || c == 'E') {
+                    break;
+                } else if (point >= 0 && c > '0' && c <= '9') {
+                    lastNonZero = i;
+                }
+            }
+            return point < 0 || lastNonZero < 0 ? 0 : lastNonZero - point;
+        }
+    }
+}
@@ -1,20 +1,84 @@
 package com.example.cryptotrading.config;
 
+import com.example.cryptotrading.domain.IdempotencyKey;
+import com.example.cryptotrading.dto.TradeResponseDto;
+import com.example.cryptotrading.util.ExpiringCache;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
-import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
 public class AppConfig {
 
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient exchangeHttpClient) {
         return builder
-                .connectTimeout(Duration.ofSeconds(5))
-                .readTimeout(Duration.ofSeconds(5))
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(exchangeHttpClient))
                 .build();
     }
+
+    /**
+     * Pooled transport shared by all exchange clients. Connections are kept alive between aggregation cycles, and
+     * responses are requested and transparently decoded as gzip/deflate.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient exchangeHttpClient(PoolingHttpClientConnectionManager exchangeConnectionManager,
+            ExchangeHttpProperties properties) {
+        TimeValue keepAlive = TimeValue.of(properties.getKeepAlive());
+        return HttpClients.custom()
+                .setConnectionManager(exchangeConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(Timeout.of(properties.getReadTimeout()))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> keepAlive)
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAlive)
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager exchangeConnectionManager(ExchangeHttpProperties properties) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxConnections())
+                .setMaxConnPerRoute(properties.getMaxConnectionsPerHost())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.getReadTimeout()))
+                        .setTimeToLive(TimeValue.of(properties.getConnectionTimeToLive()))
+                        .build())
+                .build();
+    }
+
+    @Bean
+    public MeterBinder exchangeConnectionPoolMetrics(PoolingHttpClientConnectionManager exchangeConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(exchangeConnectionManager, "exchange");
+    }
+
+    @Bean(destroyMethod = "close")
+    public ExecutorService exchangeFetchExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Responses of trades submitted with an {@code Idempotency-Key}, returned to retries of the same key.
+     */
+    @Bean
+    public ExpiringCache<IdempotencyKey, TradeResponseDto> executedTradeCache(IdempotencyProperties properties) {
+        return new ExpiringCache<>(properties.getTtl(), properties.getMaxEntries());
+    }
 }
@@ -0,0 +1,29 @@
+package com.example.cryptotrading.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "price.candles")
+public class CandleProperties {
+
+    /**
+     * Bars kept in memory per symbol and interval, e.g. 1440 one-minute bars cover a day. Older bars are read from
+     * the database.
+     */
+    private int memoryBars = 1440;
+
+    /**
+     * How often closed bars are written to the database.
+     */
+    private Duration flushInterval = Duration.ofSeconds(10);
+
+    /**
+     * Upper bound of the {@code limit} a candle request may ask for.
+     */
+    private int maxLimit = 1000;
+}
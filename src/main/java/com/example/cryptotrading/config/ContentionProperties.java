@@ -0,0 +1,25 @@
+package com.example.cryptotrading.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "trading.contention")
+public class ContentionProperties {
+
+    /**
+     * Attempts per settlement, the first included, before a wallet conflict is returned to the client as 409.
+     */
+    private int maxAttempts = 5;
+
+    /**
+     * Upper bound of the random delay before the first retry; it doubles with every further retry.
+     */
+    private Duration initialBackoff = Duration.ofMillis(5);
+
+    private Duration maxBackoff = Duration.ofMillis(200);
+}
@@ -0,0 +1,35 @@
+package com.example.cryptotrading.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "price.http")
+public class ExchangeHttpProperties {
+
+    private int maxConnections = 50;
+
+    /**
+     * Upper bound of open connections to a single venue host. Huobi's per-symbol fan-out is the main consumer.
+     */
+    private int maxConnectionsPerHost = 10;
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    private Duration readTimeout = Duration.ofSeconds(5);
+
+    /**
+     * How long an idle connection is kept when the venue does not send a {@code Keep-Alive} header. Should outlast
+     * the polling interval so every cycle reuses the previous cycle's connections.
+     */
+    private Duration keepAlive = Duration.ofSeconds(30);
+
+    /**
+     * Connections are retired after this age regardless of use, so DNS changes on the venue side are picked up.
+     */
+    private Duration connectionTimeToLive = Duration.ofMinutes(5);
+}
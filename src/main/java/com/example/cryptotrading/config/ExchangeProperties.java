@@ -0,0 +1,92 @@
+package com.example.cryptotrading.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "price")
+public class ExchangeProperties {
+
+    /**
+     * Per-venue settings keyed by the lower-case venue name, e.g. {@code price.exchanges.binance.enabled}.
+     */
+    private Map<String, Venue> exchanges = new HashMap<>();
+
+    public Venue venue(String name) {
+        return exchanges.getOrDefault(name.toLowerCase(Locale.ROOT), new Venue());
+    }
+
+    @Getter
+    @Setter
+    public static class Venue {
+
+        private boolean enabled = true;
+
+        /**
+         * REST base URL; the client's public endpoint is used when unset.
+         */
+        private String baseUrl;
+
+        /**
+         * WebSocket base URL used in streaming mode; the venue's public stream endpoint is used when unset.
+         */
+        private String streamUrl;
+
+        /**
+         * Largest active pair set still fetched with symbol-scoped requests. Above it the client downloads the
+         * full-market ticker dump, which is cheaper than many scoped calls.
+         */
+        private int maxScopedSymbols = 20;
+
+        private Breaker breaker = new Breaker();
+
+        private Hedge hedge = new Hedge();
+    }
+
+    @Getter
+    @Setter
+    public static class Breaker {
+
+        /**
+         * Consecutive failed fetches after which the venue is skipped.
+         */
+        private int failureThreshold = 3;
+
+        /**
+         * How long an open breaker skips the venue before a single probe fetch is let through.
+         */
+        private Duration openDuration = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class Hedge {
+
+        /**
+         * Sends a second, identical request when the first is slower than usual and keeps whichever answers first.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Latency percentile of recent successful fetches after which the hedge is sent.
+         */
+        private double percentile = 0.95;
+
+        /**
+         * Lower bound of the hedge delay, so a fast venue is not asked twice on every cycle.
+         */
+        private Duration minDelay = Duration.ofMillis(100);
+
+        /**
+         * Number of recent fetch latencies the percentile is computed over.
+         */
+        private int sampleSize = 100;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.cryptotrading.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "trading.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * How long a trade's response is kept in memory for retries carrying the same {@code Idempotency-Key}. Older
+     * retries are still recognised through the trade table, but answered with the wallet's current balance.
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * Upper bound on cached responses; the oldest are dropped first.
+     */
+    private int maxEntries = 100_000;
+}
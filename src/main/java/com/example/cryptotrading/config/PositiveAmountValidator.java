@@ -0,0 +1,18 @@
+package com.example.cryptotrading.config;
+
+import com.example.cryptotrading.domain.Amount;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Lets {@link Positive} constrain {@link Amount} fields. Hibernate Validator picks it up from
+ * {@code META-INF/services/jakarta.validation.ConstraintValidator}.
+ */
+public class PositiveAmountValidator implements ConstraintValidator<Positive, Amount> {
+
+    @Override
+    public boolean isValid(Amount value, ConstraintValidatorContext context) {
+        return value == null || value.signum() > 0;
+    }
+}
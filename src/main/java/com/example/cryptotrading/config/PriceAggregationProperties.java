@@ -0,0 +1,42 @@
+package com.example.cryptotrading.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "price.aggregation")
+public class PriceAggregationProperties {
+
+    /**
+     * Deadline for all exchange fetches of one aggregation cycle. Venues that have not answered by then are
+     * dropped from the cycle.
+     */
+    private Duration fetchTimeout = Duration.ofSeconds(4);
+
+    /**
+     * Oldest price a trade may execute against. The scheduler polls a symbol at least three times within this
+     * window.
+     */
+    private Duration maxPriceAge = Duration.ofSeconds(30);
+
+    /**
+     * Shortest per-symbol polling interval, used while quotes move or a price nears {@link #maxPriceAge}. Also the
+     * scheduler tick.
+     */
+    private Duration minInterval = Duration.ofSeconds(1);
+
+    /**
+     * Longest per-symbol polling interval a quiet market or a throttling venue backs off to.
+     */
+    private Duration maxInterval = Duration.ofSeconds(10);
+
+    /**
+     * Relative mid-price change between two polls above which a symbol counts as moving and its interval halves.
+     */
+    private BigDecimal moveThreshold = new BigDecimal("0.0005");
+}
@@ -0,0 +1,30 @@
+package com.example.cryptotrading.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "price.streaming")
+public class PriceStreamingProperties {
+
+    /**
+     * Subscribes to the venues' book-ticker streams. REST polling stays active as fallback whenever a stream is down
+     * or quiet.
+     */
+    private boolean enabled = false;
+
+    /**
+     * A stream that has delivered nothing for this long is treated as unhealthy.
+     */
+    private Duration staleAfter = Duration.ofSeconds(5);
+
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    private Duration initialBackoff = Duration.ofMillis(500);
+
+    private Duration maxBackoff = Duration.ofSeconds(30);
+}
@@ -0,0 +1,23 @@
+package com.example.cryptotrading.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "trading.quotes")
+public class QuoteProperties {
+
+    /**
+     * How long a quoted price can be traded against.
+     */
+    private Duration ttl = Duration.ofSeconds(10);
+
+    /**
+     * Upper bound on open quotes; the oldest are dropped first.
+     */
+    private int maxEntries = 10_000;
+}
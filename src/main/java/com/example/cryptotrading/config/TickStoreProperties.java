@@ -0,0 +1,39 @@
+package com.example.cryptotrading.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "price.ticks")
+public class TickStoreProperties {
+
+    /**
+     * Appends every accepted best bid/ask to memory-mapped segment files under {@link #dir}.
+     */
+    private boolean enabled = false;
+
+    private Path dir = Path.of("data", "ticks");
+
+    /**
+     * Ticks per segment file, 64 bytes each. A day with more ticks continues in a further segment.
+     */
+    private int segmentCapacity = 1_048_576;
+
+    /**
+     * Every this many ticks a segment's time index gets an entry; a range query scans at most this many ticks
+     * before its start.
+     */
+    private int indexStride = 1024;
+
+    /**
+     * Days of ticks kept besides today. Older segments are deleted whole.
+     */
+    private int retentionDays = 30;
+
+    private Duration retentionCheckInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,67 @@
+package com.example.cryptotrading.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "trading.engine")
+public class TradingEngineProperties {
+
+    /**
+     * Executes trades on in-memory, per-shard balances instead of locking wallet rows. The database is brought up
+     * to date asynchronously from the shards' journals.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of single-threaded shards users are hashed to. May change between restarts: pending journal entries
+     * are written to the database before the shards start.
+     */
+    private int shards = 4;
+
+    private Path journalDir = Path.of("data", "journal");
+
+    /**
+     * Forces every journal write to disk before the trade is acknowledged. Turning it off trades durability on
+     * power loss for latency.
+     */
+    private boolean fsync = true;
+
+    /**
+     * Commands a shard buffers before rejecting new trades.
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * Journal entries written to the database per transaction.
+     */
+    private int persistBatchSize = 500;
+
+    /**
+     * Attempts at writing a batch before the engine gives up and stops accepting trades. The journal keeps the
+     * batch, so it is written on the next start.
+     */
+    private int persistMaxAttempts = 10;
+
+    /**
+     * Delay before the second attempt; it doubles with every further one up to {@link #persistMaxBackoff}.
+     */
+    private Duration persistInitialBackoff = Duration.ofMillis(100);
+
+    private Duration persistMaxBackoff = Duration.ofSeconds(10);
+
+    /**
+     * Once a shard's journal is larger than this, the entries already written to the database are cut off it.
+     */
+    private long maxJournalBytes = 64L * 1024 * 1024;
+
+    /**
+     * How long a request waits for its shard to journal the trade.
+     */
+    private Duration ackTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,25 @@
+package com.example.cryptotrading.controller;
+
+import com.example.cryptotrading.dto.PositionResponseDto;
+import com.example.cryptotrading.service.PositionService;
+import lombok.AllArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping("/api/positions")
+public class PositionController {
+
+    private static final Long DEFAULT_USER_ID = 1L;
+
+    private final PositionService positionService;
+
+    @GetMapping
+    public List<PositionResponseDto> getPositions() {
+        return positionService.getPositions(DEFAULT_USER_ID);
+    }
+}
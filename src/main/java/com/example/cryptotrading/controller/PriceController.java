@@ -1,10 +1,14 @@
 package com.example.cryptotrading.controller;
 
+import com.example.cryptotrading.dto.CandleResponseDto;
 import com.example.cryptotrading.dto.PriceResponseDto;
+import com.example.cryptotrading.service.CandleService;
 import com.example.cryptotrading.service.PriceService;
 import lombok.AllArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -15,9 +19,21 @@ import java.util.List;
 public class PriceController {
 
     private final PriceService priceService;
+    private final CandleService candleService;
 
     @GetMapping
     public List<PriceResponseDto> getLatestPrices() {
         return priceService.getLatestPrices();
     }
+
+    /**
+     * The latest {@code limit} bars (default 60) of {@code interval} {@code 1m}, {@code 5m} or {@code 1h}, oldest
+     * first; the last one is still in progress.
+     */
+    @GetMapping("/{symbol}/candles")
+    public List<CandleResponseDto> getCandles(@PathVariable String symbol,
+            @RequestParam(defaultValue = "1m") String interval,
+            @RequestParam(required = false) Integer limit) {
+        return candleService.getCandles(symbol, interval, limit);
+    }
 }
@@ -0,0 +1,32 @@
+package com.example.cryptotrading.controller;
+
+import com.example.cryptotrading.dto.QuoteRequestDto;
+import com.example.cryptotrading.dto.QuoteResponseDto;
+import com.example.cryptotrading.service.TradeService;
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping("/api/quotes")
+public class QuoteController {
+
+    private static final Long DEFAULT_USER_ID = 1L;
+
+    private final TradeService tradeService;
+
+    /**
+     * Locks the current price; pass the returned {@code quoteId} to {@code POST /api/trades} before it expires.
+     */
+    @PostMapping
+    public ResponseEntity<QuoteResponseDto> createQuote(@Valid @RequestBody QuoteRequestDto request) {
+        QuoteResponseDto response = tradeService.createQuote(DEFAULT_USER_ID, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+}
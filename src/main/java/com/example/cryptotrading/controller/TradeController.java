@@ -1,20 +1,31 @@
 package com.example.cryptotrading.controller;
 
+import com.example.cryptotrading.dto.CursorPage;
 import com.example.cryptotrading.dto.GenericPage;
+import com.example.cryptotrading.dto.TradeBatchRequestDto;
+import com.example.cryptotrading.dto.TradeBatchResponseDto;
+import com.example.cryptotrading.dto.TradeExportFormat;
+import com.example.cryptotrading.dto.TradeHistoryCursorDto;
 import com.example.cryptotrading.dto.TradeHistoryDto;
 import com.example.cryptotrading.dto.TradeHistoryFilterDto;
 import com.example.cryptotrading.dto.TradeRequestDto;
 import com.example.cryptotrading.dto.TradeResponseDto;
+import com.example.cryptotrading.service.TradeExportService;
 import com.example.cryptotrading.service.TradeService;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @AllArgsConstructor
@@ -22,17 +33,55 @@ import org.springframework.web.bind.annotation.RestController;
 public class TradeController {
 
     private static final Long DEFAULT_USER_ID = 1L;
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
 
     private final TradeService tradeService;
+    private final TradeExportService tradeExportService;
 
+    /**
+     * Retries carrying the same {@code Idempotency-Key} header get the original trade back instead of trading again.
+     */
     @PostMapping
-    public ResponseEntity<TradeResponseDto> executeTrade(@Valid @RequestBody TradeRequestDto request) {
-        TradeResponseDto response = tradeService.executeTrade(DEFAULT_USER_ID, request);
+    public ResponseEntity<TradeResponseDto> executeTrade(@Valid @RequestBody TradeRequestDto request,
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        TradeResponseDto response = tradeService.executeTrade(DEFAULT_USER_ID, request, idempotencyKey);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Executes up to 100 orders at once. Each order succeeds or is rejected on its own; see the per-order results.
+     */
+    @PostMapping("/batch")
+    public TradeBatchResponseDto executeTrades(@Valid @RequestBody TradeBatchRequestDto request) {
+        return tradeService.executeTrades(DEFAULT_USER_ID, request.orders());
+    }
+
     @GetMapping
     public GenericPage<TradeHistoryDto> getTradeHistory(TradeHistoryFilterDto filter) {
         return tradeService.getTradeHistory(DEFAULT_USER_ID, filter);
     }
+
+    /**
+     * Newest trades first, {@code limit} at a time (default 50, at most 500); pass {@code nextCursor} back as
+     * {@code cursor} for the next page.
+     */
+    @GetMapping("/cursor")
+    public CursorPage<TradeHistoryDto> getTradeHistoryPage(TradeHistoryCursorDto request) {
+        return tradeService.getTradeHistoryPage(DEFAULT_USER_ID, request);
+    }
+
+    /**
+     * The whole history, oldest first, as NDJSON (default) or CSV ({@code format=csv}). Rows are written while they
+     * are read, so the response starts at once and its size is not bounded by memory.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTradeHistory(
+            @RequestParam(name = "format", defaultValue = "ndjson") String formatName) {
+        TradeExportFormat format = TradeExportFormat.fromString(formatName);
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(format.fileName()).build().toString())
+                .body(out -> tradeExportService.export(DEFAULT_USER_ID, format, out));
+    }
 }
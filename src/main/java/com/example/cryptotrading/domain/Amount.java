@@ -0,0 +1,200 @@
+package com.example.cryptotrading.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point decimal with 8 fractional digits, the scale of every amount column, stored as a {@code long} count of
+ * 10<sup>-8</sup> units. Arithmetic is exact or rounds half-up to the scale, and throws {@link ArithmeticException}
+ * instead of overflowing.
+ * <p>
+ * The static methods on raw unit counts, {@link #parseUnits(char[], int, int)} and {@link #multiplyUnits(long, long)},
+ * do not allocate; they are what the price path uses for parsing, comparing and multiplying. Instances wrap a unit
+ * count for entities, DTOs and everything else.
+ */
+public final class Amount implements Comparable<Amount> {
+
+    public static final int SCALE = 8;
+    public static final long UNITS_PER_ONE = 100_000_000L;
+    public static final Amount ZERO = new Amount(0);
+
+    private static final long LOW_32_BITS = 0xFFFF_FFFFL;
+    private static final long MAX_BEFORE_DIGIT = Long.MAX_VALUE / 10;
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L};
+
+    private final long units;
+
+    private Amount(long units) {
+        this.units = units;
+    }
+
+    public static Amount ofUnits(long units) {
+        return units == 0 ? ZERO : new Amount(units);
+    }
+
+    public static Amount of(BigDecimal value) {
+        return ofUnits(unitsOf(value));
+    }
+
+    public static Amount of(String value) {
+        return ofUnits(parseUnits(value));
+    }
+
+    public long units() {
+        return units;
+    }
+
+    public int signum() {
+        return Long.signum(units);
+    }
+
+    public Amount add(Amount other) {
+        return ofUnits(Math.addExact(units, other.units));
+    }
+
+    public Amount subtract(Amount other) {
+        return ofUnits(Math.subtractExact(units, other.units));
+    }
+
+    /**
+     * Product rounded half-up to 8 decimals, e.g. quantity times price.
+     */
+    public Amount multiply(Amount other) {
+        return ofUnits(multiplyUnits(units, other.units));
+    }
+
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(units);
+    }
+
+    @Override
+    public int compareTo(Amount other) {
+        return Long.compare(units, other.units);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Amount amount && amount.units == units;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(units);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    public static BigDecimal toBigDecimal(long units) {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    /**
+     * Units of {@code value} rounded half-up to 8 decimals.
+     */
+    public static long unitsOf(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static long parseUnits(CharSequence text) {
+        int length = text.length();
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = text.charAt(i);
+        }
+        return parseUnits(chars, 0, length);
+    }
+
+    /**
+     * Parses a plain decimal such as {@code -123.45678901} straight into units, rounding digits beyond the 8th
+     * decimal half-up. Exponent notation is rare in exchange payloads and falls back to {@link BigDecimal}.
+     *
+     * @throws NumberFormatException if the text is not a decimal number
+     * @throws ArithmeticException   if the value does not fit
+     */
+    public static long parseUnits(char[] chars, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+        long units = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        boolean roundUp = false;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (fractionDigits < SCALE) {
+                    if (units >= MAX_BEFORE_DIGIT && (units > MAX_BEFORE_DIGIT || c > '7')) {
+                        throw new ArithmeticException("Amount overflow: " + new String(chars, offset, length));
+                    }
+                    units = units * 10 + (c - '0');
+                    if (fractionDigits >= 0) {
+                        fractionDigits++;
+                    }
+                } else if (fractionDigits == SCALE) {
+                    roundUp = c >= '5';
+                    fractionDigits++;
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (c == 'e' || c == 'E') {
+                return unitsOf(new BigDecimal(chars, offset, length));
+            } else {
+                throw new NumberFormatException("Not a decimal: " + new String(chars, offset, length));
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Not a decimal: " + new String(chars, offset, length));
+        }
+        units = Math.multiplyExact(units, POWERS_OF_TEN[SCALE - Math.clamp(fractionDigits, 0, SCALE)]);
+        if (roundUp) {
+            units = Math.incrementExact(units);
+        }
+        return negative ? -units : units;
+    }
+
+    /**
+     * {@code a * b} in units, rounded half-up. The intermediate product is kept at 128 bits, so only a result that
+     * does not fit throws.
+     *
+     * @throws ArithmeticException if the rounded product does not fit
+     */
+    public static long multiplyUnits(long a, long b) {
+        boolean negative = (a < 0) != (b < 0);
+        long x = Math.absExact(a);
+        long y = Math.absExact(b);
+        long high = Math.unsignedMultiplyHigh(x, y);
+        long low = x * y;
+
+        // divide the unsigned 128-bit product by 10^8 one 32-bit limb at a time; the remainder stays below 2^27
+        if (high >>> 32 >= UNITS_PER_ONE) {
+            throw new ArithmeticException("Amount overflow");
+        }
+        long remainder = high >>> 32;
+        long dividend = (remainder << 32) | (high & LOW_32_BITS);
+        long upper = dividend / UNITS_PER_ONE;
+        remainder = dividend % UNITS_PER_ONE;
+        dividend = (remainder << 32) | (low >>> 32);
+        long middle = dividend / UNITS_PER_ONE;
+        remainder = dividend % UNITS_PER_ONE;
+        dividend = (remainder << 32) | (low & LOW_32_BITS);
+        long lower = dividend / UNITS_PER_ONE;
+        remainder = dividend % UNITS_PER_ONE;
+        if (upper != 0 || middle > Integer.MAX_VALUE) {
+            throw new ArithmeticException("Amount overflow");
+        }
+        long quotient = (middle << 32) | lower;
+        if (remainder * 2 >= UNITS_PER_ONE) {
+            quotient = Math.incrementExact(quotient);
+        }
+        return negative ? -quotient : quotient;
+    }
+}
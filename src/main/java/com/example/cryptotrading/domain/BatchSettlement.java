@@ -0,0 +1,15 @@
+package com.example.cryptotrading.domain;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of settling several orders of one user in sequence: the balances after each settled order (null for a
+ * rejected one) and the reason each rejected order was skipped, by order index.
+ */
+public record BatchSettlement(List<Settlement> settlements, Map<Integer, RuntimeException> rejections) {
+
+    public boolean isSettled(int index) {
+        return settlements.get(index) != null;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.cryptotrading.domain;
+
+import com.example.cryptotrading.client.BookTicker;
+
+/**
+ * Running best bid/ask across venues, in {@link Amount} units. Each offer keeps the current side unless the new
+ * price is strictly better, so on ties the venue offered first wins. A side nobody offered has a null exchange.
+ */
+public record BestQuote(long bidUnits, String bidExchange, long askUnits, String askExchange) {
+
+    public static final BestQuote EMPTY = new BestQuote(0, null, 0, null);
+
+    public BestQuote offer(String exchange, BookTicker ticker) {
+        return offerBid(exchange, ticker.bidUnits()).offerAsk(exchange, ticker.askUnits());
+    }
+
+    public BestQuote offerBid(String exchange, long bid) {
+        if (hasBid() && bid <= bidUnits) {
+            return this;
+        }
+        return new BestQuote(bid, exchange, askUnits, askExchange);
+    }
+
+    public BestQuote offerAsk(String exchange, long ask) {
+        if (hasAsk() && ask >= askUnits) {
+            return this;
+        }
+        return new BestQuote(bidUnits, bidExchange, ask, exchange);
+    }
+
+    public BestQuote offerBid(String exchange, Amount bid) {
+        return bid == null ? this : offerBid(exchange, bid.units());
+    }
+
+    public BestQuote offerAsk(String exchange, Amount ask) {
+        return ask == null ? this : offerAsk(exchange, ask.units());
+    }
+
+    public boolean hasBid() {
+        return bidExchange != null;
+    }
+
+    public boolean hasAsk() {
+        return askExchange != null;
+    }
+
+    public Amount bidPrice() {
+        return hasBid() ? Amount.ofUnits(bidUnits) : null;
+    }
+
+    public Amount askPrice() {
+        return hasAsk() ? Amount.ofUnits(askUnits) : null;
+    }
+
+    public boolean isEmpty() {
+        return !hasBid() && !hasAsk();
+    }
+}
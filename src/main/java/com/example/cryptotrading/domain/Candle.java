@@ -0,0 +1,36 @@
+package com.example.cryptotrading.domain;
+
+/**
+ * One bar of aggregated prices, in {@link Amount} units: open, high, low and close of the mid price, the highest
+ * best bid and lowest best ask seen during the bar, and the number of price updates it was built from. Immutable, so
+ * a bar in progress can be swapped atomically on every update.
+ */
+public record Candle(
+        long bucket,
+        long openUnits,
+        long highUnits,
+        long lowUnits,
+        long closeUnits,
+        long highBidUnits,
+        long lowAskUnits,
+        int ticks
+) {
+
+    public static Candle open(long bucket, long bidUnits, long askUnits) {
+        long mid = mid(bidUnits, askUnits);
+        return new Candle(bucket, mid, mid, mid, mid, bidUnits, askUnits, 1);
+    }
+
+    public Candle update(long bidUnits, long askUnits) {
+        long mid = mid(bidUnits, askUnits);
+        return new Candle(bucket, openUnits, Math.max(highUnits, mid), Math.min(lowUnits, mid), mid,
+                Math.max(highBidUnits, bidUnits), Math.min(lowAskUnits, askUnits), ticks + 1);
+    }
+
+    /**
+     * Midpoint rounded half-up to the unit.
+     */
+    static long mid(long bidUnits, long askUnits) {
+        return (Math.addExact(bidUnits, askUnits) + 1) >> 1;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.cryptotrading.domain;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Bar length of a {@link Candle}. Bars are aligned to whole multiples of the length since the epoch, in the time zone
+ * of the price timestamps.
+ */
+public enum CandleInterval {
+
+    ONE_MINUTE("1m", Duration.ofMinutes(1)),
+    FIVE_MINUTES("5m", Duration.ofMinutes(5)),
+    ONE_HOUR("1h", Duration.ofHours(1));
+
+    private final String code;
+    private final long seconds;
+
+    CandleInterval(String code, Duration length) {
+        this.code = code;
+        this.seconds = length.toSeconds();
+    }
+
+    public static CandleInterval fromCode(String code) {
+        for (CandleInterval interval : values()) {
+            if (interval.code.equals(code)) {
+                return interval;
+            }
+        }
+        throw new IllegalArgumentException("Invalid interval: " + code + ". Must be 1m, 5m or 1h");
+    }
+
+    public String code() {
+        return code;
+    }
+
+    /**
+     * Number of the bar that contains {@code time}; consecutive bars have consecutive numbers.
+     */
+    public long bucket(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), seconds);
+    }
+
+    public LocalDateTime openTime(long bucket) {
+        return LocalDateTime.ofEpochSecond(bucket * seconds, 0, ZoneOffset.UTC);
+    }
+}
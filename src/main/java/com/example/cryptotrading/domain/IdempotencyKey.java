@@ -0,0 +1,7 @@
+package com.example.cryptotrading.domain;
+
+/**
+ * A client's {@code Idempotency-Key}; keys are scoped to the user that sent them.
+ */
+public record IdempotencyKey(Long userId, String key) {
+}
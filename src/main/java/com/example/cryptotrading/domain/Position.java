@@ -0,0 +1,64 @@
+package com.example.cryptotrading.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Net holding of one pair, valued at average cost. {@code netQuantity} is positive for a long and negative for a
+ * short position; {@code costBasis} is what the open quantity cost, signed the same way. A trade against the open
+ * side releases the closed quantity's share of the cost basis and books the difference to its proceeds as realized
+ * PnL; any quantity beyond the open position opens one on the other side.
+ */
+public record Position(BigDecimal netQuantity, BigDecimal costBasis, BigDecimal realizedPnl, long tradeCount) {
+
+    public static final Position EMPTY = new Position(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, 0);
+
+    private static final int SCALE = Amount.SCALE;
+
+    /**
+     * The position after a trade of {@code quantity} for {@code cost} in the quote currency.
+     */
+    public Position apply(OrderSideCodeEnum side, BigDecimal quantity, BigDecimal cost) {
+        int direction = side == OrderSideCodeEnum.BUY ? 1 : -1;
+        BigDecimal released = BigDecimal.ZERO;
+        BigDecimal proceeds = BigDecimal.ZERO;
+        BigDecimal realized = realizedPnl;
+        if (netQuantity.signum() == -direction) {
+            BigDecimal open = netQuantity.abs();
+            BigDecimal closed = quantity.min(open);
+            released = closed.compareTo(open) == 0
+                    ? costBasis
+                    : costBasis.multiply(closed).divide(open, SCALE, RoundingMode.HALF_UP);
+            proceeds = closed.compareTo(quantity) == 0
+                    ? cost
+                    : cost.multiply(closed).divide(quantity, SCALE, RoundingMode.HALF_UP);
+            // a long sells above its cost, a short buys back below what it received
+            realized = realized.add(netQuantity.signum() > 0
+                    ? proceeds.subtract(released)
+                    : released.negate().subtract(proceeds));
+        }
+        BigDecimal opened = cost.subtract(proceeds);
+        return new Position(
+                netQuantity.add(direction > 0 ? quantity : quantity.negate()),
+                costBasis.subtract(released).add(direction > 0 ? opened : opened.negate()),
+                realized,
+                tradeCount + 1);
+    }
+
+    /**
+     * Average entry price of the open quantity, or null when flat.
+     */
+    public BigDecimal averagePrice() {
+        if (netQuantity.signum() == 0) {
+            return null;
+        }
+        return costBasis.divide(netQuantity, SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * PnL of closing the open quantity at {@code price}: the bid for a long, the ask for a short.
+     */
+    public BigDecimal unrealizedPnl(BigDecimal price) {
+        return netQuantity.multiply(price).setScale(SCALE, RoundingMode.HALF_UP).subtract(costBasis);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.cryptotrading.domain;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable view of one pair's aggregated best bid/ask as published in the price book. {@code updatedAt} is the
+ * last time the price was confirmed by an aggregation, not the last time it changed.
+ */
+public record PriceSnapshot(
+        Long tradingPairId,
+        String symbol,
+        Amount bidPrice,
+        Amount askPrice,
+        String bidExchange,
+        String askExchange,
+        LocalDateTime updatedAt
+) {
+}
@@ -0,0 +1,16 @@
+package com.example.cryptotrading.domain;
+
+import java.time.LocalDateTime;
+
+/**
+ * A price locked for one user, pair and side until {@code expiresAt}.
+ */
+public record Quote(
+        String id,
+        Long userId,
+        Long tradingPairId,
+        OrderSideCodeEnum side,
+        Amount price,
+        LocalDateTime expiresAt
+) {
+}
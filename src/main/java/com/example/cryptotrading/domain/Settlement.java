@@ -0,0 +1,7 @@
+package com.example.cryptotrading.domain;
+
+/**
+ * Wallet balances of both legs right after a trade was settled.
+ */
+public record Settlement(Amount debitedBalance, Amount creditedBalance) {
+}
@@ -0,0 +1,8 @@
+package com.example.cryptotrading.domain;
+
+/**
+ * Cheap change fingerprint of a table: its row count and the sum of the rows' optimistic-lock versions. Any insert,
+ * delete or JPA update changes it.
+ */
+public record TableRevision(long rows, long versions) {
+}
@@ -0,0 +1,34 @@
+package com.example.cryptotrading.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a user's trade history, newest first: the creation time and id of the last trade returned. Handed to
+ * clients as an opaque token; its encoding is not part of the API.
+ */
+public record TradeCursor(LocalDateTime createdAt, long id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public String encode() {
+        return ENCODER.encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static TradeCursor decode(String token) {
+        try {
+            String value = new String(DECODER.decode(token), StandardCharsets.UTF_8);
+            int separator = value.indexOf('|');
+            return new TradeCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.cryptotrading.domain;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Columns of a trade as read for history, without its entity; the pair and side are resolved from reference data.
+ */
+public record TradeHistoryRow(
+        Long id,
+        Long tradingPairId,
+        Long orderSideId,
+        BigDecimal price,
+        BigDecimal quantity,
+        BigDecimal cost,
+        LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,43 @@
+package com.example.cryptotrading.domain;
+
+import com.example.cryptotrading.entity.CurrencyEntity;
+import com.example.cryptotrading.entity.OrderSideEntity;
+import com.example.cryptotrading.entity.TradingPairEntity;
+
+/**
+ * A priced, validated trade ready to be settled: a BUY pays {@code cost} in the quote currency for {@code quantity}
+ * of the base currency, a SELL the other way round. Amounts stay in {@link Amount} units from pricing through
+ * settlement and the engine journal.
+ */
+public record TradeOrder(
+        TradingPairEntity tradingPair,
+        OrderSideEntity orderSide,
+        Amount price,
+        Amount quantity,
+        Amount cost
+) {
+
+    public boolean isBuy() {
+        return orderSide.getCode() == OrderSideCodeEnum.BUY;
+    }
+
+    public CurrencyEntity debitCurrency() {
+        return isBuy() ? tradingPair.getQuoteCurrency() : tradingPair.getBaseCurrency();
+    }
+
+    public Amount debitAmount() {
+        return isBuy() ? cost : quantity;
+    }
+
+    public CurrencyEntity creditCurrency() {
+        return isBuy() ? tradingPair.getBaseCurrency() : tradingPair.getQuoteCurrency();
+    }
+
+    public Amount creditAmount() {
+        return isBuy() ? quantity : cost;
+    }
+
+    public Amount baseBalance(Settlement settlement) {
+        return isBuy() ? settlement.creditedBalance() : settlement.debitedBalance();
+    }
+}
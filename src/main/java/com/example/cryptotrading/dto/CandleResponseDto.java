@@ -0,0 +1,21 @@
+package com.example.cryptotrading.dto;
+
+import com.example.cryptotrading.domain.Amount;
+
+import java.time.LocalDateTime;
+
+/**
+ * Open, high, low and close are mid prices; {@code highBid} and {@code lowAsk} are the best quotes seen during the
+ * bar and {@code ticks} the number of price updates it was built from.
+ */
+public record CandleResponseDto(
+        LocalDateTime openTime,
+        Amount open,
+        Amount high,
+        Amount low,
+        Amount close,
+        Amount highBid,
+        Amount lowAsk,
+        int ticks
+) {
+}
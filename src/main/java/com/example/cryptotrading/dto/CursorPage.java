@@ -0,0 +1,12 @@
+package com.example.cryptotrading.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated list. {@code nextCursor} fetches the following page and is null on the last one.
+ */
+public record CursorPage<T>(
+        List<T> data,
+        String nextCursor
+) {
+}
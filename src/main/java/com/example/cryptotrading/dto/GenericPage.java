@@ -12,7 +12,11 @@ import java.util.List;
 public class GenericPage<T> {
 
     private final List<T> data;
-    private final long totalCount;
+    /**
+     * Null when the request set {@code includeTotal=false}.
+     */
+    private final Long totalCount;
     private final int pageNumber;
     private final int pageSize;
+    private final boolean hasNext;
 }
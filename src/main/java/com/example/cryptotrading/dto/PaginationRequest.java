@@ -16,6 +16,7 @@ public class PaginationRequest {
     private Integer pageSize;
     private String sortOrder;
     private String sortBy;
+    private Boolean includeTotal;
 
     public Pageable toPageableOrDefault() {
         if (pageNumber != null && pageSize != null) {
@@ -23,4 +24,8 @@ public class PaginationRequest {
         }
         return Pageable.ofSize(10000).withPage(0);
     }
+
+    public boolean includeTotalOrDefault() {
+        return includeTotal == null || includeTotal;
+    }
 }
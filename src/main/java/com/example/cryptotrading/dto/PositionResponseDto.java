@@ -0,0 +1,17 @@
+package com.example.cryptotrading.dto;
+
+/**
+ * Amounts are in the pair's quote currency except {@code netQuantity}. {@code markPrice} and {@code unrealizedPnl}
+ * are null while the pair has no price; {@code averagePrice} is null when the position is flat.
+ */
+public record PositionResponseDto(
+        String symbol,
+        String netQuantity,
+        String averagePrice,
+        String costBasis,
+        String markPrice,
+        String unrealizedPnl,
+        String realizedPnl,
+        long tradeCount
+) {
+}
@@ -1,12 +1,13 @@
 package com.example.cryptotrading.dto;
 
-import java.math.BigDecimal;
+import com.example.cryptotrading.domain.Amount;
+
 import java.time.LocalDateTime;
 
 public record PriceResponseDto(
         String symbol,
-        BigDecimal bidPrice,
-        BigDecimal askPrice,
+        Amount bidPrice,
+        Amount askPrice,
         String bidExchange,
         String askExchange,
         LocalDateTime updatedAt
@@ -0,0 +1,14 @@
+package com.example.cryptotrading.dto;
+
+import com.example.cryptotrading.domain.OrderSideCodeEnum;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public record QuoteRequestDto(
+        @NotBlank(message = "Symbol is required")
+        String symbol,
+
+        @NotNull(message = "Side is required (BUY or SELL)")
+        OrderSideCodeEnum side
+) {
+}
@@ -0,0 +1,15 @@
+package com.example.cryptotrading.dto;
+
+import com.example.cryptotrading.domain.Amount;
+import com.example.cryptotrading.domain.OrderSideCodeEnum;
+
+import java.time.LocalDateTime;
+
+public record QuoteResponseDto(
+        String quoteId,
+        String symbol,
+        OrderSideCodeEnum side,
+        Amount price,
+        LocalDateTime expiresAt
+) {
+}
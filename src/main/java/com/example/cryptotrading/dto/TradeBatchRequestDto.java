@@ -0,0 +1,15 @@
+package com.example.cryptotrading.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record TradeBatchRequestDto(
+        @NotEmpty(message = "At least one order is required")
+        @Size(max = 100, message = "At most 100 orders per batch")
+        List<@NotNull @Valid TradeRequestDto> orders
+) {
+}
@@ -0,0 +1,14 @@
+package com.example.cryptotrading.dto;
+
+import java.util.List;
+
+public record TradeBatchResponseDto(
+        int executed,
+        int rejected,
+        List<TradeBatchResultDto> results
+) {
+    public static TradeBatchResponseDto of(List<TradeBatchResultDto> results) {
+        int executed = (int) results.stream().filter(result -> result.trade() != null).count();
+        return new TradeBatchResponseDto(executed, results.size() - executed, results);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.cryptotrading.dto;
+
+/**
+ * Outcome of one order of a batch: the executed trade, or why the order was rejected.
+ */
+public record TradeBatchResultDto(
+        int index,
+        TradeResponseDto trade,
+        String error
+) {
+    public static TradeBatchResultDto executed(int index, TradeResponseDto trade) {
+        return new TradeBatchResultDto(index, trade, null);
+    }
+
+    public static TradeBatchResultDto rejected(int index, String error) {
+        return new TradeBatchResultDto(index, null, error);
+    }
+}
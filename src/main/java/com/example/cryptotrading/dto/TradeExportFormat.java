@@ -0,0 +1,33 @@
+package com.example.cryptotrading.dto;
+
+import org.springframework.http.MediaType;
+
+public enum TradeExportFormat {
+
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+    CSV(new MediaType("text", "csv"), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    TradeExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public static TradeExportFormat fromString(String value) {
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid export format: " + value + ". Must be ndjson or csv", e);
+        }
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public String fileName() {
+        return "trades." + extension;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.cryptotrading.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class TradeHistoryCursorDto {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    /**
+     * {@code nextCursor} of the previous page; absent for the newest trades.
+     */
+    private String cursor;
+    private Integer limit;
+
+    public int limitOrDefault() {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+}
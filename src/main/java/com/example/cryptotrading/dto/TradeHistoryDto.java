@@ -1,6 +1,9 @@
 package com.example.cryptotrading.dto;
 
 import com.example.cryptotrading.domain.OrderSideCodeEnum;
+import com.example.cryptotrading.domain.TradeHistoryRow;
+import com.example.cryptotrading.entity.OrderSideEntity;
+import com.example.cryptotrading.entity.TradingPairEntity;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -14,5 +17,10 @@ public record TradeHistoryDto(
         BigDecimal cost,
         LocalDateTime createdAt
 ) {
+
+    public static TradeHistoryDto of(TradeHistoryRow row, TradingPairEntity tradingPair, OrderSideEntity orderSide) {
+        return new TradeHistoryDto(row.id(), tradingPair.getSymbol(), orderSide.getCode(),
+                row.price(), row.quantity(), row.cost(), row.createdAt());
+    }
 }
 
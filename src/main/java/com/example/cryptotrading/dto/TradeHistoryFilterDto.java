@@ -3,9 +3,34 @@ package com.example.cryptotrading.dto;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 
+import java.time.LocalDateTime;
+
+/**
+ * Pagination plus optional filters; all given filters must match.
+ */
 @Data
 @NoArgsConstructor
 @EqualsAndHashCode(callSuper = true)
 public class TradeHistoryFilterDto extends PaginationRequest {
+
+    private String symbol;
+    private String side;
+
+    /**
+     * Inclusive lower bound of the trade time.
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    /**
+     * Exclusive upper bound of the trade time.
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    public boolean isFiltered() {
+        return symbol != null || side != null || from != null || to != null;
+    }
 }
@@ -1,11 +1,11 @@
 package com.example.cryptotrading.dto;
 
+import com.example.cryptotrading.domain.Amount;
 import com.example.cryptotrading.domain.OrderSideCodeEnum;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
-
-import java.math.BigDecimal;
+import jakarta.validation.constraints.Size;
 
 public record TradeRequestDto(
         @NotBlank(message = "Symbol is required")
@@ -16,7 +16,16 @@ public record TradeRequestDto(
 
         @NotNull(message = "Quantity is required")
         @Positive(message = "Quantity must be positive")
-        BigDecimal quantity
+        // more than 8 decimals is rejected while reading the body, see AmountJsonComponent
+        Amount quantity,
+
+        // optional; executes at the price of a quote from POST /api/quotes instead of the current price
+        @Size(max = 36, message = "Quote id must be at most 36 characters")
+        String quoteId
 ) {
+
+    public TradeRequestDto(String symbol, OrderSideCodeEnum side, Amount quantity) {
+        this(symbol, side, quantity, null);
+    }
 }
 
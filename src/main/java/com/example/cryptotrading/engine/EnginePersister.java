@@ -0,0 +1,341 @@
+package com.example.cryptotrading.engine;
+
+import com.example.cryptotrading.config.TradingEngineProperties;
+import com.example.cryptotrading.domain.Amount;
+import com.example.cryptotrading.domain.Position;
+import com.example.cryptotrading.entity.BaseEntity;
+import com.example.cryptotrading.service.ReferenceDataRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Brings the trade and wallet tables up to date with the shards' journals. Each batch inserts its trades, writes
+ * the final balance of every touched wallet, adds to the users' trade counters and positions and advances the
+ * shards' checkpoints in one transaction, all as JDBC batches.
+ * <p>
+ * A failed batch is retried with doubling backoff up to {@code trading.engine.persist-max-attempts} times; the
+ * journal keeps it durable meanwhile. A batch that still fails stops the persister for good and is reported by
+ * {@link #failure()}: the engine then refuses new trades rather than journal ever more of them, and the entries are
+ * replayed from the journals on the next start.
+ */
+@Slf4j
+class EnginePersister {
+
+    private static final String INSERT_TRADE = """
+            INSERT INTO crypto_trade (id, user_id, idempotency_key, trading_pair_id, order_side_id, price, quantity,
+                                      cost, ctl_act, ctl_tcn, ctl_cre_ts, ctl_cre_uid)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, TRUE, 0, ?, ?)
+            """;
+
+    private static final String UPDATE_WALLET = """
+            UPDATE crypto_wallet
+            SET balance = ?, ctl_tcn = ctl_tcn + 1, ctl_mod_ts = ?, ctl_mod_uid = ?
+            WHERE user_id = ? AND currency_id = ?
+            """;
+
+    private static final String UPDATE_CHECKPOINT =
+            "UPDATE crypto_engine_checkpoint SET last_sequence = ?, ctl_mod_ts = ? WHERE shard_id = ?";
+
+    private static final String UPDATE_TRADE_COUNTER =
+            "UPDATE crypto_trade_counter SET trade_count = trade_count + ?, ctl_mod_ts = ? WHERE user_id = ?";
+
+    private static final String INSERT_TRADE_COUNTER = """
+            INSERT INTO crypto_trade_counter (user_id, trade_count, ctl_act, ctl_tcn, ctl_cre_ts, ctl_cre_uid)
+            VALUES (?, ?, TRUE, 0, ?, ?)
+            """;
+
+    private static final String SELECT_POSITION = """
+            SELECT net_quantity, cost_basis, realized_pnl, trade_count FROM crypto_position
+            WHERE user_id = ? AND trading_pair_id = ? FOR UPDATE
+            """;
+
+    private static final String UPDATE_POSITION = """
+            UPDATE crypto_position
+            SET net_quantity = ?, cost_basis = ?, realized_pnl = ?, trade_count = ?, ctl_tcn = ctl_tcn + 1,
+                ctl_mod_ts = ?, ctl_mod_uid = ?
+            WHERE user_id = ? AND trading_pair_id = ?
+            """;
+
+    private static final String INSERT_POSITION = """
+            INSERT INTO crypto_position (user_id, trading_pair_id, net_quantity, cost_basis, realized_pnl, trade_count,
+                                         ctl_act, ctl_tcn, ctl_cre_ts, ctl_cre_uid)
+            VALUES (?, ?, ?, ?, ?, ?, TRUE, 0, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReferenceDataRegistry referenceData;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final AtomicLongArray persistedSequences;
+    private final BlockingQueue<JournalEntry> queue = new LinkedBlockingQueue<>();
+
+    private volatile boolean running;
+    private volatile RuntimeException failure;
+    private Thread thread;
+
+    EnginePersister(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                    ReferenceDataRegistry referenceData, TradingEngineProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.referenceData = referenceData;
+        this.batchSize = properties.getPersistBatchSize();
+        this.maxAttempts = properties.getPersistMaxAttempts();
+        this.initialBackoff = properties.getPersistInitialBackoff();
+        this.maxBackoff = properties.getPersistMaxBackoff();
+        this.persistedSequences = new AtomicLongArray(properties.getShards());
+    }
+
+    void start() {
+        failure = null;
+        running = true;
+        thread = Thread.ofVirtual().name("engine-persister").start(this::run);
+    }
+
+    /**
+     * Persists everything still queued, then stops. After a {@link #failure()} the queue is dropped instead; the
+     * journals still hold it.
+     */
+    void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join();
+        }
+        if (failure != null) {
+            log.warn("Leaving {} unpersisted journal entries to be replayed on the next start", queue.size());
+            queue.clear();
+            return;
+        }
+        drain();
+    }
+
+    /**
+     * The error of the batch that exhausted its retries, or {@code null} while persisting works.
+     */
+    RuntimeException failure() {
+        return failure;
+    }
+
+    void enqueue(List<JournalEntry> entries) {
+        queue.addAll(entries);
+    }
+
+    long persistedSequence(int shard) {
+        return persistedSequences.get(shard);
+    }
+
+    void markPersisted(int shard, long sequence) {
+        if (shard < persistedSequences.length()) {
+            persistedSequences.accumulateAndGet(shard, sequence, Math::max);
+        }
+    }
+
+    int backlog() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<JournalEntry> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                JournalEntry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                persistWithRetry(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                break;
+            } catch (RuntimeException e) {
+                failure = e;
+                log.error("Giving up on {} journal entries after {} attempts; the trading engine no longer accepts "
+                        + "trades until it is restarted", batch.size(), maxAttempts, e);
+                break;
+            }
+        }
+        // a batch interrupted before it committed goes back to the queue for stop() to drain
+        queue.addAll(batch);
+    }
+
+    private void drain() {
+        List<JournalEntry> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            persist(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * @throws RuntimeException the last failure, once {@code maxAttempts} attempts have failed
+     */
+    private void persistWithRetry(List<JournalEntry> batch) throws InterruptedException {
+        Duration backoff = initialBackoff;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                persist(batch);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.warn("Failed to persist {} journal entries (attempt {} of {}), retrying in {} ms: {}",
+                        batch.size(), attempt, maxAttempts, backoff.toMillis(), e.getMessage());
+                Thread.sleep(backoff.toMillis());
+                backoff = backoff.multipliedBy(2).compareTo(maxBackoff) > 0 ? maxBackoff : backoff.multipliedBy(2);
+            }
+        }
+    }
+
+    /**
+     * Writes the entries synchronously in one transaction.
+     */
+    void persist(List<JournalEntry> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Map<List<Long>, Amount> finalBalances = new LinkedHashMap<>();
+        Map<Long, Long> tradeCounts = new LinkedHashMap<>();
+        Map<Integer, Long> lastSequences = new LinkedHashMap<>();
+        for (JournalEntry entry : batch) {
+            tradeCounts.merge(entry.userId(), 1L, Long::sum);
+            finalBalances.put(List.of(entry.userId(), entry.debitCurrencyId()), entry.debitBalance());
+            finalBalances.put(List.of(entry.userId(), entry.creditCurrencyId()), entry.creditBalance());
+            lastSequences.merge(entry.shard(), entry.sequence(), Math::max);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_TRADE, batch, batch.size(), (ps, entry) -> {
+                ps.setLong(1, entry.tradeId());
+                ps.setLong(2, entry.userId());
+                ps.setString(3, entry.idempotencyKey());
+                ps.setLong(4, entry.tradingPairId());
+                ps.setLong(5, entry.orderSideId());
+                ps.setBigDecimal(6, entry.price().toBigDecimal());
+                ps.setBigDecimal(7, entry.quantity().toBigDecimal());
+                ps.setBigDecimal(8, entry.cost().toBigDecimal());
+                ps.setTimestamp(9, Timestamp.valueOf(entry.createdAt()));
+                ps.setString(10, BaseEntity.SYSTEM_AUDIT_USER);
+            });
+            List<Map.Entry<List<Long>, Amount>> wallets = new ArrayList<>(finalBalances.entrySet());
+            jdbcTemplate.batchUpdate(UPDATE_WALLET, wallets, wallets.size(), (ps, wallet) -> {
+                ps.setBigDecimal(1, wallet.getValue().toBigDecimal());
+                ps.setTimestamp(2, now);
+                ps.setString(3, BaseEntity.SYSTEM_AUDIT_USER);
+                ps.setLong(4, wallet.getKey().get(0));
+                ps.setLong(5, wallet.getKey().get(1));
+            });
+            countTrades(tradeCounts, now);
+            updatePositions(batch, now);
+            List<Map.Entry<Integer, Long>> checkpoints = new ArrayList<>(lastSequences.entrySet());
+            jdbcTemplate.batchUpdate(UPDATE_CHECKPOINT, checkpoints, checkpoints.size(), (ps, checkpoint) -> {
+                ps.setLong(1, checkpoint.getValue());
+                ps.setTimestamp(2, now);
+                ps.setLong(3, checkpoint.getKey());
+            });
+        });
+        lastSequences.forEach(this::markPersisted);
+    }
+
+    private void countTrades(Map<Long, Long> tradeCounts, Timestamp now) {
+        List<Map.Entry<Long, Long>> counters = new ArrayList<>(tradeCounts.entrySet());
+        int[][] updated = jdbcTemplate.batchUpdate(UPDATE_TRADE_COUNTER, counters, counters.size(), (ps, counter) -> {
+            ps.setLong(1, counter.getValue());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, counter.getKey());
+        });
+        List<Map.Entry<Long, Long>> missing = new ArrayList<>();
+        for (int i = 0; i < counters.size(); i++) {
+            if (updated[0][i] == 0) {
+                missing.add(counters.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TRADE_COUNTER, missing, missing.size(), (ps, counter) -> {
+                ps.setLong(1, counter.getKey());
+                ps.setLong(2, counter.getValue());
+                ps.setTimestamp(3, now);
+                ps.setString(4, BaseEntity.SYSTEM_AUDIT_USER);
+            });
+        }
+    }
+
+    /**
+     * Applies the batch's trades, in journal order, to the positions they touch. Positions are read under a row lock
+     * and written back as one update batch and one insert batch for those that did not exist yet.
+     */
+    private void updatePositions(List<JournalEntry> batch, Timestamp now) {
+        Map<List<Long>, Position> positions = new LinkedHashMap<>();
+        Set<List<Long>> created = new HashSet<>();
+        for (JournalEntry entry : batch) {
+            List<Long> key = List.of(entry.userId(), entry.tradingPairId());
+            Position position = positions.get(key);
+            if (position == null) {
+                position = loadPosition(key);
+                if (position == null) {
+                    created.add(key);
+                    position = Position.EMPTY;
+                }
+            }
+            positions.put(key, position.apply(referenceData.orderSide(entry.orderSideId()).getCode(),
+                    entry.quantity().toBigDecimal(), entry.cost().toBigDecimal()));
+        }
+
+        List<Map.Entry<List<Long>, Position>> updated = new ArrayList<>();
+        List<Map.Entry<List<Long>, Position>> inserted = new ArrayList<>();
+        for (Map.Entry<List<Long>, Position> position : positions.entrySet()) {
+            (created.contains(position.getKey()) ? inserted : updated).add(position);
+        }
+        if (!updated.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_POSITION, updated, updated.size(), (ps, position) -> {
+                ps.setBigDecimal(1, position.getValue().netQuantity());
+                ps.setBigDecimal(2, position.getValue().costBasis());
+                ps.setBigDecimal(3, position.getValue().realizedPnl());
+                ps.setLong(4, position.getValue().tradeCount());
+                ps.setTimestamp(5, now);
+                ps.setString(6, BaseEntity.SYSTEM_AUDIT_USER);
+                ps.setLong(7, position.getKey().get(0));
+                ps.setLong(8, position.getKey().get(1));
+            });
+        }
+        if (!inserted.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_POSITION, inserted, inserted.size(), (ps, position) -> {
+                ps.setLong(1, position.getKey().get(0));
+                ps.setLong(2, position.getKey().get(1));
+                ps.setBigDecimal(3, position.getValue().netQuantity());
+                ps.setBigDecimal(4, position.getValue().costBasis());
+                ps.setBigDecimal(5, position.getValue().realizedPnl());
+                ps.setLong(6, position.getValue().tradeCount());
+                ps.setTimestamp(7, now);
+                ps.setString(8, BaseEntity.SYSTEM_AUDIT_USER);
+            });
+        }
+    }
+
+    private Position loadPosition(List<Long> key) {
+        List<Position> rows = jdbcTemplate.query(SELECT_POSITION, (rs, rowNum) -> new Position(
+                rs.getBigDecimal(1), rs.getBigDecimal(2), rs.getBigDecimal(3), rs.getLong(4)),
+                key.get(0), key.get(1));
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+}
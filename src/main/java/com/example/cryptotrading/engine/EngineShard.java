@@ -0,0 +1,264 @@
+package com.example.cryptotrading.engine;
+
+import com.example.cryptotrading.domain.Amount;
+import com.example.cryptotrading.domain.IdempotencyKey;
+import com.example.cryptotrading.domain.TradeOrder;
+import com.example.cryptotrading.entity.CurrencyEntity;
+import com.example.cryptotrading.exception.DuplicateTradeException;
+import com.example.cryptotrading.exception.InsufficientBalanceException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Owns the balances of the users hashed to it and applies their trades one at a time on a single thread, so no
+ * locks are involved. Commands are taken in batches: every trade of a batch is validated and applied in memory,
+ * the batch is journaled with a single write (and fsync), and only then are the callers acknowledged and the
+ * entries handed to the {@link EnginePersister}. A retried {@link IdempotencyKey} gets its original entry back, or a
+ * {@link DuplicateTradeException} once that entry has reached the database.
+ * <p>
+ * A journal write failure stops the shard: its in-memory state may then be ahead of what is durable.
+ */
+@Slf4j
+final class EngineShard {
+
+    private static final int MAX_BATCH = 256;
+
+    private final int id;
+    private final Journal journal;
+    private final TradeIdAllocator tradeIds;
+    private final EnginePersister persister;
+    private final LongFunction<Map<Long, Amount>> balanceLoader;
+    private final Function<Set<String>, Set<IdempotencyKey>> executedKeyLoader;
+    private final long maxJournalBytes;
+    private final BlockingQueue<Command> queue;
+    private final Map<Long, Map<Long, Amount>> balancesByUser = new HashMap<>();
+    private final Map<IdempotencyKey, JournalEntry> unpersistedKeys = new LinkedHashMap<>();
+
+    private volatile long lastSequence;
+    private volatile boolean running;
+    private volatile IOException failure;
+    private Thread thread;
+
+    EngineShard(int id, Journal journal, long lastSequence, TradeIdAllocator tradeIds, EnginePersister persister,
+            LongFunction<Map<Long, Amount>> balanceLoader,
+            Function<Set<String>, Set<IdempotencyKey>> executedKeyLoader, int queueCapacity, long maxJournalBytes) {
+        this.id = id;
+        this.journal = journal;
+        this.lastSequence = lastSequence;
+        this.tradeIds = tradeIds;
+        this.persister = persister;
+        this.balanceLoader = balanceLoader;
+        this.executedKeyLoader = executedKeyLoader;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxJournalBytes = maxJournalBytes;
+    }
+
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    void start() {
+        running = true;
+        thread = Thread.ofPlatform().name("engine-shard-" + id).start(this::run);
+    }
+
+    /**
+     * Finishes the queued commands, then stops.
+     */
+    void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    CompletableFuture<JournalEntry> submit(long userId, IdempotencyKey idempotencyKey, TradeOrder order) {
+        CompletableFuture<JournalEntry> result = new CompletableFuture<>();
+        if (failure != null || !running) {
+            result.completeExceptionally(new IllegalStateException("Trading engine shard " + id + " is not running"));
+        } else if (!queue.offer(new Command(userId, idempotencyKey, order, result))) {
+            result.completeExceptionally(new IllegalStateException("Trading engine shard " + id + " is overloaded"));
+        }
+        return result;
+    }
+
+    private void run() {
+        List<Command> batch = new ArrayList<>(MAX_BATCH);
+        List<Command> accepted = new ArrayList<>(MAX_BATCH);
+        List<JournalEntry> entries = new ArrayList<>(MAX_BATCH);
+        List<Map.Entry<Command, JournalEntry>> replays = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Command first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    compactJournal();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            forgetPersistedKeys();
+            Set<IdempotencyKey> executed = executedKeys(batch);
+            for (Command command : batch) {
+                IdempotencyKey key = command.idempotencyKey();
+                try {
+                    if (key != null && unpersistedKeys.containsKey(key)) {
+                        replays.add(Map.entry(command, unpersistedKeys.get(key)));
+                        continue;
+                    }
+                    if (key != null && executed.contains(key)) {
+                        throw new DuplicateTradeException(key.key());
+                    }
+                    JournalEntry entry = apply(command.userId(), key, command.order());
+                    if (key != null) {
+                        unpersistedKeys.put(key, entry);
+                    }
+                    entries.add(entry);
+                    accepted.add(command);
+                } catch (RuntimeException e) {
+                    command.result().completeExceptionally(e);
+                }
+            }
+            if (entries.isEmpty() || journal(accepted, entries)) {
+                for (int i = 0; i < accepted.size(); i++) {
+                    accepted.get(i).result().complete(entries.get(i));
+                }
+                replays.forEach(replay -> replay.getKey().result().complete(replay.getValue()));
+                if (!entries.isEmpty()) {
+                    persister.enqueue(entries);
+                    compactJournal();
+                }
+            } else {
+                replays.forEach(replay -> replay.getKey().result().completeExceptionally(failure()));
+            }
+            batch.clear();
+            accepted.clear();
+            entries.clear();
+            replays.clear();
+            if (failure != null) {
+                failQueued();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Keys of entries already in the database are looked up there instead; unpersisted ones are kept in memory
+     * until then, so a retry always finds its original trade one way or the other.
+     */
+    private void forgetPersistedKeys() {
+        long persisted = persister.persistedSequence(id);
+        Iterator<JournalEntry> iterator = unpersistedKeys.values().iterator();
+        while (iterator.hasNext() && iterator.next().sequence() <= persisted) {
+            iterator.remove();
+        }
+    }
+
+    private Set<IdempotencyKey> executedKeys(List<Command> batch) {
+        Set<String> keys = new HashSet<>();
+        for (Command command : batch) {
+            IdempotencyKey key = command.idempotencyKey();
+            if (key != null && !unpersistedKeys.containsKey(key)) {
+                keys.add(key.key());
+            }
+        }
+        return keys.isEmpty() ? Set.of() : executedKeyLoader.apply(keys);
+    }
+
+    private JournalEntry apply(long userId, IdempotencyKey key, TradeOrder order) {
+        Map<Long, Amount> balances = balancesByUser.computeIfAbsent(userId, balanceLoader::apply);
+        CurrencyEntity debitCurrency = order.debitCurrency();
+        CurrencyEntity creditCurrency = order.creditCurrency();
+        Amount debitBalance = requireWallet(balances, debitCurrency);
+        Amount creditBalance = requireWallet(balances, creditCurrency);
+        if (debitBalance.compareTo(order.debitAmount()) < 0) {
+            throw InsufficientBalanceException.of(debitCurrency.getCode(), debitBalance, order.debitAmount());
+        }
+
+        long tradeId = tradeIds.next();
+        Amount newDebitBalance = debitBalance.subtract(order.debitAmount());
+        Amount newCreditBalance = creditBalance.add(order.creditAmount());
+        balances.put(debitCurrency.getId(), newDebitBalance);
+        balances.put(creditCurrency.getId(), newCreditBalance);
+        return new JournalEntry(id, ++lastSequence, tradeId, userId, key == null ? null : key.key(),
+                order.tradingPair().getId(), order.orderSide().getId(),
+                order.price(), order.quantity(), order.cost(),
+                debitCurrency.getId(), newDebitBalance, creditCurrency.getId(), newCreditBalance,
+                LocalDateTime.now());
+    }
+
+    private static Amount requireWallet(Map<Long, Amount> balances, CurrencyEntity currency) {
+        Amount balance = balances.get(currency.getId());
+        if (balance == null) {
+            throw new IllegalArgumentException("Wallet not found for currency: " + currency.getCode());
+        }
+        return balance;
+    }
+
+    private boolean journal(List<Command> accepted, List<JournalEntry> entries) {
+        try {
+            journal.append(entries);
+            return true;
+        } catch (IOException e) {
+            log.error("Trading engine shard {} failed to write its journal, stopping", id, e);
+            failure = e;
+            IllegalStateException error = failure();
+            accepted.forEach(command -> command.result().completeExceptionally(error));
+            return false;
+        }
+    }
+
+    /**
+     * Cuts the entries already in the database off a journal that has outgrown its limit. The persister trails the
+     * batch just enqueued, so this drops what earlier batches wrote; an idle shard catches up on its next poll.
+     */
+    private void compactJournal() {
+        try {
+            if (journal.size() > maxJournalBytes) {
+                journal.dropThrough(persister.persistedSequence(id));
+            }
+        } catch (IOException e) {
+            log.warn("Trading engine shard {} could not compact its journal: {}", id, e.getMessage());
+        }
+    }
+
+    private IllegalStateException failure() {
+        return new IllegalStateException("Trading engine shard " + id + " failed", failure);
+    }
+
+    private void failQueued() {
+        IllegalStateException error = failure();
+        Command command;
+        while ((command = queue.poll()) != null) {
+            command.result().completeExceptionally(error);
+        }
+    }
+
+    void close() throws IOException {
+        journal.close();
+    }
+
+    private record Command(long userId, IdempotencyKey idempotencyKey, TradeOrder order,
+            CompletableFuture<JournalEntry> result) {
+    }
+}
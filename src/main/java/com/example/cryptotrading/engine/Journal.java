@@ -0,0 +1,176 @@
+package com.example.cryptotrading.engine;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of {@link JournalEntry} frames ({@code length, crc32, payload}). A frame cut short by a crash is
+ * detected by its length or checksum and cut off when the journal is read back.
+ * <p>
+ * The journal remembers where each written batch ends, so {@link #dropThrough(long)} can cut off the entries already
+ * in the database while newer ones are still being appended.
+ */
+@Slf4j
+final class Journal implements Closeable {
+
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES;
+
+    private final Path path;
+    private final boolean fsync;
+    // sequence of the last entry of each batch in the file and the position right after it, oldest first
+    private final Deque<BatchEnd> batchEnds = new ArrayDeque<>();
+    private FileChannel channel;
+
+    private Journal(Path path, FileChannel channel, boolean fsync) {
+        this.path = path;
+        this.channel = channel;
+        this.fsync = fsync;
+    }
+
+    static Journal open(Path path, boolean fsync) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Journal(path, channel, fsync);
+    }
+
+    /**
+     * Reads every intact entry and positions the journal for appending after the last one.
+     */
+    List<JournalEntry> readAll() throws IOException {
+        List<JournalEntry> entries = new ArrayList<>();
+        long position = 0;
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            int length = header.getInt();
+            long checksum = header.getLong();
+            if (length <= 0 || position + HEADER_BYTES + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            channel.read(payload, position + HEADER_BYTES);
+            if (crc(payload.array()) != checksum) {
+                break;
+            }
+            JournalEntry entry = JournalEntry.readFrom(new DataInputStream(new ByteArrayInputStream(payload.array())));
+            entries.add(entry);
+            position += HEADER_BYTES + length;
+            batchEnds.addLast(new BatchEnd(entry.sequence(), position));
+        }
+        if (position < size) {
+            log.warn("Truncating torn tail of {} at byte {} of {}", path, position, size);
+            channel.truncate(position);
+        }
+        channel.position(position);
+        return entries;
+    }
+
+    /**
+     * Writes the entries as one append and, unless disabled, forces them to disk before returning.
+     */
+    void append(List<JournalEntry> entries) throws IOException {
+        ByteArrayOutputStream frames = new ByteArrayOutputStream(entries.size() * 192);
+        DataOutputStream out = new DataOutputStream(frames);
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(176);
+        DataOutputStream payloadOut = new DataOutputStream(payload);
+        for (JournalEntry entry : entries) {
+            payload.reset();
+            entry.writeTo(payloadOut);
+            byte[] bytes = payload.toByteArray();
+            out.writeInt(bytes.length);
+            out.writeLong(crc(bytes));
+            out.write(bytes);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(frames.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+        if (!entries.isEmpty()) {
+            batchEnds.addLast(new BatchEnd(entries.getLast().sequence(), channel.position()));
+        }
+    }
+
+    /**
+     * Removes the batches whose entries all have a sequence up to {@code sequence}. The remaining bytes are copied
+     * to a new file that then replaces this one; a crash in between leaves the old file, whose extra entries are
+     * harmless to replay.
+     */
+    void dropThrough(long sequence) throws IOException {
+        long keepFrom = 0;
+        while (!batchEnds.isEmpty() && batchEnds.peekFirst().sequence() <= sequence) {
+            keepFrom = batchEnds.pollFirst().position();
+        }
+        if (keepFrom == 0) {
+            return;
+        }
+        long size = channel.size();
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (long copied = 0; copied < size - keepFrom; ) {
+                copied += channel.transferTo(keepFrom + copied, size - keepFrom - copied, out);
+            }
+            if (fsync) {
+                out.force(true);
+            }
+        }
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel.close();
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(size - keepFrom);
+        for (int i = batchEnds.size(); i > 0; i--) {
+            BatchEnd end = batchEnds.pollFirst();
+            batchEnds.addLast(new BatchEnd(end.sequence(), end.position() - keepFrom));
+        }
+    }
+
+    long size() throws IOException {
+        return channel.size();
+    }
+
+    void truncate() throws IOException {
+        batchEnds.clear();
+        channel.truncate(0);
+        channel.position(0);
+        if (fsync) {
+            channel.force(true);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static long crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    private record BatchEnd(long sequence, long position) {
+    }
+}
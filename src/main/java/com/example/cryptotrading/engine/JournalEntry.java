@@ -0,0 +1,106 @@
+package com.example.cryptotrading.engine;
+
+import com.example.cryptotrading.domain.Amount;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * One settled trade as journaled by its shard. Balances are the absolute post-trade values, so writing an entry to
+ * the database twice is harmless.
+ * <p>
+ * Amounts are written as their {@code long} unit counts behind a leading format byte. Entries journaled before that
+ * byte existed start with the high byte of the shard number, which is always 0, and are still read with their
+ * amounts as decimal strings.
+ */
+record JournalEntry(
+        int shard,
+        long sequence,
+        long tradeId,
+        long userId,
+        String idempotencyKey,
+        long tradingPairId,
+        long orderSideId,
+        Amount price,
+        Amount quantity,
+        Amount cost,
+        long debitCurrencyId,
+        Amount debitBalance,
+        long creditCurrencyId,
+        Amount creditBalance,
+        LocalDateTime createdAt
+) {
+
+    private static final int FORMAT_UNITS = 1;
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeByte(FORMAT_UNITS);
+        out.writeInt(shard);
+        out.writeLong(sequence);
+        out.writeLong(tradeId);
+        out.writeLong(userId);
+        out.writeBoolean(idempotencyKey != null);
+        if (idempotencyKey != null) {
+            out.writeUTF(idempotencyKey);
+        }
+        out.writeLong(tradingPairId);
+        out.writeLong(orderSideId);
+        out.writeLong(price.units());
+        out.writeLong(quantity.units());
+        out.writeLong(cost.units());
+        out.writeLong(debitCurrencyId);
+        out.writeLong(debitBalance.units());
+        out.writeLong(creditCurrencyId);
+        out.writeLong(creditBalance.units());
+        out.writeLong(createdAt.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(createdAt.getNano());
+    }
+
+    static JournalEntry readFrom(DataInput in) throws IOException {
+        int format = in.readUnsignedByte();
+        if (format != FORMAT_UNITS) {
+            return readLegacy(format, in);
+        }
+        return new JournalEntry(
+                in.readInt(),
+                in.readLong(),
+                in.readLong(),
+                in.readLong(),
+                in.readBoolean() ? in.readUTF() : null,
+                in.readLong(),
+                in.readLong(),
+                Amount.ofUnits(in.readLong()),
+                Amount.ofUnits(in.readLong()),
+                Amount.ofUnits(in.readLong()),
+                in.readLong(),
+                Amount.ofUnits(in.readLong()),
+                in.readLong(),
+                Amount.ofUnits(in.readLong()),
+                LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC)
+        );
+    }
+
+    private static JournalEntry readLegacy(int shardHighByte, DataInput in) throws IOException {
+        return new JournalEntry(
+                shardHighByte << 24 | in.readUnsignedByte() << 16 | in.readUnsignedShort(),
+                in.readLong(),
+                in.readLong(),
+                in.readLong(),
+                in.readBoolean() ? in.readUTF() : null,
+                in.readLong(),
+                in.readLong(),
+                Amount.of(new BigDecimal(in.readUTF())),
+                Amount.of(new BigDecimal(in.readUTF())),
+                Amount.of(new BigDecimal(in.readUTF())),
+                in.readLong(),
+                Amount.of(new BigDecimal(in.readUTF())),
+                in.readLong(),
+                Amount.of(new BigDecimal(in.readUTF())),
+                LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC)
+        );
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.cryptotrading.engine;
+
+import com.example.cryptotrading.entity.TradeEntity;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+
+/**
+ * Hands out trade ids from the same pooled sequence generator JPA uses for {@link TradeEntity}, so engine-written
+ * and JPA-written trades never collide. Only every {@code allocationSize}-th call reaches the database.
+ */
+class TradeIdAllocator {
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final BeforeExecutionGenerator generator;
+
+    TradeIdAllocator(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.generator = (BeforeExecutionGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(TradeEntity.class)
+                .getGenerator();
+    }
+
+    long next() {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return (Long) generator.generate((SharedSessionContractImplementor) session, null, null, EventType.INSERT);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.cryptotrading.engine;
+
+import com.example.cryptotrading.config.TradingEngineProperties;
+import com.example.cryptotrading.domain.Amount;
+import com.example.cryptotrading.domain.IdempotencyKey;
+import com.example.cryptotrading.domain.Settlement;
+import com.example.cryptotrading.domain.TradeOrder;
+import com.example.cryptotrading.dto.TradeResponseDto;
+import com.example.cryptotrading.entity.EngineCheckpointEntity;
+import com.example.cryptotrading.entity.WalletEntity;
+import com.example.cryptotrading.exception.DuplicateTradeException;
+import com.example.cryptotrading.repository.EngineCheckpointRepository;
+import com.example.cryptotrading.repository.TradeRepository;
+import com.example.cryptotrading.repository.WalletRepository;
+import com.example.cryptotrading.service.ReferenceDataRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Executes trades on balances held in memory by single-threaded shards instead of locking wallet rows. Users are
+ * hashed to shards, so all trades of a user are applied in order by one thread. A trade is acknowledged once its
+ * shard has journaled it; the trade and wallet tables follow asynchronously.
+ * <p>
+ * On start-up, journal entries newer than the shards' database checkpoints are written to the database before any
+ * trade is accepted, so balances loaded from the wallet table are always current. If a batch cannot be written even
+ * after retrying, the engine rejects new trades and reports itself down until it is restarted.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "trading.engine", name = "enabled", havingValue = "true")
+public class TradingEngine implements SmartLifecycle, HealthIndicator {
+
+    private static final String JOURNAL_GLOB = "shard-*.journal";
+
+    private final TradingEngineProperties properties;
+    private final WalletRepository walletRepository;
+    private final EngineCheckpointRepository checkpointRepository;
+    private final TradeRepository tradeRepository;
+    private final TradeIdAllocator tradeIds;
+    private final EnginePersister persister;
+    private final List<EngineShard> shards = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+
+    public TradingEngine(TradingEngineProperties properties, WalletRepository walletRepository,
+            EngineCheckpointRepository checkpointRepository, TradeRepository tradeRepository,
+            EntityManagerFactory entityManagerFactory, ReferenceDataRegistry referenceData,
+            JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.properties = properties;
+        this.walletRepository = walletRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.tradeRepository = tradeRepository;
+        this.tradeIds = new TradeIdAllocator(entityManagerFactory);
+        this.persister = new EnginePersister(jdbcTemplate, transactionTemplate, referenceData, properties);
+    }
+
+    /**
+     * Settles the order on the user's shard. A retry of an {@code idempotencyKey} the shard still holds returns the
+     * original result; one whose trade is already in the database fails with {@link DuplicateTradeException}.
+     */
+    public TradeResponseDto execute(Long userId, IdempotencyKey idempotencyKey, TradeOrder order) {
+        return await(submit(userId, idempotencyKey, order));
+    }
+
+    /**
+     * Queues all orders before waiting for any, so the shard settles and journals them together. Wait for each
+     * result with {@link #await}.
+     */
+    public List<CompletableFuture<TradeResponseDto>> submitAll(Long userId, List<TradeOrder> orders) {
+        return orders.stream()
+                .map(order -> submit(userId, null, order))
+                .toList();
+    }
+
+    public TradeResponseDto await(CompletableFuture<TradeResponseDto> result) {
+        try {
+            return result.get(properties.getAckTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Trade failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Trading engine did not acknowledge the trade in time");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the trading engine");
+        }
+    }
+
+    private CompletableFuture<TradeResponseDto> submit(Long userId, IdempotencyKey idempotencyKey, TradeOrder order) {
+        if (!running) {
+            throw new IllegalStateException("Trading engine is not running");
+        }
+        if (persister.failure() != null) {
+            throw new IllegalStateException("Trading engine cannot persist its journal and accepts no trades");
+        }
+        EngineShard shard = shards.get(Math.floorMod(Long.hashCode(userId), shards.size()));
+        return shard.submit(userId, idempotencyKey, order).thenApply(entry -> new TradeResponseDto(
+                entry.tradeId(),
+                order.tradingPair().getSymbol(),
+                order.orderSide().getCode(),
+                entry.price().toBigDecimal(),
+                entry.quantity().toBigDecimal(),
+                entry.cost().toBigDecimal(),
+                order.baseBalance(new Settlement(entry.debitBalance(), entry.creditBalance())).toBigDecimal(),
+                entry.createdAt()
+        ));
+    }
+
+    /**
+     * Journal entries not yet written to the database, across all shards.
+     */
+    public int backlog() {
+        return persister.backlog();
+    }
+
+    /**
+     * Down once the database can no longer be brought up to date with the journals.
+     */
+    @Override
+    public Health health() {
+        RuntimeException failure = persister.failure();
+        Health.Builder health = failure != null
+                ? Health.down().withDetail("error", String.valueOf(failure.getMessage()))
+                : running ? Health.up() : Health.outOfService();
+        return health.withDetail("backlog", backlog()).build();
+    }
+
+    /**
+     * Whether every acknowledged trade has been written to the trade and wallet tables.
+     */
+    public boolean isCaughtUp() {
+        for (int id = 0; id < shards.size(); id++) {
+            if (persister.persistedSequence(id) < shards.get(id).lastSequence()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void start() {
+        try {
+            Files.createDirectories(properties.getJournalDir());
+            Map<Long, Long> checkpoints = loadCheckpoints();
+            long lastSequence = recover(checkpoints);
+
+            persister.start();
+            for (int id = 0; id < properties.getShards(); id++) {
+                Journal journal = Journal.open(journalPath(id), properties.isFsync());
+                journal.readAll();
+                long shardSequence = Math.max(lastSequence, checkpoints.getOrDefault((long) id, 0L));
+                persister.markPersisted(id, shardSequence);
+                EngineShard shard = new EngineShard(id, journal, shardSequence, tradeIds, persister,
+                        this::loadBalances, this::loadExecutedKeys, properties.getQueueCapacity(),
+                        properties.getMaxJournalBytes());
+                shard.start();
+                shards.add(shard);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start the trading engine", e);
+        }
+        running = true;
+        log.info("Trading engine started with {} shards, journals in {}",
+                properties.getShards(), properties.getJournalDir().toAbsolutePath());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            for (EngineShard shard : shards) {
+                shard.stop();
+            }
+            persister.stop();
+            for (EngineShard shard : shards) {
+                shard.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("Failed to close trading engine journals: {}", e.getMessage());
+        }
+        shards.clear();
+        log.info("Trading engine stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the web server, so no request reaches a stopped engine.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private Map<Long, Long> loadCheckpoints() {
+        Map<Long, Long> checkpoints = checkpointRepository.findAll().stream()
+                .collect(Collectors.toMap(EngineCheckpointEntity::getId, EngineCheckpointEntity::getLastSequence));
+        List<EngineCheckpointEntity> missing = new ArrayList<>();
+        for (long id = 0; id < properties.getShards(); id++) {
+            if (!checkpoints.containsKey(id)) {
+                missing.add(new EngineCheckpointEntity(id, 0L));
+            }
+        }
+        checkpointRepository.saveAll(missing);
+        return checkpoints;
+    }
+
+    /**
+     * Writes every journaled entry past its shard's checkpoint to the database and empties the journals. The shard
+     * count may have changed since they were written, so the sequences of all shards continue from the highest
+     * one recovered.
+     *
+     * @return the highest sequence found in any journal
+     */
+    private long recover(Map<Long, Long> checkpoints) throws IOException {
+        long lastSequence = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(properties.getJournalDir(), JOURNAL_GLOB)) {
+            for (Path file : files) {
+                try (Journal journal = Journal.open(file, properties.isFsync())) {
+                    List<JournalEntry> pending = new ArrayList<>();
+                    for (JournalEntry entry : journal.readAll()) {
+                        lastSequence = Math.max(lastSequence, entry.sequence());
+                        if (entry.sequence() > checkpoints.getOrDefault((long) entry.shard(), 0L)) {
+                            pending.add(entry);
+                        }
+                    }
+                    if (!pending.isEmpty()) {
+                        log.info("Replaying {} journal entries from {}", pending.size(), file.getFileName());
+                        for (int from = 0; from < pending.size(); from += properties.getPersistBatchSize()) {
+                            int to = Math.min(pending.size(), from + properties.getPersistBatchSize());
+                            persister.persist(pending.subList(from, to));
+                        }
+                    }
+                    journal.truncate();
+                }
+            }
+        }
+        return lastSequence;
+    }
+
+    private Map<Long, Amount> loadBalances(long userId) {
+        return walletRepository.findByUserId(userId).stream()
+                .collect(Collectors.toMap(wallet -> wallet.getCurrency().getId(), WalletEntity::getBalance,
+                        (a, b) -> a, HashMap::new));
+    }
+
+    private Set<IdempotencyKey> loadExecutedKeys(Set<String> keys) {
+        return new HashSet<>(tradeRepository.findIdempotencyKeys(keys));
+    }
+
+    private Path journalPath(int shard) {
+        return properties.getJournalDir().resolve("shard-" + shard + ".journal");
+    }
+}
@@ -2,6 +2,7 @@ package com.example.cryptotrading.entity;
 
 import static com.example.cryptotrading.entity.AggregatedPriceEntity.TABLE_NAME;
 
+import com.example.cryptotrading.domain.Amount;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -10,12 +11,12 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
@@ -27,15 +28,19 @@ public class AggregatedPriceEntity extends BaseEntity {
 
     public static final String TABLE_NAME = "crypto_aggregated_price";
 
+    /**
+     * Sequence-allocated so inserts can join the JDBC batch; IDENTITY forces one round trip per row.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "aggregated_price_seq")
+    @SequenceGenerator(name = "aggregated_price_seq", sequenceName = TABLE_NAME + "_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, precision = 30, scale = 8)
-    private BigDecimal bidPrice;
+    private Amount bidPrice;
 
     @Column(nullable = false, precision = 30, scale = 8)
-    private BigDecimal askPrice;
+    private Amount askPrice;
 
     @Column(length = 20)
     private String bidExchange;
@@ -50,7 +55,7 @@ public class AggregatedPriceEntity extends BaseEntity {
     @JoinColumn(name = "trading_pair_id", nullable = false, unique = true)
     private TradingPairEntity tradingPair;
 
-    public AggregatedPriceEntity(TradingPairEntity tradingPair, BigDecimal bidPrice, BigDecimal askPrice,
+    public AggregatedPriceEntity(TradingPairEntity tradingPair, Amount bidPrice, Amount askPrice,
                                  String bidExchange, String askExchange) {
         this.tradingPair = tradingPair;
         this.bidPrice = bidPrice;
@@ -0,0 +1,24 @@
+package com.example.cryptotrading.entity;
+
+import com.example.cryptotrading.domain.Amount;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Stores {@link Amount} attributes in the existing {@code DECIMAL(30, 8)} columns.
+ */
+@Converter(autoApply = true)
+public class AmountConverter implements AttributeConverter<Amount, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Amount amount) {
+        return amount == null ? null : amount.toBigDecimal();
+    }
+
+    @Override
+    public Amount convertToEntityAttribute(BigDecimal value) {
+        return value == null ? null : Amount.of(value);
+    }
+}
@@ -23,9 +23,13 @@ public abstract class BaseEntity implements Serializable {
     @Column(name = "ctl_act")
     private Boolean ctlAct = true;
 
-    @Column(name = "ctl_tcn", precision = 5)
+    /**
+     * Optimistic-lock version. A {@code long} so a busy wallet's counter cannot wrap back to a value a stale
+     * reader still holds.
+     */
+    @Column(name = "ctl_tcn")
     @Version
-    private Short ctlTcn;
+    private Long ctlTcn;
 
     @Column(name = "ctl_cre_ts")
     private LocalDateTime ctlCreTs;
@@ -0,0 +1,72 @@
+package com.example.cryptotrading.entity;
+
+import static com.example.cryptotrading.entity.CandleEntity.TABLE_NAME;
+
+import com.example.cryptotrading.domain.Amount;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A closed {@link com.example.cryptotrading.domain.Candle} of one pair and interval.
+ */
+@Entity
+@Table(name = TABLE_NAME, uniqueConstraints = {
+        // also serves the newest-first range reads of one pair and interval
+        @UniqueConstraint(columnNames = {"trading_pair_id", "interval_code", "open_time"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class CandleEntity extends BaseEntity {
+
+    public static final String TABLE_NAME = "crypto_price_candle";
+
+    /**
+     * Sequence-allocated so a flush of closed bars is one JDBC batch.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "price_candle_seq")
+    @SequenceGenerator(name = "price_candle_seq", sequenceName = TABLE_NAME + "_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "trading_pair_id", nullable = false)
+    private Long tradingPairId;
+
+    @Column(name = "interval_code", nullable = false, length = 3)
+    private String intervalCode;
+
+    @Column(name = "open_time", nullable = false)
+    private LocalDateTime openTime;
+
+    @Column(nullable = false, precision = 30, scale = 8)
+    private Amount openPrice;
+
+    @Column(nullable = false, precision = 30, scale = 8)
+    private Amount highPrice;
+
+    @Column(nullable = false, precision = 30, scale = 8)
+    private Amount lowPrice;
+
+    @Column(nullable = false, precision = 30, scale = 8)
+    private Amount closePrice;
+
+    @Column(nullable = false, precision = 30, scale = 8)
+    private Amount highBid;
+
+    @Column(nullable = false, precision = 30, scale = 8)
+    private Amount lowAsk;
+
+    @Column(nullable = false)
+    private Integer ticks;
+}
@@ -0,0 +1,36 @@
+package com.example.cryptotrading.entity;
+
+import static com.example.cryptotrading.entity.EngineCheckpointEntity.TABLE_NAME;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Highest journal sequence of a trading engine shard that has been written to the trade and wallet tables.
+ */
+@Entity
+@Table(name = TABLE_NAME)
+@Getter
+@Setter
+@NoArgsConstructor
+public class EngineCheckpointEntity extends BaseEntity {
+
+    public static final String TABLE_NAME = "crypto_engine_checkpoint";
+
+    @Id
+    @Column(name = "shard_id")
+    private Long id;
+
+    @Column(name = "last_sequence", nullable = false)
+    private Long lastSequence;
+
+    public EngineCheckpointEntity(Long shardId, Long lastSequence) {
+        this.id = shardId;
+        this.lastSequence = lastSequence;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.cryptotrading.entity;
+
+import static com.example.cryptotrading.entity.PositionEntity.TABLE_NAME;
+
+import com.example.cryptotrading.domain.Position;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * A user's {@link Position} in one pair, updated by the trade path in the transaction that inserts the trade.
+ */
+@Entity
+@Table(name = TABLE_NAME, uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"user_id", "trading_pair_id"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class PositionEntity extends BaseEntity {
+
+    public static final String TABLE_NAME = "crypto_position";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "trading_pair_id", nullable = false)
+    private Long tradingPairId;
+
+    @Column(name = "net_quantity", nullable = false, precision = 30, scale = 8)
+    private BigDecimal netQuantity;
+
+    @Column(name = "cost_basis", nullable = false, precision = 30, scale = 8)
+    private BigDecimal costBasis;
+
+    @Column(name = "realized_pnl", nullable = false, precision = 30, scale = 8)
+    private BigDecimal realizedPnl;
+
+    @Column(name = "trade_count", nullable = false)
+    private Long tradeCount;
+
+    public PositionEntity(Long userId, Long tradingPairId) {
+        this.userId = userId;
+        this.tradingPairId = tradingPairId;
+        this.netQuantity = Position.EMPTY.netQuantity();
+        this.costBasis = Position.EMPTY.costBasis();
+        this.realizedPnl = Position.EMPTY.realizedPnl();
+        this.tradeCount = Position.EMPTY.tradeCount();
+    }
+
+    public Position getPosition() {
+        return new Position(netQuantity, costBasis, realizedPnl, tradeCount);
+    }
+
+    public void setPosition(Position position) {
+        this.netQuantity = position.netQuantity();
+        this.costBasis = position.costBasis();
+        this.realizedPnl = position.realizedPnl();
+        this.tradeCount = position.tradeCount();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.cryptotrading.entity;
+
+import static com.example.cryptotrading.entity.TradeCounterEntity.TABLE_NAME;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Number of trades a user has, maintained by the trade path in the transaction that inserts the trades, so history
+ * totals need no {@code count(*)} over the trade table.
+ */
+@Entity
+@Table(name = TABLE_NAME)
+@Getter
+@Setter
+@NoArgsConstructor
+public class TradeCounterEntity extends BaseEntity {
+
+    public static final String TABLE_NAME = "crypto_trade_counter";
+
+    @Id
+    @Column(name = "user_id")
+    private Long id;
+
+    @Column(name = "trade_count", nullable = false)
+    private Long tradeCount;
+
+    public TradeCounterEntity(Long userId, Long tradeCount) {
+        this.id = userId;
+        this.tradeCount = tradeCount;
+    }
+}
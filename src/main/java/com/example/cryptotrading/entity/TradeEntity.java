@@ -8,11 +8,14 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.NamedAttributeNode;
 import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -20,7 +23,14 @@ import lombok.Setter;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = TABLE_NAME)
+@Table(name = TABLE_NAME, uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"user_id", "idempotency_key"})
+}, indexes = {
+        // serves the newest-first history and its keyset seek on (ctl_cre_ts, id)
+        @Index(name = "idx_trade_user_created", columnList = "user_id, ctl_cre_ts DESC, id DESC"),
+        // the same for history filtered by symbol; the side filter is applied on top of either index
+        @Index(name = "idx_trade_user_pair_created", columnList = "user_id, trading_pair_id, ctl_cre_ts DESC, id DESC")
+})
 @NamedEntityGraph(
         name = "Trade.withRelations",
         attributeNodes = {
@@ -34,14 +44,25 @@ import java.math.BigDecimal;
 public class TradeEntity extends BaseEntity {
 
     public static final String TABLE_NAME = "crypto_trade";
+    public static final int IDEMPOTENCY_KEY_LENGTH = 64;
 
+    /**
+     * Sequence-allocated so ids can be handed out before the row is written, as the trading engine does.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trade_seq")
+    @SequenceGenerator(name = "trade_seq", sequenceName = TABLE_NAME + "_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
     private Long userId;
 
+    /**
+     * Client-supplied {@code Idempotency-Key}, unique per user; retries with the same key never settle twice.
+     */
+    @Column(name = "idempotency_key", length = TradeEntity.IDEMPOTENCY_KEY_LENGTH)
+    private String idempotencyKey;
+
     @Column(nullable = false, precision = 30, scale = 8)
     private BigDecimal price;
 
@@ -2,6 +2,7 @@ package com.example.cryptotrading.entity;
 
 import static com.example.cryptotrading.entity.WalletEntity.TABLE_NAME;
 
+import com.example.cryptotrading.domain.Amount;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -16,8 +17,6 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-import java.math.BigDecimal;
-
 @Entity
 @Table(name = TABLE_NAME, uniqueConstraints = {
         @UniqueConstraint(columnNames = {"user_id", "currency_id"})
@@ -34,7 +33,7 @@ public class WalletEntity extends BaseEntity {
     private Long id;
 
     @Column(nullable = false, precision = 30, scale = 8)
-    private BigDecimal balance;
+    private Amount balance;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -0,0 +1,11 @@
+package com.example.cryptotrading.exception;
+
+/**
+ * Signals that a trade with the request's idempotency key has already been executed for the user.
+ */
+public class DuplicateTradeException extends RuntimeException {
+
+    public DuplicateTradeException(String idempotencyKey) {
+        super("Trade already executed for idempotency key " + idempotencyKey);
+    }
+}
@@ -1,13 +1,19 @@
 package com.example.cryptotrading.exception;
 
 import com.example.cryptotrading.dto.ErrorResponseDto;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.validation.BindException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.util.Objects;
+import java.util.stream.Collectors;
+
 @RestControllerAdvice
 @Slf4j
 public class GlobalExceptionHandler {
@@ -33,8 +39,23 @@ public class GlobalExceptionHandler {
                 .body(ErrorResponseDto.of(HttpStatus.BAD_REQUEST.value(), ex.getMessage()));
     }
 
-    @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<ErrorResponseDto> handleValidation(MethodArgumentNotValidException ex) {
+    /**
+     * A wallet stayed contended through every retry; the trade was not executed and can be sent again.
+     */
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<ErrorResponseDto> handleConcurrencyFailure(ConcurrencyFailureException ex) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ErrorResponseDto.of(HttpStatus.CONFLICT.value(),
+                        "Wallet is busy with concurrent trades, please retry"));
+    }
+
+    /**
+     * Invalid request bodies and query parameters alike; {@code MethodArgumentNotValidException} is a
+     * {@link BindException}.
+     */
+    @ExceptionHandler(BindException.class)
+    public ResponseEntity<ErrorResponseDto> handleValidation(BindException ex) {
         String message = ex.getBindingResult().getFieldErrors().stream()
                 .map(error -> error.getField() + ": " + error.getDefaultMessage())
                 .reduce((a, b) -> a + "; " + b)
@@ -44,6 +65,24 @@ public class GlobalExceptionHandler {
                 .body(ErrorResponseDto.of(HttpStatus.BAD_REQUEST.value(), message));
     }
 
+    /**
+     * Malformed JSON, or a value that cannot be read into its field, such as an amount with more than 8 decimals.
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorResponseDto> handleUnreadable(HttpMessageNotReadableException ex) {
+        String message = "Malformed request body";
+        if (ex.getCause() instanceof JsonMappingException mapping) {
+            String field = mapping.getPath().stream()
+                    .map(JsonMappingException.Reference::getFieldName)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.joining("."));
+            message = field.isEmpty() ? mapping.getOriginalMessage() : field + ": " + mapping.getOriginalMessage();
+        }
+        return ResponseEntity
+                .badRequest()
+                .body(ErrorResponseDto.of(HttpStatus.BAD_REQUEST.value(), message));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponseDto> handleGeneral(Exception ex) {
         log.error("Unexpected error", ex);
@@ -1,8 +1,18 @@
 package com.example.cryptotrading.exception;
 
+import com.example.cryptotrading.domain.Amount;
+import com.example.cryptotrading.util.AmountFormatUtil;
+
 public class InsufficientBalanceException extends RuntimeException {
 
     public InsufficientBalanceException(String message) {
         super(message);
     }
+
+    public static InsufficientBalanceException of(String currencyCode, Amount available, Amount required) {
+        return new InsufficientBalanceException(
+                "Insufficient " + currencyCode + " balance. Available: "
+                        + AmountFormatUtil.format(available)
+                        + ", required: " + AmountFormatUtil.format(required));
+    }
 }
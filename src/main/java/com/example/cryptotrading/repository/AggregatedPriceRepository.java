@@ -2,21 +2,28 @@ package com.example.cryptotrading.repository;
 
 import com.example.cryptotrading.entity.AggregatedPriceEntity;
 import com.example.cryptotrading.entity.TradingPairEntity;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface AggregatedPriceRepository extends JpaRepository<AggregatedPriceEntity, Long> {
 
-    Optional<AggregatedPriceEntity> findByTradingPair(TradingPairEntity tradingPair);
+    List<AggregatedPriceEntity> findByTradingPairIn(Collection<TradingPairEntity> tradingPairs);
 
+    @EntityGraph(attributePaths = "tradingPair")
     Optional<AggregatedPriceEntity> findByTradingPairSymbol(String symbol);
 
+    @Query("SELECT p FROM AggregatedPriceEntity p JOIN FETCH p.tradingPair")
+    List<AggregatedPriceEntity> findAllWithTradingPair();
+
     @Modifying
-    @Query("UPDATE AggregatedPriceEntity p SET p.lastCheckedAt = :ts WHERE p.tradingPair = :pair")
-    int touchLastChecked(@Param("pair") TradingPairEntity pair, @Param("ts") LocalDateTime ts);
+    @Query("UPDATE AggregatedPriceEntity p SET p.lastCheckedAt = :ts WHERE p.tradingPair.id IN :pairIds")
+    int touchLastChecked(@Param("pairIds") Collection<Long> pairIds, @Param("ts") LocalDateTime ts);
 }
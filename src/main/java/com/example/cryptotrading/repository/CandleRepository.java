@@ -0,0 +1,25 @@
+package com.example.cryptotrading.repository;
+
+import com.example.cryptotrading.entity.CandleEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface CandleRepository extends JpaRepository<CandleEntity, Long> {
+
+    List<CandleEntity> findByTradingPairIdAndIntervalCodeOrderByOpenTimeDesc(
+            Long tradingPairId, String intervalCode, Limit limit);
+
+    List<CandleEntity> findByTradingPairIdAndIntervalCodeAndOpenTimeBeforeOrderByOpenTimeDesc(
+            Long tradingPairId, String intervalCode, LocalDateTime openTime, Limit limit);
+
+    /**
+     * The newest stored bar of every pair and interval.
+     */
+    @Query("SELECT c FROM CandleEntity c WHERE c.openTime = (SELECT max(n.openTime) FROM CandleEntity n "
+            + "WHERE n.tradingPairId = c.tradingPairId AND n.intervalCode = c.intervalCode)")
+    List<CandleEntity> findNewestBars();
+}
@@ -1,11 +1,17 @@
 package com.example.cryptotrading.repository;
 
+import com.example.cryptotrading.domain.TableRevision;
 import com.example.cryptotrading.entity.CurrencyEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
 
 public interface CurrencyRepository extends JpaRepository<CurrencyEntity, Long> {
 
     Optional<CurrencyEntity> findByCode(String code);
+
+    @Query("SELECT new com.example.cryptotrading.domain.TableRevision(COUNT(c), COALESCE(SUM(c.ctlTcn), 0)) "
+            + "FROM CurrencyEntity c")
+    TableRevision revision();
 }
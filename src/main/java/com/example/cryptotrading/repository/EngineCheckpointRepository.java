@@ -0,0 +1,7 @@
+package com.example.cryptotrading.repository;
+
+import com.example.cryptotrading.entity.EngineCheckpointEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface EngineCheckpointRepository extends JpaRepository<EngineCheckpointEntity, Long> {
+}
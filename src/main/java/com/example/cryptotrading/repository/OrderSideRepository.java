@@ -1,12 +1,18 @@
 package com.example.cryptotrading.repository;
 
 import com.example.cryptotrading.domain.OrderSideCodeEnum;
+import com.example.cryptotrading.domain.TableRevision;
 import com.example.cryptotrading.entity.OrderSideEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
 
 public interface OrderSideRepository extends JpaRepository<OrderSideEntity, Long> {
 
     Optional<OrderSideEntity> findByCode(OrderSideCodeEnum code);
+
+    @Query("SELECT new com.example.cryptotrading.domain.TableRevision(COUNT(s), COALESCE(SUM(s.ctlTcn), 0)) "
+            + "FROM OrderSideEntity s")
+    TableRevision revision();
 }
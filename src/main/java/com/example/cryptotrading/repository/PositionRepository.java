@@ -0,0 +1,14 @@
+package com.example.cryptotrading.repository;
+
+import com.example.cryptotrading.entity.PositionEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface PositionRepository extends JpaRepository<PositionEntity, Long> {
+
+    List<PositionEntity> findByUserIdOrderByTradingPairId(Long userId);
+
+    List<PositionEntity> findByUserIdAndTradingPairIdIn(Long userId, Collection<Long> tradingPairIds);
+}
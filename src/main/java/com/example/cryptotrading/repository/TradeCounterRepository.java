@@ -0,0 +1,25 @@
+package com.example.cryptotrading.repository;
+
+import com.example.cryptotrading.entity.TradeCounterEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface TradeCounterRepository extends JpaRepository<TradeCounterEntity, Long> {
+
+    @Query("SELECT c.tradeCount FROM TradeCounterEntity c WHERE c.id = :userId")
+    Optional<Long> findTradeCount(@Param("userId") Long userId);
+
+    /**
+     * Adds to the counter in place, so concurrent trades of the same user serialise on the row instead of losing
+     * updates.
+     *
+     * @return the number of rows updated, 0 if the user has no counter yet
+     */
+    @Modifying
+    @Query("UPDATE TradeCounterEntity c SET c.tradeCount = c.tradeCount + :trades WHERE c.id = :userId")
+    int increment(@Param("userId") Long userId, @Param("trades") long trades);
+}
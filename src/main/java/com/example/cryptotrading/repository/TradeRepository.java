@@ -1,13 +1,99 @@
 package com.example.cryptotrading.repository;
 
+import com.example.cryptotrading.domain.IdempotencyKey;
+import com.example.cryptotrading.domain.TradeHistoryRow;
 import com.example.cryptotrading.entity.TradeEntity;
-import org.springframework.data.domain.Page;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface TradeRepository extends JpaRepository<TradeEntity, Long> {
 
+    /**
+     * Selects only the columns of {@link TradeHistoryRow}; history never loads trade entities or their relations.
+     */
+    String SELECT_HISTORY_ROW = "SELECT new com.example.cryptotrading.domain.TradeHistoryRow(t.id, t.tradingPair.id, "
+            + "t.orderSide.id, t.price, t.quantity, t.cost, t.ctlCreTs) FROM TradeEntity t ";
+
+    String NEWEST_FIRST = " ORDER BY t.ctlCreTs DESC, t.id DESC";
+
+    /**
+     * Newest trades in {@code [from, to)}, optionally of one side, as a slice: one row past the page tells whether
+     * another page follows and no count query runs. Seeks on {@code idx_trade_user_created}.
+     */
+    @Query(SELECT_HISTORY_ROW + "WHERE t.userId = :userId AND t.ctlCreTs >= :from AND t.ctlCreTs < :to "
+            + "AND (:orderSideId IS NULL OR t.orderSide.id = :orderSideId)" + NEWEST_FIRST)
+    Slice<TradeHistoryRow> findHistory(@Param("userId") Long userId, @Param("orderSideId") Long orderSideId,
+                                       @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                       Pageable pageable);
+
+    /**
+     * {@link #findHistory} restricted to one pair, seeking on {@code idx_trade_user_pair_created}.
+     */
+    @Query(SELECT_HISTORY_ROW + "WHERE t.userId = :userId AND t.tradingPair.id = :tradingPairId "
+            + "AND t.ctlCreTs >= :from AND t.ctlCreTs < :to "
+            + "AND (:orderSideId IS NULL OR t.orderSide.id = :orderSideId)" + NEWEST_FIRST)
+    Slice<TradeHistoryRow> findHistoryByPair(@Param("userId") Long userId,
+                                             @Param("tradingPairId") Long tradingPairId,
+                                             @Param("orderSideId") Long orderSideId,
+                                             @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                             Pageable pageable);
+
+    @Query("SELECT count(t) FROM TradeEntity t WHERE t.userId = :userId AND t.ctlCreTs >= :from AND t.ctlCreTs < :to "
+            + "AND (:orderSideId IS NULL OR t.orderSide.id = :orderSideId)")
+    long countHistory(@Param("userId") Long userId, @Param("orderSideId") Long orderSideId,
+                      @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT count(t) FROM TradeEntity t WHERE t.userId = :userId AND t.tradingPair.id = :tradingPairId "
+            + "AND t.ctlCreTs >= :from AND t.ctlCreTs < :to "
+            + "AND (:orderSideId IS NULL OR t.orderSide.id = :orderSideId)")
+    long countHistoryByPair(@Param("userId") Long userId, @Param("tradingPairId") Long tradingPairId,
+                            @Param("orderSideId") Long orderSideId,
+                            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query(SELECT_HISTORY_ROW + "WHERE t.userId = :userId" + NEWEST_FIRST)
+    List<TradeHistoryRow> findLatestHistory(@Param("userId") Long userId, Limit limit);
+
+    /**
+     * Trades strictly older than the cursor in {@code (ctl_cre_ts, id)} order. The redundant
+     * {@code ctlCreTs <= :createdAt} bounds the index range scan; the second condition breaks ties on id.
+     */
+    @Query(SELECT_HISTORY_ROW + "WHERE t.userId = :userId AND t.ctlCreTs <= :createdAt "
+            + "AND (t.ctlCreTs < :createdAt OR t.id < :id)" + NEWEST_FIRST)
+    List<TradeHistoryRow> findOlderThan(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id, Limit limit);
+
+    /**
+     * All of a user's trades, oldest first, as a forward-only cursor read {@code fetch size} rows at a time. Rows are
+     * projected rather than loaded as entities, so the persistence context does not grow while the stream is
+     * consumed. Must be consumed and closed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SELECT_HISTORY_ROW + "WHERE t.userId = :userId ORDER BY t.ctlCreTs, t.id")
+    Stream<TradeHistoryRow> streamHistory(@Param("userId") Long userId);
+
     @EntityGraph(value = "Trade.withRelations", type = EntityGraph.EntityGraphType.LOAD)
-    Page<TradeEntity> findByUserIdOrderByCtlCreTsDesc(Long userId, Pageable pageable);
+    Optional<TradeEntity> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    boolean existsByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    @Query("SELECT new com.example.cryptotrading.domain.IdempotencyKey(t.userId, t.idempotencyKey) "
+            + "FROM TradeEntity t WHERE t.idempotencyKey IN :keys")
+    List<IdempotencyKey> findIdempotencyKeys(@Param("keys") Collection<String> keys);
 }
@@ -1,7 +1,9 @@
 package com.example.cryptotrading.repository;
 
+import com.example.cryptotrading.domain.TableRevision;
 import com.example.cryptotrading.entity.TradingPairEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,4 +13,11 @@ public interface TradingPairRepository extends JpaRepository<TradingPairEntity,
     List<TradingPairEntity> findByCtlActTrue();
 
     Optional<TradingPairEntity> findBySymbol(String symbol);
+
+    @Query("SELECT new com.example.cryptotrading.domain.TableRevision(COUNT(p), COALESCE(SUM(p.ctlTcn), 0)) "
+            + "FROM TradingPairEntity p")
+    TableRevision revision();
+
+    @Query("SELECT p FROM TradingPairEntity p JOIN FETCH p.baseCurrency JOIN FETCH p.quoteCurrency")
+    List<TradingPairEntity> findAllWithCurrencies();
 }
@@ -1,8 +1,13 @@
 package com.example.cryptotrading.repository;
 
 import com.example.cryptotrading.entity.WalletEntity;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +18,12 @@ public interface WalletRepository extends JpaRepository<WalletEntity, Long> {
     Optional<WalletEntity> findByUserIdAndCurrencyId(Long userId, Long currencyId);
 
     Optional<WalletEntity> findByUserIdAndCurrencyCode(Long userId, String currencyCode);
+
+    /**
+     * Loads and row-locks the user's wallets in the given currencies with one statement. Rows are locked in id
+     * order, so concurrent settlements of the same user cannot deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM WalletEntity w WHERE w.user.id = :userId AND w.currency.id IN :currencyIds ORDER BY w.id")
+    List<WalletEntity> findForUpdate(@Param("userId") Long userId, @Param("currencyIds") Collection<Long> currencyIds);
 }
@@ -0,0 +1,111 @@
+package com.example.cryptotrading.scheduler;
+
+import com.example.cryptotrading.config.PriceAggregationProperties;
+import com.example.cryptotrading.domain.PriceSnapshot;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-symbol polling intervals. A symbol whose mid price moved by more than the threshold since its last poll, or
+ * whose price is halfway to the trade freshness limit, is polled again sooner; a quiet symbol backs off gradually.
+ * A throttling venue doubles the interval of every symbol in the cycle.
+ */
+class AdaptivePollSchedule {
+
+    private final PriceAggregationProperties properties;
+    private final Map<String, SymbolState> states = new ConcurrentHashMap<>();
+
+    AdaptivePollSchedule(PriceAggregationProperties properties) {
+        this.properties = properties;
+    }
+
+    boolean isKnown(String symbol) {
+        return states.containsKey(symbol);
+    }
+
+    /**
+     * Symbols that have never been polled are always due.
+     */
+    boolean isDue(String symbol, LocalDateTime now) {
+        SymbolState state = states.get(symbol);
+        return state == null || !now.isBefore(state.nextPollAt);
+    }
+
+    Duration interval(String symbol) {
+        SymbolState state = states.get(symbol);
+        return state != null ? state.interval : maxInterval();
+    }
+
+    /**
+     * @param before the price before the poll, {@code null} if there was none
+     * @param after  the price after the poll, {@code null} if still none
+     */
+    void record(String symbol, PriceSnapshot before, PriceSnapshot after, boolean throttled, LocalDateTime now) {
+        Duration current = interval(symbol);
+        Duration next;
+        if (throttled) {
+            next = current.multipliedBy(2);
+        } else if (isNearFreshnessLimit(after, now)) {
+            next = properties.getMinInterval();
+        } else if (hasMoved(before, after)) {
+            next = current.dividedBy(2);
+        } else {
+            next = current.plus(current.dividedBy(2));
+        }
+        next = clamp(next);
+        states.put(symbol, new SymbolState(next, now.plus(next)));
+    }
+
+    private boolean isNearFreshnessLimit(PriceSnapshot price, LocalDateTime now) {
+        if (price == null || price.updatedAt() == null) {
+            return true;
+        }
+        Duration age = Duration.between(price.updatedAt(), now);
+        return age.compareTo(properties.getMaxPriceAge().dividedBy(2)) >= 0;
+    }
+
+    private boolean hasMoved(PriceSnapshot before, PriceSnapshot after) {
+        if (before == null || after == null) {
+            return false;
+        }
+        BigDecimal previousMid = mid(before);
+        BigDecimal currentMid = mid(after);
+        if (previousMid == null || currentMid == null || previousMid.signum() == 0) {
+            return false;
+        }
+        BigDecimal change = currentMid.subtract(previousMid).abs().divide(previousMid, MathContext.DECIMAL64);
+        return change.compareTo(properties.getMoveThreshold()) >= 0;
+    }
+
+    private static BigDecimal mid(PriceSnapshot price) {
+        if (price.bidPrice() == null || price.askPrice() == null) {
+            return null;
+        }
+        return price.bidPrice().add(price.askPrice()).toBigDecimal().divide(BigDecimal.TWO, MathContext.DECIMAL64);
+    }
+
+    private Duration clamp(Duration interval) {
+        if (interval.compareTo(properties.getMinInterval()) < 0) {
+            return properties.getMinInterval();
+        }
+        Duration max = maxInterval();
+        return interval.compareTo(max) > 0 ? max : interval;
+    }
+
+    /**
+     * Never longer than a third of the freshness limit, so a price is refreshed several times before trades would
+     * reject it.
+     */
+    private Duration maxInterval() {
+        Duration freshnessBound = properties.getMaxPriceAge().dividedBy(3);
+        return properties.getMaxInterval().compareTo(freshnessBound) < 0 ? properties.getMaxInterval() : freshnessBound;
+    }
+
+    private record SymbolState(Duration interval, LocalDateTime nextPollAt) {
+    }
+}
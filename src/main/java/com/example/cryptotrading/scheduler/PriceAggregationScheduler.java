@@ -1,21 +1,78 @@
 package com.example.cryptotrading.scheduler;
 
+import com.example.cryptotrading.config.PriceAggregationProperties;
+import com.example.cryptotrading.domain.PriceSnapshot;
+import com.example.cryptotrading.service.AggregationCycle;
+import com.example.cryptotrading.service.PriceBook;
 import com.example.cryptotrading.service.PriceService;
-import lombok.AllArgsConstructor;
+import com.example.cryptotrading.stream.PriceStreamService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Polls the venues for whichever symbols are due under the {@link AdaptivePollSchedule} and not currently kept fresh
+ * by a price stream. The tick runs with a fixed delay, so a slow cycle postpones the next one instead of overlapping
+ * it.
+ */
 @Component
-@AllArgsConstructor
 @Slf4j
 public class PriceAggregationScheduler {
 
+    static final String CYCLE_TIMER = "price.aggregation.cycle";
+    static final String INTERVAL_GAUGE = "price.aggregation.interval";
+
     private final PriceService priceService;
+    private final PriceStreamService priceStreamService;
+    private final PriceBook priceBook;
+    private final MeterRegistry meterRegistry;
+    private final AdaptivePollSchedule schedule;
+
+    public PriceAggregationScheduler(PriceService priceService, PriceStreamService priceStreamService,
+            PriceBook priceBook, MeterRegistry meterRegistry, PriceAggregationProperties properties) {
+        this.priceService = priceService;
+        this.priceStreamService = priceStreamService;
+        this.priceBook = priceBook;
+        this.meterRegistry = meterRegistry;
+        this.schedule = new AdaptivePollSchedule(properties);
+    }
 
-    @Scheduled(fixedRate = 10000)
+    @Scheduled(fixedDelayString = "${price.aggregation.min-interval:1s}")
     public void aggregatePrices() {
-        log.info("Starting price aggregation");
-        priceService.aggregatePrices();
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, PriceSnapshot> before = priceBook.snapshots().stream()
+                .collect(Collectors.toMap(PriceSnapshot::symbol, Function.identity()));
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        AggregationCycle cycle = priceService.aggregatePrices(
+                symbol -> !priceStreamService.isStreaming(symbol) && schedule.isDue(symbol, now));
+        if (cycle.symbols().isEmpty()) {
+            return;
+        }
+        sample.stop(meterRegistry.timer(CYCLE_TIMER));
+
+        LocalDateTime finishedAt = LocalDateTime.now();
+        boolean throttled = !cycle.throttledExchanges().isEmpty();
+        if (throttled) {
+            log.warn("{} throttled this cycle, backing off", cycle.throttledExchanges());
+        }
+        for (String symbol : cycle.symbols()) {
+            if (!schedule.isKnown(symbol)) {
+                Gauge.builder(INTERVAL_GAUGE, schedule, s -> s.interval(symbol).toMillis() / 1000.0)
+                        .tag("symbol", symbol)
+                        .baseUnit("seconds")
+                        .register(meterRegistry);
+            }
+            schedule.record(symbol, before.get(symbol), priceBook.get(symbol).orElse(null), throttled, finishedAt);
+        }
+        log.debug("Aggregated {} due symbols", cycle.symbols().size());
     }
 }
@@ -0,0 +1,126 @@
+package com.example.cryptotrading.service;
+
+import com.example.cryptotrading.domain.BestQuote;
+import com.example.cryptotrading.domain.PriceSnapshot;
+import com.example.cryptotrading.entity.AggregatedPriceEntity;
+import com.example.cryptotrading.entity.TradingPairEntity;
+import com.example.cryptotrading.repository.AggregatedPriceRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Persists aggregated prices set-wise: one query loads the current rows, unchanged pairs get one bulk
+ * {@code lastCheckedAt} update, and changed rows are flushed as a single JDBC batch.
+ */
+@Component
+@AllArgsConstructor
+@Slf4j
+public class AggregatedPriceWriter {
+
+    private final AggregatedPriceRepository priceRepository;
+    private final PriceBook priceBook;
+
+    /**
+     * @param offerStored when true the stored price competes with the new quotes and is kept where it is still
+     *                    better, as the polling path always did; streamed quotes replace it outright
+     */
+    @Transactional
+    public void write(Map<TradingPairEntity, BestQuote> bestByPair, boolean offerStored) {
+        if (bestByPair.isEmpty()) {
+            return;
+        }
+        Map<Long, AggregatedPriceEntity> storedByPairId = priceRepository.findByTradingPairIn(bestByPair.keySet())
+                .stream()
+                .collect(Collectors.toMap(price -> price.getTradingPair().getId(), Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> unchangedPairIds = new ArrayList<>();
+        List<AggregatedPriceEntity> changed = new ArrayList<>();
+
+        bestByPair.forEach((pair, quote) -> {
+            AggregatedPriceEntity price = storedByPairId.get(pair.getId());
+            BestQuote best = quote;
+            if (price == null) {
+                price = new AggregatedPriceEntity(pair, null, null, null, null);
+            } else if (offerStored) {
+                best = best.offerBid(price.getBidExchange(), price.getBidPrice())
+                        .offerAsk(price.getAskExchange(), price.getAskPrice());
+            }
+
+            if (isUnchanged(price, best)) {
+                unchangedPairIds.add(pair.getId());
+                publishAfterCommit(toSnapshot(pair, price, now));
+                return;
+            }
+            price.setBidPrice(best.bidPrice());
+            price.setBidExchange(best.bidExchange());
+            price.setAskPrice(best.askPrice());
+            price.setAskExchange(best.askExchange());
+            price.setLastCheckedAt(now);
+            changed.add(price);
+            publishAfterCommit(toSnapshot(pair, price, now));
+            log.debug("Aggregated pairId {}, symbol {} - bid: {} ({}), ask: {} ({})",
+                    pair.getId(), pair.getSymbol(), price.getBidPrice(), price.getBidExchange(),
+                    price.getAskPrice(), price.getAskExchange());
+        });
+
+        if (!unchangedPairIds.isEmpty()) {
+            priceRepository.touchLastChecked(unchangedPairIds, now);
+        }
+        if (!changed.isEmpty()) {
+            priceRepository.saveAll(changed);
+        }
+        log.info("Stored aggregated prices: {} changed, {} unchanged", changed.size(), unchangedPairIds.size());
+    }
+
+    static PriceSnapshot toSnapshot(TradingPairEntity pair, AggregatedPriceEntity price, LocalDateTime updatedAt) {
+        return new PriceSnapshot(
+                pair.getId(),
+                pair.getSymbol(),
+                price.getBidPrice(),
+                price.getAskPrice(),
+                price.getBidExchange(),
+                price.getAskExchange(),
+                updatedAt
+        );
+    }
+
+    /**
+     * Prices compare by value, so a quote of {@code 100.1} does not rewrite a stored {@code 100.10000000}.
+     */
+    private static boolean isUnchanged(AggregatedPriceEntity price, BestQuote best) {
+        return Objects.equals(price.getBidPrice(), best.bidPrice())
+                && Objects.equals(price.getAskPrice(), best.askPrice())
+                && Objects.equals(price.getBidExchange(), best.bidExchange())
+                && Objects.equals(price.getAskExchange(), best.askExchange());
+    }
+
+    /**
+     * The book must never show a price the database rolled back, so inside a transaction publication waits for
+     * the commit.
+     */
+    private void publishAfterCommit(PriceSnapshot snapshot) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            priceBook.publish(snapshot);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                priceBook.publish(snapshot);
+            }
+        });
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.cryptotrading.service;
+
+import java.util.Set;
+
+/**
+ * Outcome of one polling cycle: the symbols that were requested from the venues and the venues that answered with
+ * a rate-limit status.
+ */
+public record AggregationCycle(Set<String> symbols, Set<String> throttledExchanges) {
+
+    public static final AggregationCycle EMPTY = new AggregationCycle(Set.of(), Set.of());
+}
@@ -0,0 +1,307 @@
+package com.example.cryptotrading.service;
+
+import com.example.cryptotrading.config.CandleProperties;
+import com.example.cryptotrading.domain.Amount;
+import com.example.cryptotrading.domain.Candle;
+import com.example.cryptotrading.domain.CandleInterval;
+import com.example.cryptotrading.domain.PriceSnapshot;
+import com.example.cryptotrading.dto.CandleResponseDto;
+import com.example.cryptotrading.entity.CandleEntity;
+import com.example.cryptotrading.entity.TradingPairEntity;
+import com.example.cryptotrading.repository.CandleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Builds 1m, 5m and 1h {@link Candle}s from every price the {@link PriceBook} accepts. Each symbol and interval has
+ * its bar in progress in an {@link AtomicReference}, replaced by compare-and-set on every update, and a ring of the
+ * latest closed bars indexed by bar number; neither publishers nor readers lock. Closed bars are queued and written
+ * to the database in batches by {@link #flush()}.
+ * <p>
+ * On stop the bars in progress are written too. On start the newest stored bar of every pair and interval is loaded,
+ * and a series created for a symbol's first price resumes from it, so prices for that bar update the stored row
+ * instead of starting a second one. Loading happens before the price streams start, keeping the database off the
+ * publishing thread.
+ */
+@Service
+@Slf4j
+public class CandleService implements PriceListener, SmartLifecycle {
+
+    public static final int DEFAULT_LIMIT = 60;
+
+    private final CandleRepository candleRepository;
+    private final ReferenceDataRegistry referenceData;
+    private final CandleProperties properties;
+    private final Map<String, Map<CandleInterval, Series>> seriesBySymbol = new ConcurrentHashMap<>();
+    private final Queue<CandleEntity> closedBars = new ConcurrentLinkedQueue<>();
+    private final Map<Long, Map<CandleInterval, CandleEntity>> storedBarsByPair = new ConcurrentHashMap<>();
+    private volatile boolean running;
+
+    public CandleService(CandleRepository candleRepository, ReferenceDataRegistry referenceData,
+            CandleProperties properties) {
+        this.candleRepository = candleRepository;
+        this.referenceData = referenceData;
+        this.properties = properties;
+    }
+
+    @Override
+    public void onPrice(PriceSnapshot snapshot) {
+        if (snapshot.updatedAt() == null) {
+            return;
+        }
+        try {
+            Map<CandleInterval, Series> series = seriesBySymbol.computeIfAbsent(snapshot.symbol(),
+                    symbol -> newSeries(snapshot.tradingPairId()));
+            long bid = snapshot.bidPrice().units();
+            long ask = snapshot.askPrice().units();
+            for (Series bars : series.values()) {
+                bars.offer(bars.interval.bucket(snapshot.updatedAt()), bid, ask);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to update candles of {}: {}", snapshot.symbol(), e.getMessage());
+        }
+    }
+
+    /**
+     * The latest {@code limit} bars of the symbol, oldest first, including the bar in progress. Bars still held in
+     * memory are served from there; only what lies before them is read from the database.
+     */
+    @Transactional(readOnly = true)
+    public List<CandleResponseDto> getCandles(String symbol, String intervalCode, Integer limit) {
+        TradingPairEntity tradingPair = referenceData.findPair(symbol.toUpperCase())
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported trading pair: " + symbol));
+        CandleInterval interval = CandleInterval.fromCode(intervalCode);
+        int count = limit == null ? DEFAULT_LIMIT : limit;
+        if (count < 1 || count > properties.getMaxLimit()) {
+            throw new IllegalArgumentException("limit must be between 1 and " + properties.getMaxLimit());
+        }
+
+        Map<CandleInterval, Series> series = seriesBySymbol.get(tradingPair.getSymbol());
+        List<Candle> recent = series == null ? List.of() : series.get(interval).latest(count);
+        List<CandleResponseDto> candles = new ArrayList<>(count);
+        if (recent.size() < count) {
+            LocalDateTime before = recent.isEmpty() ? null : interval.openTime(recent.get(0).bucket());
+            List<CandleEntity> stored = before == null
+                    ? candleRepository.findByTradingPairIdAndIntervalCodeOrderByOpenTimeDesc(
+                            tradingPair.getId(), interval.code(), Limit.of(count))
+                    : candleRepository.findByTradingPairIdAndIntervalCodeAndOpenTimeBeforeOrderByOpenTimeDesc(
+                            tradingPair.getId(), interval.code(), before, Limit.of(count - recent.size()));
+            for (int i = stored.size() - 1; i >= 0; i--) {
+                candles.add(toResponse(stored.get(i)));
+            }
+        }
+        for (Candle candle : recent) {
+            candles.add(toResponse(interval, candle));
+        }
+        return candles;
+    }
+
+    /**
+     * Writes the bars closed since the last flush as one batch.
+     */
+    @Scheduled(fixedDelayString = "${price.candles.flush-interval:10s}")
+    public void flush() {
+        List<CandleEntity> batch = new ArrayList<>();
+        for (CandleEntity bar = closedBars.poll(); bar != null; bar = closedBars.poll()) {
+            batch.add(bar);
+        }
+        if (!batch.isEmpty()) {
+            candleRepository.saveAll(batch);
+            log.debug("Stored {} closed candles", batch.size());
+        }
+    }
+
+    /**
+     * Loads the bars a restart continues.
+     */
+    @Override
+    public void start() {
+        for (CandleEntity bar : candleRepository.findNewestBars()) {
+            storedBarsByPair.computeIfAbsent(bar.getTradingPairId(), id -> new EnumMap<>(CandleInterval.class))
+                    .put(CandleInterval.fromCode(bar.getIntervalCode()), bar);
+        }
+        running = true;
+        log.info("Candles resume from {} stored bars", storedBarsByPair.values().stream().mapToInt(Map::size).sum());
+    }
+
+    /**
+     * Writes the closed bars and the bars in progress, which a restart then continues.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        for (Map<CandleInterval, Series> series : seriesBySymbol.values()) {
+            for (Series bars : series.values()) {
+                bars.storeCurrent();
+            }
+        }
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before the price streams and stops after them.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+
+    private Map<CandleInterval, Series> newSeries(Long tradingPairId) {
+        Map<CandleInterval, CandleEntity> stored = storedBarsByPair.remove(tradingPairId);
+        Map<CandleInterval, Series> series = new EnumMap<>(CandleInterval.class);
+        for (CandleInterval interval : CandleInterval.values()) {
+            Series bars = new Series(tradingPairId, interval, properties.getMemoryBars());
+            if (stored != null && stored.containsKey(interval)) {
+                bars.resume(stored.get(interval));
+            }
+            series.put(interval, bars);
+        }
+        return series;
+    }
+
+    private static CandleResponseDto toResponse(CandleInterval interval, Candle candle) {
+        return new CandleResponseDto(
+                interval.openTime(candle.bucket()),
+                Amount.ofUnits(candle.openUnits()),
+                Amount.ofUnits(candle.highUnits()),
+                Amount.ofUnits(candle.lowUnits()),
+                Amount.ofUnits(candle.closeUnits()),
+                Amount.ofUnits(candle.highBidUnits()),
+                Amount.ofUnits(candle.lowAskUnits()),
+                candle.ticks()
+        );
+    }
+
+    private static CandleResponseDto toResponse(CandleEntity bar) {
+        return new CandleResponseDto(bar.getOpenTime(), bar.getOpenPrice(), bar.getHighPrice(), bar.getLowPrice(),
+                bar.getClosePrice(), bar.getHighBid(), bar.getLowAsk(), bar.getTicks());
+    }
+
+    /**
+     * Bars of one symbol and interval. A bar closes when the first price of a later bar arrives; prices older than
+     * the bar in progress are dropped.
+     */
+    private final class Series {
+
+        private final Long tradingPairId;
+        private final CandleInterval interval;
+        private final AtomicReference<Candle> current = new AtomicReference<>();
+        private final AtomicReferenceArray<Candle> closed;
+        // the newest stored bar and its row, continued after a restart
+        private volatile Candle storedBar;
+        private volatile CandleEntity storedRow;
+
+        private Series(Long tradingPairId, CandleInterval interval, int capacity) {
+            this.tradingPairId = tradingPairId;
+            this.interval = interval;
+            this.closed = new AtomicReferenceArray<>(capacity);
+        }
+
+        void resume(CandleEntity row) {
+            storedRow = row;
+            storedBar = new Candle(interval.bucket(row.getOpenTime()), row.getOpenPrice().units(),
+                    row.getHighPrice().units(), row.getLowPrice().units(), row.getClosePrice().units(),
+                    row.getHighBid().units(), row.getLowAsk().units(), row.getTicks());
+            current.set(storedBar);
+        }
+
+        void storeCurrent() {
+            Candle bar = current.get();
+            if (bar != null) {
+                store(bar);
+            }
+        }
+
+        void offer(long bucket, long bid, long ask) {
+            while (true) {
+                Candle bar = current.get();
+                Candle next;
+                if (bar == null || bucket > bar.bucket()) {
+                    next = Candle.open(bucket, bid, ask);
+                } else if (bucket == bar.bucket()) {
+                    next = bar.update(bid, ask);
+                } else {
+                    return;
+                }
+                if (current.compareAndSet(bar, next)) {
+                    if (bar != null && bar.bucket() != bucket) {
+                        close(bar);
+                    }
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Up to {@code limit} of the newest bars in memory, oldest first.
+         */
+        List<Candle> latest(int limit) {
+            Candle bar = current.get();
+            if (bar == null) {
+                return List.of();
+            }
+            // a slot may still hold a bar from an earlier lap of the ring; only the last lap is current
+            long oldest = bar.bucket() - closed.length();
+            List<Candle> bars = new ArrayList<>();
+            for (int i = 0; i < closed.length(); i++) {
+                Candle candidate = closed.get(i);
+                if (candidate != null && candidate.bucket() > oldest && candidate.bucket() < bar.bucket()) {
+                    bars.add(candidate);
+                }
+            }
+            bars.sort(Comparator.comparingLong(Candle::bucket));
+            bars.add(bar);
+            return bars.size() > limit ? bars.subList(bars.size() - limit, bars.size()) : bars;
+        }
+
+        private void close(Candle bar) {
+            closed.set((int) Math.floorMod(bar.bucket(), (long) closed.length()), bar);
+            store(bar);
+        }
+
+        private void store(Candle bar) {
+            if (!bar.equals(storedBar)) {
+                closedBars.add(toEntity(bar));
+            }
+        }
+
+        private CandleEntity toEntity(Candle bar) {
+            CandleEntity row = storedRow;
+            CandleEntity entity = row != null && row.getOpenTime().equals(interval.openTime(bar.bucket()))
+                    ? row
+                    : new CandleEntity();
+            entity.setTradingPairId(tradingPairId);
+            entity.setIntervalCode(interval.code());
+            entity.setOpenTime(interval.openTime(bar.bucket()));
+            entity.setOpenPrice(Amount.ofUnits(bar.openUnits()));
+            entity.setHighPrice(Amount.ofUnits(bar.highUnits()));
+            entity.setLowPrice(Amount.ofUnits(bar.lowUnits()));
+            entity.setClosePrice(Amount.ofUnits(bar.closeUnits()));
+            entity.setHighBid(Amount.ofUnits(bar.highBidUnits()));
+            entity.setLowAsk(Amount.ofUnits(bar.lowAskUnits()));
+            entity.setTicks(bar.ticks());
+            return entity;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.cryptotrading.service;
+
+import com.example.cryptotrading.config.ContentionProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Retries wallet settlements that lost a race for a wallet row: a version conflict, a lock timeout or a deadlock.
+ * Every attempt must run in a transaction of its own. The delay before each retry is random up to an exponentially
+ * growing bound, so requests that collided once spread out instead of colliding again.
+ * <p>
+ * Conflicts and retries are counted per currency, never per user, so the number of series stays bounded; the
+ * timer counts settlements by outcome, which gives their throughput.
+ */
+@Component
+@AllArgsConstructor
+@Slf4j
+public class ContentionRetry {
+
+    static final String CONFLICT_COUNTER = "trade.wallet.conflicts";
+    static final String RETRY_COUNTER = "trade.wallet.retries";
+    static final String SETTLE_TIMER = "trade.wallet.settle";
+
+    private final ContentionProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param currencies codes of the wallets the attempt updates, used as metric tags
+     * @throws ConcurrencyFailureException when the last attempt still conflicts
+     */
+    public <T> T execute(Long userId, Collection<String> currencies, Supplier<T> attempt) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "rejected";
+        try {
+            for (int attempts = 1; ; attempts++) {
+                try {
+                    T result = attempt.get();
+                    outcome = "settled";
+                    return result;
+                } catch (ConcurrencyFailureException e) {
+                    count(CONFLICT_COUNTER, currencies);
+                    if (attempts >= properties.getMaxAttempts()) {
+                        outcome = "conflict";
+                        log.warn("Settlement for user {} still conflicting after {} attempts: {}",
+                                userId, attempts, e.getMessage());
+                        throw e;
+                    }
+                    count(RETRY_COUNTER, currencies);
+                    backOff(attempts, e);
+                }
+            }
+        } finally {
+            sample.stop(meterRegistry.timer(SETTLE_TIMER, "outcome", outcome));
+        }
+    }
+
+    private void count(String counter, Collection<String> currencies) {
+        for (String currency : currencies) {
+            meterRegistry.counter(counter, "currency", currency).increment();
+        }
+    }
+
+    private void backOff(int attempts, ConcurrencyFailureException conflict) {
+        long bound = Math.min(properties.getMaxBackoff().toMillis(),
+                properties.getInitialBackoff().toMillis() << Math.min(attempts - 1, 20));
+        if (bound <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.cryptotrading.service;
+
+import com.example.cryptotrading.domain.Position;
+import com.example.cryptotrading.domain.PriceSnapshot;
+import com.example.cryptotrading.domain.TradeOrder;
+import com.example.cryptotrading.dto.PositionResponseDto;
+import com.example.cryptotrading.entity.PositionEntity;
+import com.example.cryptotrading.entity.TradingPairEntity;
+import com.example.cryptotrading.repository.PositionRepository;
+import com.example.cryptotrading.util.AmountFormatUtil;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps each user's per-pair {@link Position} up to date as trades settle, so positions and PnL are read without
+ * replaying the trade history.
+ */
+@Service
+@AllArgsConstructor
+public class PositionService {
+
+    private final PositionRepository positionRepository;
+    private final ReferenceDataRegistry referenceData;
+    private final PriceService priceService;
+
+    /**
+     * Applies the user's settled orders, in order, within the caller's transaction. The caller holds the locks on
+     * the user's wallets, which serialises this with any other trade in the same pairs.
+     */
+    public void record(Long userId, List<TradeOrder> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        Set<Long> tradingPairIds = orders.stream()
+                .map(order -> order.tradingPair().getId())
+                .collect(Collectors.toSet());
+        Map<Long, PositionEntity> positions = new HashMap<>();
+        for (PositionEntity position : positionRepository.findByUserIdAndTradingPairIdIn(userId, tradingPairIds)) {
+            positions.put(position.getTradingPairId(), position);
+        }
+        for (TradeOrder order : orders) {
+            PositionEntity position = positions.computeIfAbsent(order.tradingPair().getId(),
+                    tradingPairId -> new PositionEntity(userId, tradingPairId));
+            position.setPosition(position.getPosition()
+                    .apply(order.orderSide().getCode(), order.quantity().toBigDecimal(), order.cost().toBigDecimal()));
+        }
+        positionRepository.saveAll(positions.values());
+    }
+
+    /**
+     * One row per pair the user has traded, valued at the latest aggregated prices.
+     */
+    @Transactional(readOnly = true)
+    public List<PositionResponseDto> getPositions(Long userId) {
+        return positionRepository.findByUserIdOrderByTradingPairId(userId).stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    private PositionResponseDto toResponse(PositionEntity entity) {
+        TradingPairEntity tradingPair = referenceData.pair(entity.getTradingPairId());
+        Position position = entity.getPosition();
+        BigDecimal markPrice = priceService.getLatestPrice(tradingPair.getSymbol())
+                .map(price -> markPrice(position, price))
+                .orElse(null);
+        return new PositionResponseDto(
+                tradingPair.getSymbol(),
+                AmountFormatUtil.format(position.netQuantity()),
+                formatOrNull(position.averagePrice()),
+                AmountFormatUtil.format(position.costBasis()),
+                formatOrNull(markPrice),
+                markPrice == null ? null : AmountFormatUtil.format(position.unrealizedPnl(markPrice)),
+                AmountFormatUtil.format(position.realizedPnl()),
+                position.tradeCount()
+        );
+    }
+
+    /**
+     * The price the open quantity could be closed at: a long sells at the bid, a short buys back at the ask.
+     */
+    private static BigDecimal markPrice(Position position, PriceSnapshot price) {
+        return (position.netQuantity().signum() < 0 ? price.askPrice() : price.bidPrice()).toBigDecimal();
+    }
+
+    private static String formatOrNull(BigDecimal amount) {
+        return amount == null ? null : AmountFormatUtil.format(amount);
+    }
+}
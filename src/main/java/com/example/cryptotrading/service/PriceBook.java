@@ -0,0 +1,71 @@
+package com.example.cryptotrading.service;
+
+import com.example.cryptotrading.domain.PriceSnapshot;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-process copy of the latest aggregated prices, keyed by symbol. Readers never lock or touch JPA; writers swap
+ * whole immutable snapshots. Because REST polling and streaming may both publish, a snapshot older than the one
+ * already held is discarded instead of overwriting it. Accepted snapshots are passed on to the
+ * {@link PriceListener}s.
+ */
+@Component
+public class PriceBook {
+
+    private final Map<String, AtomicReference<PriceSnapshot>> prices = new ConcurrentHashMap<>();
+    private final List<PriceListener> listeners;
+
+    public PriceBook(List<PriceListener> listeners) {
+        this.listeners = List.copyOf(listeners);
+    }
+
+    public void publish(PriceSnapshot snapshot) {
+        PriceSnapshot held = prices.computeIfAbsent(snapshot.symbol(), symbol -> new AtomicReference<>())
+                .accumulateAndGet(snapshot, PriceBook::newer);
+        if (held == snapshot) {
+            for (PriceListener listener : listeners) {
+                listener.onPrice(snapshot);
+            }
+        }
+    }
+
+    public Optional<PriceSnapshot> get(String symbol) {
+        AtomicReference<PriceSnapshot> ref = prices.get(symbol);
+        return ref != null ? Optional.ofNullable(ref.get()) : Optional.empty();
+    }
+
+    public List<PriceSnapshot> snapshots() {
+        return prices.values().stream()
+                .map(AtomicReference::get)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(PriceSnapshot::tradingPairId))
+                .toList();
+    }
+
+    /**
+     * Adds the snapshots where they are newer than what the book holds, e.g. when warm-starting from the database.
+     * Prices a stream or poll published in the meantime are kept, and the listeners are not told: these are stored
+     * prices, not new ones.
+     */
+    public void mergeAll(Collection<PriceSnapshot> snapshots) {
+        snapshots.forEach(snapshot -> prices.computeIfAbsent(snapshot.symbol(), symbol -> new AtomicReference<>())
+                .accumulateAndGet(snapshot, PriceBook::newer));
+    }
+
+    private static PriceSnapshot newer(PriceSnapshot current, PriceSnapshot candidate) {
+        if (current == null || current.updatedAt() == null) {
+            return candidate;
+        }
+        return candidate.updatedAt() != null && !candidate.updatedAt().isBefore(current.updatedAt())
+                ? candidate : current;
+    }
+}
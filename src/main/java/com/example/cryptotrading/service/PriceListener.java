@@ -0,0 +1,12 @@
+package com.example.cryptotrading.service;
+
+import com.example.cryptotrading.domain.PriceSnapshot;
+
+/**
+ * Receives every snapshot the {@link PriceBook} accepts, on the publishing thread. Implementations must be quick and
+ * must not throw.
+ */
+public interface PriceListener {
+
+    void onPrice(PriceSnapshot snapshot);
+}
@@ -1,178 +1,239 @@
 package com.example.cryptotrading.service;
 
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-import com.example.cryptotrading.client.BinanceClient;
-import com.example.cryptotrading.client.BinanceClient.BookTicker;
-import com.example.cryptotrading.client.HuobiClient;
+import com.example.cryptotrading.client.BookTicker;
+import com.example.cryptotrading.client.CircuitOpenException;
+import com.example.cryptotrading.client.ExchangeClient;
+import com.example.cryptotrading.client.ExchangeClientRegistry;
+import com.example.cryptotrading.config.PriceAggregationProperties;
+import com.example.cryptotrading.domain.BestQuote;
+import com.example.cryptotrading.domain.PriceSnapshot;
 import com.example.cryptotrading.dto.PriceResponseDto;
 import com.example.cryptotrading.entity.AggregatedPriceEntity;
 import com.example.cryptotrading.entity.TradingPairEntity;
 import com.example.cryptotrading.repository.AggregatedPriceRepository;
-import com.example.cryptotrading.repository.TradingPairRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.HttpStatusCodeException;
 
 @Service
 @AllArgsConstructor
 @Slf4j
 public class PriceService {
 
-    public static final String BINANCE = "BINANCE";
-    public static final String HUOBI = "HUOBI";
+    static final String FETCH_TIMER = "price.exchange.fetch";
+    static final String FETCH_TIMEOUT_COUNTER = "price.exchange.fetch.timeouts";
 
-    private final BinanceClient binanceClient;
-    private final HuobiClient huobiClient;
+    private final ExchangeClientRegistry exchangeClientRegistry;
+    private final PriceBook priceBook;
+    private final AggregatedPriceWriter aggregatedPriceWriter;
     private final AggregatedPriceRepository priceRepository;
-    private final TradingPairRepository tradingPairRepository;
+    private final ReferenceDataRegistry referenceData;
+    private final ExecutorService exchangeFetchExecutor;
+    private final MeterRegistry meterRegistry;
+    private final PriceAggregationProperties properties;
 
-    @Transactional
-    public void aggregatePrices() {
-        List<TradingPairEntity> activePairs = tradingPairRepository.findByCtlActTrue();
-        if (activePairs.isEmpty()) {
+    public AggregationCycle aggregatePrices() {
+        return aggregatePrices(symbol -> true);
+    }
+
+    /**
+     * Polls the venues for the active pairs accepted by {@code due} and stores the best bid/ask of each.
+     */
+    public AggregationCycle aggregatePrices(Predicate<String> due) {
+        List<TradingPairEntity> allActivePairs = referenceData.activePairs();
+        if (allActivePairs.isEmpty()) {
             log.warn("No active trading pairs configured, skipping aggregation");
-            return;
+            return AggregationCycle.EMPTY;
+        }
+        List<TradingPairEntity> activePairs = allActivePairs.stream()
+                .filter(pair -> due.test(pair.getSymbol()))
+                .toList();
+        if (activePairs.isEmpty()) {
+            return AggregationCycle.EMPTY;
         }
 
         Set<String> symbols = activePairs.stream()
                 .map(TradingPairEntity::getSymbol)
                 .collect(Collectors.toSet());
 
-        Map<String, BookTicker> binanceTickers = binanceClient.getBookTickers(symbols);
-        Map<String, BookTicker> huobiTickers = huobiClient.getBookTickers(symbols);
+        Set<String> throttledExchanges = ConcurrentHashMap.newKeySet();
+        Map<String, Map<String, BookTicker>> tickersByExchange = fetchAll(symbols, throttledExchanges);
+        AggregationCycle cycle = new AggregationCycle(symbols, Set.copyOf(throttledExchanges));
 
-        if (binanceTickers.isEmpty() && huobiTickers.isEmpty()) {
-            log.warn("Both exchanges returned empty data, skipping aggregation");
-            return;
+        if (tickersByExchange.values().stream().allMatch(Map::isEmpty)) {
+            log.warn("All exchanges returned empty data, skipping aggregation");
+            return cycle;
         }
 
+        Map<TradingPairEntity, BestQuote> bestByPair = new LinkedHashMap<>();
         for (TradingPairEntity pair : activePairs) {
             String symbol = pair.getSymbol();
-            BookTicker binance = binanceTickers.get(symbol);
-            BookTicker huobi = huobiTickers.get(symbol);
-
-            if (binance == null && huobi == null) {
-                log.warn("No data available for pairId {}, symbol {} from either exchange", pair.getId(), symbol);
-                continue;
+            BestQuote best = BestQuote.EMPTY;
+            for (Map.Entry<String, Map<String, BookTicker>> exchange : tickersByExchange.entrySet()) {
+                BookTicker ticker = exchange.getValue().get(symbol);
+                if (ticker != null) {
+                    best = best.offer(exchange.getKey(), ticker);
+                }
             }
 
-            AggregatedPriceEntity price = priceRepository.findByTradingPair(pair)
-                    .orElseGet(() -> new AggregatedPriceEntity(pair, null, null, null, null));
-
-            BigDecimal originalBid = price.getBidPrice();
-            BigDecimal originalAsk = price.getAskPrice();
-            String originalBidExchange = price.getBidExchange();
-            String originalAskExchange = price.getAskExchange();
-
-            computeBestBid(price, binance, huobi);
-            computeBestAsk(price, binance, huobi);
-
-            LocalDateTime now = LocalDateTime.now();
-            price.setLastCheckedAt(now);
-
-            if (!isChanged(originalBid, price, originalAsk, originalBidExchange, originalAskExchange)) {
-                priceRepository.touchLastChecked(pair, now);
-                log.info("Aggregated price for pairId {}, symbol {} unchanged, updated lastCheckedAt", pair.getId(), symbol);
+            if (best.isEmpty()) {
+                log.warn("No data available for pairId {}, symbol {} from any exchange", pair.getId(), symbol);
                 continue;
             }
-            priceRepository.save(price);
-            log.info("Aggregated pairId {}, symbol {} - bid: {} ({}), ask: {} ({})",
-                    pair.getId(), symbol, price.getBidPrice(), price.getBidExchange(),
-                    price.getAskPrice(), price.getAskExchange());
+            bestByPair.put(pair, best);
         }
+        aggregatedPriceWriter.write(bestByPair, true);
+        return cycle;
     }
 
-    private static boolean isChanged(BigDecimal originalBid, AggregatedPriceEntity price, BigDecimal originalAsk,
-            String originalBidExchange, String originalAskExchange) {
-        return !Objects.equals(originalBid, price.getBidPrice())
-                || !Objects.equals(originalAsk, price.getAskPrice())
-                || !Objects.equals(originalBidExchange, price.getBidExchange())
-                || !Objects.equals(originalAskExchange, price.getAskExchange());
+    /**
+     * Stores best bids/asks computed from live stream quotes. Unlike the polling path, the stored price is not
+     * offered again: the streams already hold every venue's current top of book.
+     */
+    public void applyStreamedQuotes(Map<TradingPairEntity, BestQuote> bestByPair) {
+        aggregatedPriceWriter.write(bestByPair, false);
     }
 
-    private void computeBestBid(AggregatedPriceEntity price, BookTicker binance, BookTicker huobi) {
-        BigDecimal bestBid = null;
-        String bestExchange = null;
-
-        if (binance != null) {
-            bestBid = binance.bidPrice();
-            bestExchange = BINANCE;
-        }
-        if (huobi != null) {
-            if (bestBid == null || huobi.bidPrice().compareTo(bestBid) > 0) {
-                bestBid = huobi.bidPrice();
-                bestExchange = HUOBI;
-            }
-        }
-        if (price.getBidPrice() != null) {
-            if (bestBid == null || price.getBidPrice().compareTo(bestBid) > 0) {
-                bestBid = price.getBidPrice();
-                bestExchange = price.getBidExchange();
-            }
+    /**
+     * Fans the request out to every enabled venue at once and collects whatever arrives before the cycle deadline.
+     * The result keeps registry order, which decides ties between venues quoting the same price.
+     */
+    private Map<String, Map<String, BookTicker>> fetchAll(Set<String> symbols, Set<String> throttledExchanges) {
+        long deadline = System.nanoTime() + properties.getFetchTimeout().toNanos();
+        Map<String, Future<Map<String, BookTicker>>> fetches = new LinkedHashMap<>();
+        for (ExchangeClient client : exchangeClientRegistry.getEnabledClients()) {
+            fetches.put(client.name(), fetchAsync(client.name(), () -> client.getBookTickers(symbols)));
         }
 
-        if (bestBid != null) {
-            price.setBidPrice(bestBid);
-            price.setBidExchange(bestExchange != null ? bestExchange : BINANCE);
-        }
+        Map<String, Map<String, BookTicker>> tickersByExchange = new LinkedHashMap<>();
+        fetches.forEach((exchange, fetch) -> tickersByExchange.put(exchange,
+                awaitTickers(exchange, fetch, deadline, throttledExchanges)));
+        return tickersByExchange;
     }
 
-    private void computeBestAsk(AggregatedPriceEntity price, BookTicker binance, BookTicker huobi) {
-        BigDecimal bestAsk = null;
-        String bestExchange = null;
+    private Future<Map<String, BookTicker>> fetchAsync(String exchange, Supplier<Map<String, BookTicker>> fetch) {
+        return exchangeFetchExecutor.submit(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            Map<String, BookTicker> tickers = fetch.get();
+            String outcome = tickers.isEmpty() ? "empty" : "success";
+            long elapsed = sample.stop(meterRegistry.timer(FETCH_TIMER, "exchange", exchange, "outcome", outcome));
+            log.debug("Fetched {} tickers from {} in {} ms", tickers.size(), exchange,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed));
+            return tickers;
+        });
+    }
 
-        if (binance != null) {
-            bestAsk = binance.askPrice();
-            bestExchange = BINANCE;
-        }
-        if (huobi != null) {
-            if (bestAsk == null || huobi.askPrice().compareTo(bestAsk) < 0) {
-                bestAsk = huobi.askPrice();
-                bestExchange = HUOBI;
+    private Map<String, BookTicker> awaitTickers(String exchange, Future<Map<String, BookTicker>> fetch,
+            long deadline, Set<String> throttledExchanges) {
+        try {
+            return fetch.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            fetch.cancel(true);
+            meterRegistry.counter(FETCH_TIMEOUT_COUNTER, "exchange", exchange).increment();
+            log.warn("{} did not respond within {} ms, dropping it from this cycle",
+                    exchange, properties.getFetchTimeout().toMillis());
+            return Collections.emptyMap();
+        } catch (ExecutionException e) {
+            if (isThrottled(e.getCause())) {
+                throttledExchanges.add(exchange);
             }
-        }
-        if (price.getAskPrice() != null) {
-            if (bestAsk == null || price.getAskPrice().compareTo(bestAsk) < 0) {
-                bestAsk = price.getAskPrice();
-                bestExchange = price.getAskExchange();
+            if (e.getCause() instanceof CircuitOpenException) {
+                log.debug("Skipping {}: {}", exchange, e.getCause().getMessage());
+                return Collections.emptyMap();
             }
+            log.warn("Failed to fetch {} tickers: {}", exchange, e.getCause().getMessage());
+            return Collections.emptyMap();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fetch.cancel(true);
+            return Collections.emptyMap();
         }
+    }
 
-        if (bestAsk != null) {
-            price.setAskPrice(bestAsk);
-            price.setAskExchange(bestExchange != null ? bestExchange : BINANCE);
-        }
+    /**
+     * Binance answers 429 when the request weight is exceeded and 418 once it starts banning the caller; Huobi uses
+     * 429 as well.
+     */
+    private static boolean isThrottled(Throwable failure) {
+        return failure instanceof HttpStatusCodeException statusError
+                && (statusError.getStatusCode().value() == 429 || statusError.getStatusCode().value() == 418);
     }
 
-    @Transactional(readOnly = true)
     public List<PriceResponseDto> getLatestPrices() {
-        return priceRepository.findAll().stream()
+        return priceBook.snapshots().stream()
                 .map(this::toResponse)
                 .toList();
     }
 
+    /**
+     * Serves the price from the in-memory book. A miss, e.g. a pair priced by another instance before this one
+     * aggregated it, is read through from the database once and then cached. Like a warm start, the stored price is
+     * merged without telling the listeners, since it is not a new price.
+     */
+    public Optional<PriceSnapshot> getLatestPrice(String symbol) {
+        String upperSymbol = symbol.toUpperCase();
+        Optional<PriceSnapshot> cached = priceBook.get(upperSymbol);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        Optional<PriceSnapshot> stored = priceRepository.findByTradingPairSymbol(upperSymbol)
+                .map(PriceService::toSnapshot);
+        if (stored.isEmpty()) {
+            return stored;
+        }
+        priceBook.mergeAll(List.of(stored.get()));
+        return priceBook.get(upperSymbol);
+    }
+
+    /**
+     * Loads the durable copy of every aggregated price into the book so trades can execute before the first
+     * aggregation cycle completes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
     @Transactional(readOnly = true)
-    public Optional<AggregatedPriceEntity> getLatestPrice(String symbol) {
-        return priceRepository.findByTradingPairSymbol(symbol.toUpperCase());
+    public void warmStart() {
+        List<PriceSnapshot> snapshots = priceRepository.findAllWithTradingPair().stream()
+                .map(PriceService::toSnapshot)
+                .toList();
+        priceBook.mergeAll(snapshots);
+        log.info("Price book warm-started with {} prices", snapshots.size());
+    }
+
+    private static PriceSnapshot toSnapshot(AggregatedPriceEntity price) {
+        return AggregatedPriceWriter.toSnapshot(price.getTradingPair(), price,
+                price.getLastCheckedAt() != null ? price.getLastCheckedAt() : price.getCtlCreTs());
     }
 
-    private PriceResponseDto toResponse(AggregatedPriceEntity entity) {
+    private PriceResponseDto toResponse(PriceSnapshot snapshot) {
         return new PriceResponseDto(
-                entity.getTradingPair().getSymbol(),
-                entity.getBidPrice(),
-                entity.getAskPrice(),
-                entity.getBidExchange(),
-                entity.getAskExchange(),
-                entity.getLastCheckedAt() != null ? entity.getLastCheckedAt() : entity.getCtlCreTs()
+                snapshot.symbol(),
+                snapshot.bidPrice(),
+                snapshot.askPrice(),
+                snapshot.bidExchange(),
+                snapshot.askExchange(),
+                snapshot.updatedAt()
         );
     }
 }
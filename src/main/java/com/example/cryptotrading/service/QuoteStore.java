@@ -0,0 +1,46 @@
+package com.example.cryptotrading.service;
+
+import com.example.cryptotrading.config.QuoteProperties;
+import com.example.cryptotrading.domain.Amount;
+import com.example.cryptotrading.domain.OrderSideCodeEnum;
+import com.example.cryptotrading.domain.Quote;
+import com.example.cryptotrading.util.ExpiringCache;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Open quotes, in memory only. A quote is single-use: {@link #take} hands it out once and forgets it, so a quote
+ * cannot be traded against twice and is lost on restart.
+ */
+@Component
+public class QuoteStore {
+
+    private final Duration ttl;
+    private final ExpiringCache<QuoteKey, Quote> quotes;
+
+    public QuoteStore(QuoteProperties properties) {
+        this.ttl = properties.getTtl();
+        this.quotes = new ExpiringCache<>(properties.getTtl(), properties.getMaxEntries());
+    }
+
+    public Quote create(Long userId, Long tradingPairId, OrderSideCodeEnum side, Amount price) {
+        Quote quote = new Quote(UUID.randomUUID().toString(), userId, tradingPairId, side, price,
+                LocalDateTime.now().plus(ttl));
+        quotes.put(new QuoteKey(userId, quote.id()), quote);
+        return quote;
+    }
+
+    /**
+     * Removes and returns the user's quote; empty when it is unknown, expired, already used or another user's.
+     */
+    public Optional<Quote> take(Long userId, String quoteId) {
+        return Optional.ofNullable(quotes.remove(new QuoteKey(userId, quoteId)));
+    }
+
+    private record QuoteKey(Long userId, String quoteId) {
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.cryptotrading.service;
+
+import com.example.cryptotrading.domain.OrderSideCodeEnum;
+import com.example.cryptotrading.domain.TableRevision;
+import com.example.cryptotrading.entity.CurrencyEntity;
+import com.example.cryptotrading.entity.OrderSideEntity;
+import com.example.cryptotrading.entity.TradingPairEntity;
+import com.example.cryptotrading.repository.CurrencyRepository;
+import com.example.cryptotrading.repository.OrderSideRepository;
+import com.example.cryptotrading.repository.TradingPairRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Currencies, order sides and trading pairs held in immutable maps, so hot paths resolve symbols, codes and ids
+ * without queries. Loaded on first use and replaced as a whole by {@link #refresh()}; a periodic check compares
+ * {@link TableRevision}s and refreshes when any reference table changed. Loads run in a read-only transaction of
+ * their own, however they are reached, so the revisions and rows they read belong together.
+ */
+@Component
+@Slf4j
+public class ReferenceDataRegistry {
+
+    private final CurrencyRepository currencyRepository;
+    private final OrderSideRepository orderSideRepository;
+    private final TradingPairRepository tradingPairRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private volatile Snapshot snapshot;
+
+    public ReferenceDataRegistry(CurrencyRepository currencyRepository, OrderSideRepository orderSideRepository,
+            TradingPairRepository tradingPairRepository, PlatformTransactionManager transactionManager) {
+        this.currencyRepository = currencyRepository;
+        this.orderSideRepository = orderSideRepository;
+        this.tradingPairRepository = tradingPairRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public Optional<TradingPairEntity> findActivePair(String symbol) {
+        return Optional.ofNullable(current().activePairsBySymbol().get(symbol));
+    }
+
+    /**
+     * Any pair with the symbol, active or not, e.g. to look up trades in a delisted pair.
+     */
+    public Optional<TradingPairEntity> findPair(String symbol) {
+        return Optional.ofNullable(current().pairsBySymbol().get(symbol));
+    }
+
+    /**
+     * Active pairs ordered by id.
+     */
+    public List<TradingPairEntity> activePairs() {
+        return current().activePairs();
+    }
+
+    public TradingPairEntity pair(Long id) {
+        return current().pairsById().get(id);
+    }
+
+    public CurrencyEntity currency(Long id) {
+        return current().currenciesById().get(id);
+    }
+
+    public Optional<OrderSideEntity> findOrderSide(OrderSideCodeEnum code) {
+        return Optional.ofNullable(current().orderSidesByCode().get(code));
+    }
+
+    public OrderSideEntity orderSide(Long id) {
+        return current().orderSidesById().get(id);
+    }
+
+    /**
+     * Invalidation hook: reloads all reference data now. Call it after changing pairs, currencies or order sides.
+     */
+    public synchronized void refresh() {
+        snapshot = readOnlyTransaction.execute(status -> load());
+        log.info("Reference data loaded: {} currencies, {} order sides, {} pairs ({} active)",
+                snapshot.currenciesById().size(), snapshot.orderSidesById().size(),
+                snapshot.pairsById().size(), snapshot.activePairs().size());
+    }
+
+    @Scheduled(fixedDelayString = "${reference-data.check-interval:60s}")
+    public void refreshIfChanged() {
+        Snapshot loaded = snapshot;
+        if (loaded != null && !loaded.revision().equals(readOnlyTransaction.execute(status -> revision()))) {
+            refresh();
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot loaded = snapshot;
+        if (loaded != null) {
+            return loaded;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                refresh();
+            }
+            return snapshot;
+        }
+    }
+
+    private Revision revision() {
+        return new Revision(currencyRepository.revision(), orderSideRepository.revision(),
+                tradingPairRepository.revision());
+    }
+
+    private Snapshot load() {
+        Revision revision = revision();
+        List<CurrencyEntity> currencies = currencyRepository.findAll();
+        List<OrderSideEntity> orderSides = orderSideRepository.findAll();
+        List<TradingPairEntity> pairs = tradingPairRepository.findAllWithCurrencies();
+        List<TradingPairEntity> activePairs = pairs.stream()
+                .filter(TradingPairEntity::getCtlAct)
+                .sorted(Comparator.comparing(TradingPairEntity::getId))
+                .toList();
+        return new Snapshot(
+                revision,
+                Map.copyOf(currencies.stream().collect(Collectors.toMap(CurrencyEntity::getId, Function.identity()))),
+                Map.copyOf(orderSides.stream().collect(Collectors.toMap(OrderSideEntity::getId, Function.identity()))),
+                Map.copyOf(orderSides.stream().collect(Collectors.toMap(OrderSideEntity::getCode, Function.identity()))),
+                Map.copyOf(pairs.stream().collect(Collectors.toMap(TradingPairEntity::getId, Function.identity()))),
+                Map.copyOf(pairs.stream().collect(Collectors.toMap(TradingPairEntity::getSymbol, Function.identity(),
+                        ReferenceDataRegistry::preferred))),
+                Map.copyOf(activePairs.stream().collect(
+                        Collectors.toMap(TradingPairEntity::getSymbol, Function.identity()))),
+                activePairs
+        );
+    }
+
+    /**
+     * Of two pairs with one symbol, e.g. a relisting, the active one, else the newer one.
+     */
+    private static TradingPairEntity preferred(TradingPairEntity first, TradingPairEntity second) {
+        if (!first.getCtlAct().equals(second.getCtlAct())) {
+            return first.getCtlAct() ? first : second;
+        }
+        return first.getId() > second.getId() ? first : second;
+    }
+
+    private record Revision(TableRevision currencies, TableRevision orderSides, TableRevision pairs) {
+    }
+
+    private record Snapshot(
+            Revision revision,
+            Map<Long, CurrencyEntity> currenciesById,
+            Map<Long, OrderSideEntity> orderSidesById,
+            Map<OrderSideCodeEnum, OrderSideEntity> orderSidesByCode,
+            Map<Long, TradingPairEntity> pairsById,
+            Map<String, TradingPairEntity> pairsBySymbol,
+            Map<String, TradingPairEntity> activePairsBySymbol,
+            List<TradingPairEntity> activePairs
+    ) {
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.cryptotrading.service;
+
+import com.example.cryptotrading.domain.TradeHistoryRow;
+import com.example.cryptotrading.dto.TradeExportFormat;
+import com.example.cryptotrading.dto.TradeHistoryDto;
+import com.example.cryptotrading.repository.TradeRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's whole trade history as it is read from the database. Rows come off a forward-only cursor and go
+ * straight to the buffered output, so memory use does not depend on the number of trades.
+ */
+@Service
+@AllArgsConstructor
+public class TradeExportService {
+
+    private static final String CSV_HEADER = "tradeId,symbol,side,price,quantity,cost,createdAt\n";
+
+    private final TradeRepository tradeRepository;
+    private final ReferenceDataRegistry referenceData;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Streams every trade of the user, oldest first, to {@code out}. The caller owns and closes {@code out}.
+     */
+    @Transactional(readOnly = true)
+    public void export(Long userId, TradeExportFormat format, OutputStream out) throws IOException {
+        try (Stream<TradeHistoryRow> rows = tradeRepository.streamHistory(userId)) {
+            switch (format) {
+                case NDJSON -> writeNdjson(rows, out);
+                case CSV -> writeCsv(rows, out);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeNdjson(Stream<TradeHistoryRow> rows, OutputStream out) throws IOException {
+        // one flush at the end instead of one per row; the generator buffers and drains to out as it fills
+        ObjectWriter writer = objectMapper.writerFor(TradeHistoryDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            rows.forEach(row -> {
+                try {
+                    writer.writeValue(generator, TradeHistoryDto.of(row,
+                            referenceData.pair(row.tradingPairId()), referenceData.orderSide(row.orderSideId())));
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private void writeCsv(Stream<TradeHistoryRow> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        rows.forEach(row -> {
+            try {
+                writer.append(row.id().toString()).append(',')
+                        .append(referenceData.pair(row.tradingPairId()).getSymbol()).append(',')
+                        .append(referenceData.orderSide(row.orderSideId()).getCode().name()).append(',')
+                        .append(row.price().toPlainString()).append(',')
+                        .append(row.quantity().toPlainString()).append(',')
+                        .append(row.cost().toPlainString()).append(',')
+                        .append(row.createdAt().toString()).append('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+}
@@ -1,111 +1,391 @@
 package com.example.cryptotrading.service;
 
+import com.example.cryptotrading.config.PriceAggregationProperties;
+import com.example.cryptotrading.domain.Amount;
+import com.example.cryptotrading.domain.BatchSettlement;
+import com.example.cryptotrading.domain.IdempotencyKey;
 import com.example.cryptotrading.domain.OrderSideCodeEnum;
+import com.example.cryptotrading.domain.PriceSnapshot;
+import com.example.cryptotrading.domain.Quote;
+import com.example.cryptotrading.domain.Settlement;
+import com.example.cryptotrading.domain.TradeCursor;
+import com.example.cryptotrading.domain.TradeHistoryRow;
+import com.example.cryptotrading.domain.TradeOrder;
+import com.example.cryptotrading.dto.CursorPage;
 import com.example.cryptotrading.dto.GenericPage;
+import com.example.cryptotrading.dto.QuoteRequestDto;
+import com.example.cryptotrading.dto.QuoteResponseDto;
+import com.example.cryptotrading.dto.TradeBatchResponseDto;
+import com.example.cryptotrading.dto.TradeBatchResultDto;
+import com.example.cryptotrading.dto.TradeHistoryCursorDto;
 import com.example.cryptotrading.dto.TradeHistoryDto;
 import com.example.cryptotrading.dto.TradeHistoryFilterDto;
 import com.example.cryptotrading.dto.TradeRequestDto;
 import com.example.cryptotrading.dto.TradeResponseDto;
-import com.example.cryptotrading.entity.AggregatedPriceEntity;
+import com.example.cryptotrading.engine.TradingEngine;
 import com.example.cryptotrading.entity.OrderSideEntity;
 import com.example.cryptotrading.entity.TradingPairEntity;
+import com.example.cryptotrading.entity.TradeCounterEntity;
 import com.example.cryptotrading.entity.TradeEntity;
+import com.example.cryptotrading.exception.DuplicateTradeException;
+import com.example.cryptotrading.exception.InsufficientBalanceException;
 import com.example.cryptotrading.exception.PriceUnavailableException;
-import com.example.cryptotrading.repository.OrderSideRepository;
+import com.example.cryptotrading.repository.TradeCounterRepository;
 import com.example.cryptotrading.repository.TradeRepository;
-import com.example.cryptotrading.repository.TradingPairRepository;
+import com.example.cryptotrading.util.ExpiringCache;
 import lombok.AllArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 @Service
 @AllArgsConstructor
 public class TradeService {
 
-    private static final long MAX_PRICE_AGE_SECONDS = 30;
+    // bounds of an open time range; concrete values keep the range predicate usable for an index seek
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime HISTORY_END = LocalDateTime.of(9999, 12, 31, 0, 0);
 
     private final PriceService priceService;
     private final WalletService walletService;
     private final TradeRepository tradeRepository;
-    private final TradingPairRepository tradingPairRepository;
-    private final OrderSideRepository orderSideRepository;
+    private final TradeCounterRepository tradeCounterRepository;
+    private final PositionService positionService;
+    private final ReferenceDataRegistry referenceData;
+    private final PriceAggregationProperties priceProperties;
+    private final ObjectProvider<TradingEngine> tradingEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final ExpiringCache<IdempotencyKey, TradeResponseDto> executedTrades;
+    private final QuoteStore quoteStore;
+    private final ContentionRetry contentionRetry;
 
-    @Transactional
-    public TradeResponseDto executeTrade(Long userId, TradeRequestDto request) {
+    /**
+     * Locks the current execution price of a pair and side for the user. The quote can then be traded against once
+     * until it expires, whatever the price does meanwhile.
+     */
+    public QuoteResponseDto createQuote(Long userId, QuoteRequestDto request) {
         String symbol = request.symbol().toUpperCase();
-        OrderSideCodeEnum side = request.side();
+        TradingPairEntity tradingPair = activePair(symbol);
+        Amount price = currentPrice(symbol, request.side(), priceService::getLatestPrice);
+        Quote quote = quoteStore.create(userId, tradingPair.getId(), request.side(), price);
+        return new QuoteResponseDto(quote.id(), symbol, quote.side(), quote.price(), quote.expiresAt());
+    }
 
-        TradingPairEntity tradingPair = tradingPairRepository.findBySymbol(symbol)
-                .filter(TradingPairEntity::getCtlAct)
-                .orElseThrow(() -> new IllegalArgumentException("Unsupported trading pair: " + symbol));
+    public TradeResponseDto executeTrade(Long userId, TradeRequestDto request) {
+        return executeTrade(userId, request, null);
+    }
 
-        OrderSideEntity orderSide = orderSideRepository.findByCode(side)
-                .orElseThrow(() -> new IllegalArgumentException("Invalid side: " + side + ". Must be BUY or SELL"));
+    /**
+     * Prices and settles a trade. With the trading engine enabled the trade is settled by the user's engine shard,
+     * otherwise by locking the user's wallet rows; in both cases no database connection is held while pricing. A
+     * locking settlement that loses a race for a wallet row is retried in a new transaction, see
+     * {@link ContentionRetry}.
+     * <p>
+     * A request with an {@code idempotencyKey} is executed at most once per user: retries get the first response
+     * back, and concurrent retries wait for the first execution instead of running their own.
+     */
+    public TradeResponseDto executeTrade(Long userId, TradeRequestDto request, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return execute(userId, null, request);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > TradeEntity.IDEMPOTENCY_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Idempotency-Key must be 1 to " + TradeEntity.IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        IdempotencyKey key = new IdempotencyKey(userId, idempotencyKey);
+        return executedTrades.computeIfAbsent(key, () -> {
+            try {
+                return execute(userId, key, request);
+            } catch (DuplicateTradeException e) {
+                return storedTrade(key);
+            }
+        });
+    }
 
-        AggregatedPriceEntity aggregatedPrice = priceService.getLatestPrice(symbol)
-                .orElseThrow(() -> new PriceUnavailableException("No price available for " + symbol));
+    /**
+     * Executes a batch of orders for one user. Every order is priced against a single read of its symbol's price,
+     * and all orders are settled together: one engine batch, or one transaction that locks each wallet once and
+     * inserts all trades as a JDBC batch. Orders that cannot be priced or covered are rejected individually; the
+     * rest still execute, in request order.
+     */
+    public TradeBatchResponseDto executeTrades(Long userId, List<TradeRequestDto> requests) {
+        Map<String, Optional<PriceSnapshot>> prices = new HashMap<>();
+        TradeBatchResultDto[] results = new TradeBatchResultDto[requests.size()];
+        List<Integer> indexes = new ArrayList<>();
+        List<TradeOrder> orders = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                orders.add(price(userId, requests.get(i),
+                        symbol -> prices.computeIfAbsent(symbol, priceService::getLatestPrice)));
+                indexes.add(i);
+            } catch (IllegalArgumentException | PriceUnavailableException e) {
+                results[i] = TradeBatchResultDto.rejected(i, e.getMessage());
+            }
+        }
 
-        validatePriceFreshness(aggregatedPrice, symbol);
+        if (!orders.isEmpty()) {
+            TradingEngine engine = tradingEngine.getIfAvailable();
+            if (engine != null) {
+                List<CompletableFuture<TradeResponseDto>> pending = engine.submitAll(userId, orders);
+                for (int j = 0; j < pending.size(); j++) {
+                    int index = indexes.get(j);
+                    try {
+                        results[index] = TradeBatchResultDto.executed(index, engine.await(pending.get(j)));
+                    } catch (InsufficientBalanceException | IllegalArgumentException e) {
+                        results[index] = TradeBatchResultDto.rejected(index, e.getMessage());
+                    }
+                }
+            } else {
+                contentionRetry.execute(userId, currencies(orders), () -> {
+                    transactionTemplate.executeWithoutResult(status -> settleAll(userId, indexes, orders, results));
+                    return results;
+                });
+            }
+        }
+        return TradeBatchResponseDto.of(List.of(results));
+    }
 
-        String baseCurrencyCode = tradingPair.getBaseCurrency().getCode();
-        String quoteCurrencyCode = tradingPair.getQuoteCurrency().getCode();
-        BigDecimal executionPrice;
-        BigDecimal cost;
+    private TradeResponseDto execute(Long userId, IdempotencyKey key, TradeRequestDto request) {
+        TradeOrder order = price(userId, request, priceService::getLatestPrice);
 
-        if (OrderSideCodeEnum.BUY == side) {
-            executionPrice = aggregatedPrice.getAskPrice();
-            cost = request.quantity().multiply(executionPrice).setScale(8, RoundingMode.HALF_UP);
-            walletService.debit(userId, quoteCurrencyCode, cost);
-            walletService.credit(userId, baseCurrencyCode, request.quantity());
-        } else {
-            executionPrice = aggregatedPrice.getBidPrice();
-            cost = request.quantity().multiply(executionPrice).setScale(8, RoundingMode.HALF_UP);
-            walletService.debit(userId, baseCurrencyCode, request.quantity());
-            walletService.credit(userId, quoteCurrencyCode, cost);
+        TradingEngine engine = tradingEngine.getIfAvailable();
+        if (engine != null) {
+            return engine.execute(userId, key, order);
+        }
+        try {
+            return contentionRetry.execute(userId, currencies(List.of(order)),
+                    () -> transactionTemplate.execute(status -> settle(userId, key, order)));
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent request with the same key, e.g. on another instance, committed first
+            if (key != null && tradeRepository.existsByUserIdAndIdempotencyKey(userId, key.key())) {
+                throw new DuplicateTradeException(key.key());
+            }
+            throw e;
         }
+    }
+
+    private static Set<String> currencies(List<TradeOrder> orders) {
+        Set<String> codes = new TreeSet<>();
+        for (TradeOrder order : orders) {
+            codes.add(order.debitCurrency().getCode());
+            codes.add(order.creditCurrency().getCode());
+        }
+        return codes;
+    }
 
-        TradeEntity trade = new TradeEntity(
-                userId, tradingPair, orderSide,
-                executionPrice, request.quantity(), cost);
+    private TradeResponseDto settle(Long userId, IdempotencyKey key, TradeOrder order) {
+        if (key != null && tradeRepository.existsByUserIdAndIdempotencyKey(userId, key.key())) {
+            throw new DuplicateTradeException(key.key());
+        }
+        Settlement settlement = walletService.settle(userId,
+                order.debitCurrency(), order.debitAmount(), order.creditCurrency(), order.creditAmount());
+
+        TradeEntity trade = toEntity(userId, order);
+        trade.setIdempotencyKey(key == null ? null : key.key());
         trade = tradeRepository.save(trade);
+        countTrades(userId, 1);
+        positionService.record(userId, List.of(order));
+
+        return toResponse(trade, order.tradingPair().getSymbol(), order.orderSide().getCode(),
+                order.baseBalance(settlement));
+    }
 
-        BigDecimal currentBaseBalance = walletService.getBalance(userId, baseCurrencyCode);
+    /**
+     * Adds the user's new trades to their counter within the current transaction, creating the counter on the
+     * user's first trade.
+     */
+    private void countTrades(Long userId, int trades) {
+        if (trades > 0 && tradeCounterRepository.increment(userId, trades) == 0) {
+            tradeCounterRepository.save(new TradeCounterEntity(userId, (long) trades));
+        }
+    }
+
+    private void settleAll(Long userId, List<Integer> indexes, List<TradeOrder> orders,
+                           TradeBatchResultDto[] results) {
+        BatchSettlement settlement = walletService.settleAll(userId, orders);
+        List<TradeEntity> trades = new ArrayList<>(orders.size());
+        List<TradeOrder> settled = new ArrayList<>(orders.size());
+        for (int j = 0; j < orders.size(); j++) {
+            TradeOrder order = orders.get(j);
+            if (settlement.isSettled(j)) {
+                settled.add(order);
+                trades.add(toEntity(userId, order));
+            }
+        }
+        Iterator<TradeEntity> saved = tradeRepository.saveAll(trades).iterator();
+        countTrades(userId, trades.size());
+        positionService.record(userId, settled);
+        for (int j = 0; j < orders.size(); j++) {
+            int index = indexes.get(j);
+            TradeOrder order = orders.get(j);
+            if (settlement.isSettled(j)) {
+                TradeResponseDto response = toResponse(saved.next(), order.tradingPair().getSymbol(),
+                        order.orderSide().getCode(), order.baseBalance(settlement.settlements().get(j)));
+                results[index] = TradeBatchResultDto.executed(index, response);
+            } else {
+                results[index] = TradeBatchResultDto.rejected(index, settlement.rejections().get(j).getMessage());
+            }
+        }
+    }
 
-        return toResponse(trade, symbol, side, currentBaseBalance);
+    /**
+     * Rebuilds the response of a trade executed before its key's cache entry expired or the application restarted.
+     * The balance then reflects the wallet as it is now.
+     */
+    private TradeResponseDto storedTrade(IdempotencyKey key) {
+        TradeEntity trade = tradeRepository.findByUserIdAndIdempotencyKey(key.userId(), key.key())
+                .orElseThrow(() -> new IllegalStateException("Trade for idempotency key " + key.key() + " not found"));
+        TradingPairEntity tradingPair = referenceData.pair(trade.getTradingPair().getId());
+        OrderSideEntity orderSide = referenceData.orderSide(trade.getOrderSide().getId());
+        Amount baseBalance = walletService.getBalance(key.userId(), tradingPair.getBaseCurrency());
+        return toResponse(trade, tradingPair.getSymbol(), orderSide.getCode(), baseBalance);
     }
 
+    /**
+     * Newest trades first, filtered by symbol, side and time range. Rows are projected straight into the DTO columns,
+     * and a symbol filter seeks on the {@code (user_id, trading_pair_id, ctl_cre_ts)} index. Unfiltered totals come
+     * from the trade counter; filtered ones need a count over the same index range.
+     */
     @Transactional(readOnly = true)
     public GenericPage<TradeHistoryDto> getTradeHistory(Long userId, TradeHistoryFilterDto filter) {
-        Page<TradeEntity> page = tradeRepository.findByUserIdOrderByCtlCreTsDesc(userId, filter.toPageableOrDefault());
-        var data = page.getContent().stream()
-                .map(trade -> new TradeHistoryDto(
-                        trade.getId(),
-                        trade.getTradingPair().getSymbol(),
-                        trade.getOrderSide().getCode(),
-                        trade.getPrice(),
-                        trade.getQuantity(),
-                        trade.getCost(),
-                        trade.getCtlCreTs()
-                ))
+        Long tradingPairId = filter.getSymbol() == null ? null : historyPair(filter.getSymbol()).getId();
+        OrderSideCodeEnum side = OrderSideCodeEnum.fromString(filter.getSide());
+        Long orderSideId = side == null ? null : referenceData.findOrderSide(side)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid side: " + side + ". Must be BUY or SELL"))
+                .getId();
+        LocalDateTime from = filter.getFrom() == null ? HISTORY_START : filter.getFrom();
+        LocalDateTime to = filter.getTo() == null ? HISTORY_END : filter.getTo();
+
+        Slice<TradeHistoryRow> slice = tradingPairId == null
+                ? tradeRepository.findHistory(userId, orderSideId, from, to, filter.toPageableOrDefault())
+                : tradeRepository.findHistoryByPair(userId, tradingPairId, orderSideId, from, to,
+                        filter.toPageableOrDefault());
+        var data = slice.getContent().stream()
+                .map(this::toHistory)
                 .toList();
+        Long totalCount = null;
+        if (filter.includeTotalOrDefault()) {
+            if (!filter.isFiltered()) {
+                totalCount = tradeCounterRepository.findTradeCount(userId).orElse(0L);
+            } else if (tradingPairId == null) {
+                totalCount = tradeRepository.countHistory(userId, orderSideId, from, to);
+            } else {
+                totalCount = tradeRepository.countHistoryByPair(userId, tradingPairId, orderSideId, from, to);
+            }
+        }
         return new GenericPage<>(
                 data,
-                page.getTotalElements(),
-                page.getNumber(),
-                page.getSize()
+                totalCount,
+                slice.getNumber(),
+                slice.getSize(),
+                slice.hasNext()
         );
     }
 
-    private void validatePriceFreshness(AggregatedPriceEntity price, String symbol) {
-        LocalDateTime lastChecked = price.getLastCheckedAt() != null
-                ? price.getLastCheckedAt()
-                : price.getCtlCreTs();
+    /**
+     * Keyset-paginated history, newest first. Each page seeks past the previous page's last trade on the
+     * {@code (user_id, ctl_cre_ts, id)} index, so deep pages cost the same as the first and trades inserted meanwhile
+     * neither shift nor repeat rows.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<TradeHistoryDto> getTradeHistoryPage(Long userId, TradeHistoryCursorDto request) {
+        int limit = request.limitOrDefault();
+        // one extra row tells whether another page follows
+        Limit fetch = Limit.of(limit + 1);
+        List<TradeHistoryRow> trades;
+        if (request.getCursor() == null) {
+            trades = tradeRepository.findLatestHistory(userId, fetch);
+        } else {
+            TradeCursor cursor = TradeCursor.decode(request.getCursor());
+            trades = tradeRepository.findOlderThan(userId, cursor.createdAt(), cursor.id(), fetch);
+        }
+
+        String nextCursor = null;
+        if (trades.size() > limit) {
+            trades = trades.subList(0, limit);
+            TradeHistoryRow last = trades.get(limit - 1);
+            nextCursor = new TradeCursor(last.createdAt(), last.id()).encode();
+        }
+        return new CursorPage<>(trades.stream().map(this::toHistory).toList(), nextCursor);
+    }
+
+    private TradeHistoryDto toHistory(TradeHistoryRow row) {
+        return TradeHistoryDto.of(row, referenceData.pair(row.tradingPairId()),
+                referenceData.orderSide(row.orderSideId()));
+    }
+
+    private TradingPairEntity historyPair(String symbol) {
+        return referenceData.findPair(symbol)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown trading pair: " + symbol));
+    }
+
+    /**
+     * Prices the request at the current aggregated price, or at its quote's price when it carries a quote id. A
+     * quoted request reads neither the price book nor the clock.
+     */
+    private TradeOrder price(Long userId, TradeRequestDto request, Function<String, Optional<PriceSnapshot>> prices) {
+        String symbol = request.symbol().toUpperCase();
+        OrderSideCodeEnum side = request.side();
+
+        TradingPairEntity tradingPair = activePair(symbol);
+
+        OrderSideEntity orderSide = referenceData.findOrderSide(side)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid side: " + side + ". Must be BUY or SELL"));
+
+        Amount executionPrice = request.quoteId() != null
+                ? quotedPrice(userId, request.quoteId(), tradingPair, side)
+                : currentPrice(symbol, side, prices);
+        return new TradeOrder(tradingPair, orderSide, executionPrice, request.quantity(),
+                request.quantity().multiply(executionPrice));
+    }
+
+    private TradingPairEntity activePair(String symbol) {
+        return referenceData.findActivePair(symbol)
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported trading pair: " + symbol));
+    }
+
+    private Amount currentPrice(String symbol, OrderSideCodeEnum side,
+                                Function<String, Optional<PriceSnapshot>> prices) {
+        PriceSnapshot aggregatedPrice = prices.apply(symbol)
+                .orElseThrow(() -> new PriceUnavailableException("No price available for " + symbol));
+
+        validatePriceFreshness(aggregatedPrice, symbol);
+
+        return OrderSideCodeEnum.BUY == side ? aggregatedPrice.askPrice() : aggregatedPrice.bidPrice();
+    }
+
+    /**
+     * Takes the quote out of the store, so it is used up even if the trade is then rejected.
+     */
+    private Amount quotedPrice(Long userId, String quoteId, TradingPairEntity tradingPair, OrderSideCodeEnum side) {
+        Quote quote = quoteStore.take(userId, quoteId)
+                .orElseThrow(() -> new PriceUnavailableException(
+                        "Quote " + quoteId + " is unknown, expired or already used"));
+        if (!quote.tradingPairId().equals(tradingPair.getId()) || quote.side() != side) {
+            throw new IllegalArgumentException("Quote " + quoteId + " is for a different pair or side");
+        }
+        return quote.price();
+    }
+
+    private void validatePriceFreshness(PriceSnapshot price, String symbol) {
+        LocalDateTime lastChecked = price.updatedAt();
         if (lastChecked == null) {
             throw new PriceUnavailableException("Price for " + symbol + " has no timestamp");
         }
@@ -113,13 +393,19 @@ public class TradeService {
         if (ageSeconds < 0) {
             ageSeconds = 0; // clock skew
         }
-        if (ageSeconds > MAX_PRICE_AGE_SECONDS) {
+        if (ageSeconds > priceProperties.getMaxPriceAge().toSeconds()) {
             throw new PriceUnavailableException(
                     "Price for " + symbol + " is stale (last checked " + ageSeconds + "s ago)");
         }
     }
 
-    private TradeResponseDto toResponse(TradeEntity trade, String symbol, OrderSideCodeEnum side, BigDecimal currentBalance) {
+    private static TradeEntity toEntity(Long userId, TradeOrder order) {
+        return new TradeEntity(userId, order.tradingPair(), order.orderSide(),
+                order.price().toBigDecimal(), order.quantity().toBigDecimal(), order.cost().toBigDecimal());
+    }
+
+    private TradeResponseDto toResponse(TradeEntity trade, String symbol, OrderSideCodeEnum side,
+                                        Amount currentBalance) {
         return new TradeResponseDto(
                 trade.getId(),
                 symbol,
@@ -127,7 +413,7 @@ public class TradeService {
                 trade.getPrice(),
                 trade.getQuantity(),
                 trade.getCost(),
-                currentBalance,
+                currentBalance.toBigDecimal(),
                 trade.getCtlCreTs()
         );
     }
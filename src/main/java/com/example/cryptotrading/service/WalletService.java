@@ -1,6 +1,11 @@
 package com.example.cryptotrading.service;
 
+import com.example.cryptotrading.domain.Amount;
+import com.example.cryptotrading.domain.BatchSettlement;
+import com.example.cryptotrading.domain.Settlement;
+import com.example.cryptotrading.domain.TradeOrder;
 import com.example.cryptotrading.dto.WalletBalanceResponseDto;
+import com.example.cryptotrading.entity.CurrencyEntity;
 import com.example.cryptotrading.entity.WalletEntity;
 import com.example.cryptotrading.exception.InsufficientBalanceException;
 import com.example.cryptotrading.repository.WalletRepository;
@@ -9,54 +14,104 @@ import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 public class WalletService {
 
     private final WalletRepository walletRepository;
+    private final ReferenceDataRegistry referenceData;
 
     @Transactional(readOnly = true)
     public List<WalletBalanceResponseDto> getBalances(Long userId) {
         return walletRepository.findByUserId(userId).stream()
                 .map(w -> new WalletBalanceResponseDto(
-                        w.getCurrency().getCode(),
+                        referenceData.currency(w.getCurrency().getId()).getCode(),
                         AmountFormatUtil.format(w.getBalance())
                 ))
                 .toList();
     }
 
     @Transactional(readOnly = true)
-    public BigDecimal getBalance(Long userId, String currencyCode) {
-        WalletEntity wallet = walletRepository.findByUserIdAndCurrencyCode(userId, currencyCode)
-                .orElseThrow(() -> new IllegalArgumentException("Wallet not found for currency: " + currencyCode));
-        return wallet.getBalance();
+    public Amount getBalance(Long userId, CurrencyEntity currency) {
+        return walletRepository.findByUserIdAndCurrencyId(userId, currency.getId())
+                .map(WalletEntity::getBalance)
+                .orElseThrow(() -> new IllegalArgumentException("Wallet not found for currency: " + currency.getCode()));
     }
 
+    /**
+     * Applies both legs of a trade under one row lock: a single locking select loads both wallets, and the two
+     * balance updates are flushed together at commit. The returned balances are computed in memory, so callers need
+     * not read the wallets again.
+     */
     @Transactional
-    public void debit(Long userId, String currencyCode, BigDecimal amount) {
-        WalletEntity wallet = walletRepository.findByUserIdAndCurrencyCode(userId, currencyCode)
-                .orElseThrow(() -> new IllegalArgumentException("Wallet not found for currency: " + currencyCode));
-
-        if (wallet.getBalance().compareTo(amount) < 0) {
-            throw new InsufficientBalanceException(
-                    "Insufficient " + currencyCode + " balance. Available: "
-                            + AmountFormatUtil.format(wallet.getBalance())
-                            + ", required: " + AmountFormatUtil.format(amount));
+    public Settlement settle(Long userId, CurrencyEntity debitCurrency, Amount debitAmount,
+                             CurrencyEntity creditCurrency, Amount creditAmount) {
+        Map<Long, WalletEntity> wallets = walletRepository
+                .findForUpdate(userId, List.of(debitCurrency.getId(), creditCurrency.getId())).stream()
+                .collect(Collectors.toMap(w -> w.getCurrency().getId(), Function.identity()));
+        WalletEntity debitWallet = requireWallet(wallets, debitCurrency);
+        WalletEntity creditWallet = requireWallet(wallets, creditCurrency);
+
+        if (debitWallet.getBalance().compareTo(debitAmount) < 0) {
+            throw InsufficientBalanceException.of(debitCurrency.getCode(), debitWallet.getBalance(), debitAmount);
         }
 
-        wallet.setBalance(wallet.getBalance().subtract(amount));
-        walletRepository.save(wallet);
+        debitWallet.setBalance(debitWallet.getBalance().subtract(debitAmount));
+        creditWallet.setBalance(creditWallet.getBalance().add(creditAmount));
+        return new Settlement(debitWallet.getBalance(), creditWallet.getBalance());
     }
 
+    /**
+     * Settles the orders in sequence against one locking read of all wallets they touch, so each wallet is updated
+     * once per batch however many orders move it. An order the running balance cannot cover is rejected and the
+     * remaining orders still settle.
+     */
     @Transactional
-    public void credit(Long userId, String currencyCode, BigDecimal amount) {
-        WalletEntity wallet = walletRepository.findByUserIdAndCurrencyCode(userId, currencyCode)
-                .orElseThrow(() -> new IllegalArgumentException("Wallet not found for currency: " + currencyCode));
+    public BatchSettlement settleAll(Long userId, List<TradeOrder> orders) {
+        Set<Long> currencyIds = new HashSet<>();
+        for (TradeOrder order : orders) {
+            currencyIds.add(order.debitCurrency().getId());
+            currencyIds.add(order.creditCurrency().getId());
+        }
+        Map<Long, WalletEntity> wallets = walletRepository.findForUpdate(userId, currencyIds).stream()
+                .collect(Collectors.toMap(w -> w.getCurrency().getId(), Function.identity()));
+
+        List<Settlement> settlements = new ArrayList<>(orders.size());
+        Map<Integer, RuntimeException> rejections = new HashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            TradeOrder order = orders.get(i);
+            try {
+                WalletEntity debitWallet = requireWallet(wallets, order.debitCurrency());
+                WalletEntity creditWallet = requireWallet(wallets, order.creditCurrency());
+                if (debitWallet.getBalance().compareTo(order.debitAmount()) < 0) {
+                    throw InsufficientBalanceException.of(
+                            order.debitCurrency().getCode(), debitWallet.getBalance(), order.debitAmount());
+                }
+                debitWallet.setBalance(debitWallet.getBalance().subtract(order.debitAmount()));
+                creditWallet.setBalance(creditWallet.getBalance().add(order.creditAmount()));
+                settlements.add(new Settlement(debitWallet.getBalance(), creditWallet.getBalance()));
+            } catch (InsufficientBalanceException | IllegalArgumentException e) {
+                settlements.add(null);
+                rejections.put(i, e);
+            }
+        }
+        return new BatchSettlement(settlements, rejections);
+    }
 
-        wallet.setBalance(wallet.getBalance().add(amount));
-        walletRepository.save(wallet);
+    private static WalletEntity requireWallet(Map<Long, WalletEntity> wallets, CurrencyEntity currency) {
+        WalletEntity wallet = wallets.get(currency.getId());
+        if (wallet == null) {
+            throw new IllegalArgumentException("Wallet not found for currency: " + currency.getCode());
+        }
+        return wallet;
     }
 }
@@ -0,0 +1,94 @@
+package com.example.cryptotrading.stream;
+
+import com.example.cryptotrading.client.BinanceClient;
+import com.example.cryptotrading.client.BookTicker;
+import com.example.cryptotrading.client.BookTickerDecoder;
+import com.example.cryptotrading.config.ExchangeProperties;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.AllArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Binance combined {@code <symbol>@bookTicker} streams. Each event carries {@code s}, {@code b} and {@code a}
+ * inside the {@code data} envelope.
+ */
+@Component
+@Order(1)
+@AllArgsConstructor
+public class BinanceStream implements ExchangeStream {
+
+    private static final String DEFAULT_STREAM_URL = "wss://stream.binance.com:9443";
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final ExchangeProperties exchangeProperties;
+
+    @Override
+    public String name() {
+        return BinanceClient.NAME;
+    }
+
+    @Override
+    public URI endpoint(Set<String> symbols) {
+        String streams = symbols.stream()
+                .sorted()
+                .map(symbol -> symbol.toLowerCase(Locale.ROOT) + "@bookTicker")
+                .collect(Collectors.joining("/"));
+        String base = Objects.requireNonNullElse(exchangeProperties.venue(name()).getStreamUrl(), DEFAULT_STREAM_URL);
+        return URI.create(base + "/stream?streams=" + streams);
+    }
+
+    @Override
+    public void onMessage(String message, StreamSink sink) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(message)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if ("data".equals(field) && parser.nextToken() == JsonToken.START_OBJECT) {
+                    readEvent(parser, sink);
+                } else {
+                    parser.nextToken();
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private static void readEvent(JsonParser parser, StreamSink sink) throws IOException {
+        String symbol = null;
+        long bid = 0;
+        long ask = 0;
+        boolean hasBid = false;
+        boolean hasAsk = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "s" -> symbol = parser.getText();
+                case "b" -> {
+                    bid = BookTickerDecoder.priceUnits(parser);
+                    hasBid = true;
+                }
+                case "a" -> {
+                    ask = BookTickerDecoder.priceUnits(parser);
+                    hasAsk = true;
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if (symbol != null && hasBid && hasAsk) {
+            sink.tick(symbol.toUpperCase(Locale.ROOT), new BookTicker(bid, ask));
+        }
+    }
+}
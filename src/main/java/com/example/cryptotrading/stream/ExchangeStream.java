@@ -0,0 +1,43 @@
+package com.example.cryptotrading.stream;
+
+import com.example.cryptotrading.client.BookTicker;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Streaming counterpart of {@link com.example.cryptotrading.client.ExchangeClient}: describes how to subscribe to a
+ * venue's top-of-book stream and how to read its messages. Connection handling lives in {@link StreamConnection}.
+ */
+public interface ExchangeStream {
+
+    /**
+     * Venue code, matching the REST client's {@code name()}.
+     */
+    String name();
+
+    URI endpoint(Set<String> symbols);
+
+    /**
+     * Messages sent right after the connection opens.
+     */
+    default List<String> subscriptions(Set<String> symbols) {
+        return List.of();
+    }
+
+    default String decodeBinary(byte[] payload) throws IOException {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+
+    void onMessage(String message, StreamSink sink) throws IOException;
+
+    interface StreamSink {
+
+        void tick(String symbol, BookTicker ticker);
+
+        void reply(String message);
+    }
+}
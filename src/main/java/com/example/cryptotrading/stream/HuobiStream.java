@@ -0,0 +1,112 @@
+package com.example.cryptotrading.stream;
+
+import com.example.cryptotrading.client.BookTicker;
+import com.example.cryptotrading.client.BookTickerDecoder;
+import com.example.cryptotrading.client.HuobiClient;
+import com.example.cryptotrading.config.ExchangeProperties;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.AllArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Huobi {@code market.<symbol>.bbo} channels. Every frame is gzip-compressed, and the server drops connections that
+ * do not answer its {@code {"ping": ts}} heartbeats with {@code {"pong": ts}}.
+ */
+@Component
+@Order(2)
+@AllArgsConstructor
+public class HuobiStream implements ExchangeStream {
+
+    private static final String DEFAULT_STREAM_URL = "wss://api.huobi.pro";
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final ExchangeProperties exchangeProperties;
+
+    @Override
+    public String name() {
+        return HuobiClient.NAME;
+    }
+
+    @Override
+    public URI endpoint(Set<String> symbols) {
+        String base = Objects.requireNonNullElse(exchangeProperties.venue(name()).getStreamUrl(), DEFAULT_STREAM_URL);
+        return URI.create(base + "/ws");
+    }
+
+    @Override
+    public List<String> subscriptions(Set<String> symbols) {
+        return symbols.stream()
+                .sorted()
+                .map(symbol -> symbol.toLowerCase(Locale.ROOT))
+                .map(symbol -> "{\"sub\":\"market." + symbol + ".bbo\",\"id\":\"" + symbol + "\"}")
+                .toList();
+    }
+
+    @Override
+    public String decodeBinary(byte[] payload) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Override
+    public void onMessage(String message, StreamSink sink) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(message)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("ping".equals(field)) {
+                    sink.reply("{\"pong\":" + parser.getText() + "}");
+                } else if ("tick".equals(field) && value == JsonToken.START_OBJECT) {
+                    readTick(parser, sink);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private static void readTick(JsonParser parser, StreamSink sink) throws IOException {
+        String symbol = null;
+        long bid = 0;
+        long ask = 0;
+        boolean hasBid = false;
+        boolean hasAsk = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "symbol" -> symbol = parser.getText();
+                case "bid" -> {
+                    bid = BookTickerDecoder.priceUnits(parser);
+                    hasBid = true;
+                }
+                case "ask" -> {
+                    ask = BookTickerDecoder.priceUnits(parser);
+                    hasAsk = true;
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        if (symbol != null && hasBid && hasAsk) {
+            sink.tick(symbol.toUpperCase(Locale.ROOT), new BookTicker(bid, ask));
+        }
+    }
+}
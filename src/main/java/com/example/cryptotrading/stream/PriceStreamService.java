@@ -0,0 +1,207 @@
+package com.example.cryptotrading.stream;
+
+import com.example.cryptotrading.client.BookTicker;
+import com.example.cryptotrading.config.ExchangeProperties;
+import com.example.cryptotrading.config.PriceStreamingProperties;
+import com.example.cryptotrading.domain.BestQuote;
+import com.example.cryptotrading.entity.TradingPairEntity;
+import com.example.cryptotrading.service.PriceService;
+import com.example.cryptotrading.service.ReferenceDataRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.net.http.HttpClient;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming price ingestion. Keeps the latest quote per venue and symbol, and recomputes the aggregated best
+ * bid/ask whenever a tick changes it. A single writer thread persists dirty symbols; when ticks arrive faster than
+ * the database accepts them, intermediate quotes for a symbol are coalesced into the latest one.
+ * <p>
+ * The pairs are subscribed once, at start-up. Symbols activated later, and symbols that stop ticking, are left to
+ * REST polling; see {@link #isStreaming(String)}.
+ */
+@Service
+@Slf4j
+public class PriceStreamService implements SmartLifecycle, StreamConnection.TickListener {
+
+    private final List<ExchangeStream> streams;
+    private final ExchangeProperties exchangeProperties;
+    private final PriceStreamingProperties properties;
+    private final ReferenceDataRegistry referenceData;
+    private final PriceService priceService;
+
+    private final Map<String, Map<String, BookTicker>> quotesBySymbol = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> lastTickNanosBySymbol = new ConcurrentHashMap<>();
+    private final Set<String> dirtySymbols = ConcurrentHashMap.newKeySet();
+    private final Semaphore dirtySignal = new Semaphore(0);
+    private final List<StreamConnection> connections = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private volatile Map<String, TradingPairEntity> pairsBySymbol = Map.of();
+    private List<String> venueOrder = List.of();
+    private HttpClient httpClient;
+    private ScheduledExecutorService reconnectScheduler;
+    private Thread writer;
+
+    public PriceStreamService(List<ExchangeStream> streams, ExchangeProperties exchangeProperties,
+            PriceStreamingProperties properties, ReferenceDataRegistry referenceData,
+            PriceService priceService) {
+        this.streams = streams;
+        this.exchangeProperties = exchangeProperties;
+        this.properties = properties;
+        this.referenceData = referenceData;
+        this.priceService = priceService;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return properties.isEnabled();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        pairsBySymbol = referenceData.activePairs().stream()
+                .collect(Collectors.toUnmodifiableMap(TradingPairEntity::getSymbol, Function.identity()));
+        if (pairsBySymbol.isEmpty()) {
+            log.warn("No active trading pairs configured, price streaming not started");
+            return;
+        }
+
+        List<ExchangeStream> enabled = streams.stream()
+                .filter(stream -> exchangeProperties.venue(stream.name()).isEnabled())
+                .toList();
+        venueOrder = enabled.stream().map(ExchangeStream::name).toList();
+        httpClient = HttpClient.newBuilder().connectTimeout(properties.getConnectTimeout()).build();
+        reconnectScheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("price-stream-reconnect").daemon().factory());
+        running = true;
+        writer = Thread.ofVirtual().name("price-stream-writer").start(this::writeLoop);
+
+        for (ExchangeStream stream : enabled) {
+            StreamConnection connection = new StreamConnection(stream, pairsBySymbol.keySet(), httpClient,
+                    reconnectScheduler, properties, this);
+            connections.add(connection);
+            connection.connect();
+        }
+        log.info("Price streaming started for {} on {}", pairsBySymbol.keySet(), venueOrder);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        connections.forEach(StreamConnection::close);
+        connections.clear();
+        reconnectScheduler.shutdownNow();
+        writer.interrupt();
+        httpClient.close();
+        quotesBySymbol.clear();
+        lastTickNanosBySymbol.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * True when the symbol is subscribed, every venue stream is connected and recently active, and the symbol itself
+     * ticked within {@code stale-after}, so REST polling can skip it. The stored price of a symbol is only refreshed
+     * by its own ticks; a quiet symbol on a live stream would otherwise age past the trade freshness limit.
+     */
+    public boolean isStreaming(String symbol) {
+        if (!running || connections.isEmpty() || !pairsBySymbol.containsKey(symbol)) {
+            return false;
+        }
+        AtomicLong lastTickNanos = lastTickNanosBySymbol.get(symbol);
+        long staleAfterNanos = properties.getStaleAfter().toNanos();
+        return lastTickNanos != null && System.nanoTime() - lastTickNanos.get() < staleAfterNanos
+                && connections.stream().allMatch(connection -> connection.isLive(properties.getStaleAfter()));
+    }
+
+    @Override
+    public void onTick(String venue, String symbol, BookTicker ticker) {
+        if (!pairsBySymbol.containsKey(symbol)) {
+            return;
+        }
+        quotesBySymbol.computeIfAbsent(symbol, key -> new ConcurrentHashMap<>()).put(venue, ticker);
+        lastTickNanosBySymbol.computeIfAbsent(symbol, key -> new AtomicLong()).set(System.nanoTime());
+        markDirty(symbol);
+    }
+
+    @Override
+    public void onDisconnect(String venue) {
+        quotesBySymbol.forEach((symbol, quotes) -> {
+            if (quotes.remove(venue) != null) {
+                markDirty(symbol);
+            }
+        });
+    }
+
+    private void markDirty(String symbol) {
+        if (dirtySymbols.add(symbol)) {
+            dirtySignal.release();
+        }
+    }
+
+    private void writeLoop() {
+        while (running) {
+            try {
+                dirtySignal.acquire();
+            } catch (InterruptedException e) {
+                return;
+            }
+            dirtySignal.drainPermits();
+            Map<TradingPairEntity, BestQuote> bestByPair = new LinkedHashMap<>();
+            for (String symbol : dirtySymbols) {
+                dirtySymbols.remove(symbol);
+                BestQuote best = bestQuote(symbol);
+                if (!best.isEmpty()) {
+                    bestByPair.put(pairsBySymbol.get(symbol), best);
+                }
+            }
+            publish(bestByPair);
+        }
+    }
+
+    private BestQuote bestQuote(String symbol) {
+        Map<String, BookTicker> quotes = quotesBySymbol.getOrDefault(symbol, Map.of());
+        BestQuote best = BestQuote.EMPTY;
+        for (String venue : venueOrder) {
+            BookTicker ticker = quotes.get(venue);
+            if (ticker != null) {
+                best = best.offer(venue, ticker);
+            }
+        }
+        return best;
+    }
+
+    private void publish(Map<TradingPairEntity, BestQuote> bestByPair) {
+        if (bestByPair.isEmpty()) {
+            return;
+        }
+        try {
+            priceService.applyStreamedQuotes(bestByPair);
+        } catch (Exception e) {
+            log.warn("Failed to store streamed prices for {}: {}", bestByPair.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.cryptotrading.stream;
+
+import com.example.cryptotrading.client.BookTicker;
+import com.example.cryptotrading.config.PriceStreamingProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One WebSocket session to one venue. Reassembles fragmented frames, hands complete messages to the
+ * {@link ExchangeStream}, and reconnects with jittered exponential backoff whenever the session ends.
+ */
+@Slf4j
+public class StreamConnection implements WebSocket.Listener {
+
+    private final ExchangeStream stream;
+    private final Set<String> symbols;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService reconnectScheduler;
+    private final PriceStreamingProperties properties;
+    private final TickListener listener;
+
+    private final StringBuilder textBuffer = new StringBuilder();
+    private final ByteArrayOutputStream binaryBuffer = new ByteArrayOutputStream();
+    private CompletableFuture<WebSocket> sendChain = CompletableFuture.completedFuture(null);
+
+    private volatile WebSocket webSocket;
+    private volatile boolean closed;
+    private volatile long lastMessageNanos;
+    private volatile int failedAttempts;
+
+    public StreamConnection(ExchangeStream stream, Set<String> symbols, HttpClient httpClient,
+            ScheduledExecutorService reconnectScheduler, PriceStreamingProperties properties, TickListener listener) {
+        this.stream = stream;
+        this.symbols = Set.copyOf(symbols);
+        this.httpClient = httpClient;
+        this.reconnectScheduler = reconnectScheduler;
+        this.properties = properties;
+        this.listener = listener;
+    }
+
+    public String venue() {
+        return stream.name();
+    }
+
+    public void connect() {
+        if (closed) {
+            return;
+        }
+        httpClient.newWebSocketBuilder()
+                .connectTimeout(properties.getConnectTimeout())
+                .buildAsync(stream.endpoint(symbols), this)
+                .whenComplete((ws, error) -> {
+                    if (error != null) {
+                        log.warn("Failed to connect to {} stream: {}", venue(), error.getMessage());
+                        scheduleReconnect();
+                    }
+                });
+    }
+
+    public void close() {
+        closed = true;
+        WebSocket ws = webSocket;
+        if (ws != null) {
+            ws.abort();
+        }
+    }
+
+    /**
+     * True while the session is open and has delivered a message within {@code staleAfter}.
+     */
+    public boolean isLive(Duration staleAfter) {
+        return webSocket != null && System.nanoTime() - lastMessageNanos < staleAfter.toNanos();
+    }
+
+    @Override
+    public void onOpen(WebSocket ws) {
+        log.info("Connected to {} stream for {}", venue(), symbols);
+        webSocket = ws;
+        lastMessageNanos = System.nanoTime();
+        textBuffer.setLength(0);
+        binaryBuffer.reset();
+        sendChain = CompletableFuture.completedFuture(ws);
+        stream.subscriptions(symbols).forEach(this::send);
+        ws.request(1);
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
+        textBuffer.append(data);
+        if (last) {
+            handle(textBuffer.toString());
+            textBuffer.setLength(0);
+        }
+        ws.request(1);
+        return null;
+    }
+
+    @Override
+    public CompletionStage<?> onBinary(WebSocket ws, ByteBuffer data, boolean last) {
+        byte[] chunk = new byte[data.remaining()];
+        data.get(chunk);
+        binaryBuffer.writeBytes(chunk);
+        if (last) {
+            try {
+                handle(stream.decodeBinary(binaryBuffer.toByteArray()));
+            } catch (Exception e) {
+                log.warn("Failed to decode {} stream frame: {}", venue(), e.getMessage());
+            }
+            binaryBuffer.reset();
+        }
+        ws.request(1);
+        return null;
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket ws, int statusCode, String reason) {
+        log.warn("{} stream closed ({} {})", venue(), statusCode, reason);
+        disconnected();
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket ws, Throwable error) {
+        log.warn("{} stream failed: {}", venue(), error.getMessage());
+        disconnected();
+    }
+
+    private void handle(String message) {
+        lastMessageNanos = System.nanoTime();
+        failedAttempts = 0;
+        try {
+            stream.onMessage(message, new ExchangeStream.StreamSink() {
+                @Override
+                public void tick(String symbol, BookTicker ticker) {
+                    listener.onTick(venue(), symbol, ticker);
+                }
+
+                @Override
+                public void reply(String reply) {
+                    send(reply);
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Failed to read {} stream message: {}", venue(), e.getMessage());
+        }
+    }
+
+    /**
+     * The JDK WebSocket allows one outstanding send at a time, so sends are chained.
+     */
+    private synchronized void send(String message) {
+        WebSocket ws = webSocket;
+        if (ws == null) {
+            return;
+        }
+        sendChain = sendChain
+                .exceptionally(error -> ws)
+                .thenCompose(ignored -> ws.sendText(message, true));
+    }
+
+    private void disconnected() {
+        webSocket = null;
+        listener.onDisconnect(venue());
+        scheduleReconnect();
+    }
+
+    private void scheduleReconnect() {
+        if (closed) {
+            return;
+        }
+        long initial = properties.getInitialBackoff().toMillis();
+        long ceiling = Math.min(properties.getMaxBackoff().toMillis(), initial << Math.min(failedAttempts, 20));
+        long delay = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+        failedAttempts++;
+        log.info("Reconnecting to {} stream in {} ms", venue(), delay);
+        reconnectScheduler.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+    }
+
+    public interface TickListener {
+
+        void onTick(String venue, String symbol, BookTicker ticker);
+
+        void onDisconnect(String venue);
+    }
+}
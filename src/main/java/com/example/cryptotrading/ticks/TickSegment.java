@@ -0,0 +1,246 @@
+package com.example.cryptotrading.ticks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * One file of fixed-width tick records, mapped into memory whole. The file is created at its full capacity (sparse
+ * on most file systems) and filled from the front; the count in the header says how many records are valid, so a
+ * record cut short by a crash is never read.
+ * <p>
+ * Layout: a 64-byte header ({@code magic, version, record size, capacity, count, epoch day}) followed by 64-byte
+ * records of seven longs: recorded time, price time, pair id, bid units, ask units, bid venue, ask venue, and one
+ * spare. A single writer appends; any number of readers scan the buffer in place while it does.
+ */
+final class TickSegment implements Closeable {
+
+    static final int HEADER_BYTES = 64;
+    static final int RECORD_BYTES = 64;
+    static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_BYTES) / RECORD_BYTES;
+
+    static final int RECORDED_AT = 0;
+    static final int PRICE_TIME = 8;
+    static final int PAIR_ID = 16;
+    static final int BID = 24;
+    static final int ASK = 32;
+    static final int BID_VENUE = 40;
+    static final int ASK_VENUE = 48;
+
+    private static final int MAGIC = 0x5449434B;
+    private static final int VERSION = 1;
+    private static final int COUNT_OFFSET = 16;
+    private static final int DAY_OFFSET = 24;
+
+    private final Path path;
+    private final LocalDate day;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int indexStride;
+    private final long[] index;
+    private final boolean writable;
+
+    // published after the record and its index entry are written, so readers never see a partial tick
+    private volatile int count;
+
+    private TickSegment(Path path, LocalDate day, MappedByteBuffer buffer, int capacity, int indexStride, int count,
+            boolean writable) {
+        this.path = path;
+        this.day = day;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.indexStride = indexStride;
+        this.index = new long[(capacity + indexStride - 1) / indexStride];
+        this.writable = writable;
+        for (int i = 0; i < count; i += indexStride) {
+            index[i / indexStride] = buffer.getLong(offset(i) + RECORDED_AT);
+        }
+        this.count = count;
+    }
+
+    static TickSegment create(Path path, LocalDate day, int capacity, int indexStride) throws IOException {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Segment capacity must be between 1 and " + MAX_CAPACITY);
+        }
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_BYTES + (long) capacity * RECORD_BYTES);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, RECORD_BYTES);
+            buffer.putInt(12, capacity);
+            buffer.putLong(COUNT_OFFSET, 0);
+            buffer.putLong(DAY_OFFSET, day.toEpochDay());
+            return new TickSegment(path, day, buffer, capacity, indexStride, 0, true);
+        }
+    }
+
+    /**
+     * Maps an existing segment, writable only if it is to be appended to.
+     *
+     * @throws IOException if the file is not a tick segment
+     */
+    static TickSegment open(Path path, int indexStride, boolean writable) throws IOException {
+        StandardOpenOption[] options = writable
+                ? new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[]{StandardOpenOption.READ};
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Not a tick segment: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(
+                    writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0, size);
+            int capacity = buffer.getInt(12);
+            long count = buffer.getLong(COUNT_OFFSET);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != RECORD_BYTES
+                    || capacity < 1 || capacity > MAX_CAPACITY || size < HEADER_BYTES + (long) capacity * RECORD_BYTES
+                    || count < 0 || count > capacity) {
+                throw new IOException("Not a tick segment: " + path);
+            }
+            return new TickSegment(path, LocalDate.ofEpochDay(buffer.getLong(DAY_OFFSET)), buffer, capacity,
+                    indexStride, (int) count, writable);
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    LocalDate day() {
+        return day;
+    }
+
+    int count() {
+        return count;
+    }
+
+    boolean isFull() {
+        return count == capacity;
+    }
+
+    /**
+     * Recorded time of the last tick, or {@link Long#MIN_VALUE} if the segment is empty.
+     */
+    long lastRecordedMicros() {
+        int n = count;
+        return n == 0 ? Long.MIN_VALUE : buffer.getLong(offset(n - 1) + RECORDED_AT);
+    }
+
+    /**
+     * Appends a tick. Only one thread may append, and {@code recordedMicros} must not be less than the last one's.
+     */
+    void append(long recordedMicros, long priceMicros, long tradingPairId, long bidUnits, long askUnits,
+            long bidVenue, long askVenue) {
+        int n = count;
+        if (!writable || n == capacity) {
+            throw new IllegalStateException("Tick segment is not open for appending: " + path);
+        }
+        int offset = offset(n);
+        buffer.putLong(offset + RECORDED_AT, recordedMicros);
+        buffer.putLong(offset + PRICE_TIME, priceMicros);
+        buffer.putLong(offset + PAIR_ID, tradingPairId);
+        buffer.putLong(offset + BID, bidUnits);
+        buffer.putLong(offset + ASK, askUnits);
+        buffer.putLong(offset + BID_VENUE, bidVenue);
+        buffer.putLong(offset + ASK_VENUE, askVenue);
+        if (n % indexStride == 0) {
+            index[n / indexStride] = recordedMicros;
+        }
+        buffer.putLong(COUNT_OFFSET, n + 1);
+        count = n + 1;
+    }
+
+    /**
+     * Passes every tick recorded in {@code [fromMicros, toMicros)}, of the pair unless it is {@code null}, to the
+     * consumer through {@code view}. The index narrows the start to one stride; from there ticks are read in place
+     * until the first one at or after {@code toMicros}.
+     *
+     * @return the number of ticks passed
+     */
+    long scan(Long tradingPairId, long fromMicros, long toMicros, TickView view, Consumer<TickView> consumer) {
+        int n = count;
+        long matched = 0;
+        for (int i = firstIndexed(fromMicros, n); i < n; i++) {
+            int offset = offset(i);
+            long recordedMicros = buffer.getLong(offset + RECORDED_AT);
+            if (recordedMicros >= toMicros) {
+                break;
+            }
+            if (recordedMicros >= fromMicros
+                    && (tradingPairId == null || buffer.getLong(offset + PAIR_ID) == tradingPairId)) {
+                consumer.accept(view.at(buffer, offset));
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Forces appended ticks to disk. The mapping itself is released when the segment is garbage collected.
+     */
+    @Override
+    public void close() {
+        if (writable) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * The first record of the last index stride starting before {@code fromMicros}.
+     */
+    private int firstIndexed(long fromMicros, int n) {
+        int low = 0;
+        int high = (n + indexStride - 1) / indexStride - 1;
+        int found = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (index[mid] < fromMicros) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found * indexStride;
+    }
+
+    private static int offset(int record) {
+        return HEADER_BYTES + record * RECORD_BYTES;
+    }
+
+    /**
+     * Packs a venue name of up to 8 ASCII characters into a long, first character in the high byte; longer names are
+     * cut off.
+     */
+    static long encodeVenue(String venue) {
+        if (venue == null) {
+            return 0;
+        }
+        byte[] bytes = venue.getBytes(StandardCharsets.US_ASCII);
+        long code = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            code = (code << 8) | (i < bytes.length ? bytes[i] & 0xFF : 0);
+        }
+        return code;
+    }
+
+    static String decodeVenue(long code) {
+        if (code == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[Long.BYTES];
+        int length = 0;
+        for (int shift = 56; shift >= 0 && (code >>> shift & 0xFF) != 0; shift -= 8) {
+            bytes[length++] = (byte) (code >>> shift);
+        }
+        return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+    }
+}
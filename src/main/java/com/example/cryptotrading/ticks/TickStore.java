@@ -0,0 +1,230 @@
+package com.example.cryptotrading.ticks;
+
+import com.example.cryptotrading.config.TickStoreProperties;
+import com.example.cryptotrading.domain.PriceSnapshot;
+import com.example.cryptotrading.service.PriceListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps every best bid/ask the {@link com.example.cryptotrading.service.PriceBook PriceBook} accepts in append-only,
+ * memory-mapped segment files, one or more per UTC day, instead of in the database. Ticks are stamped with a recorded
+ * time that never decreases, so each segment is sorted by it and a range query only has to find its start through
+ * the segment's sparse index and read forward in place.
+ * <p>
+ * Retention deletes whole segments of days past {@code price.ticks.retention-days}; nothing is ever rewritten.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "price.ticks", name = "enabled", havingValue = "true")
+public class TickStore implements PriceListener, SmartLifecycle {
+
+    private static final String SEGMENT_GLOB = "ticks-*.seg";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("ticks-(\\d{4}-\\d{2}-\\d{2})-(\\d{3})\\.seg");
+    private static final long MICROS_PER_DAY = ChronoUnit.DAYS.getDuration().toNanos() / 1_000;
+
+    private final TickStoreProperties properties;
+    private final Clock clock;
+    private final List<TickSegment> segments = new CopyOnWriteArrayList<>();
+
+    private TickSegment active;
+    private int activeSequence;
+    private long lastRecordedMicros = Long.MIN_VALUE;
+    private volatile boolean running;
+
+    @Autowired
+    public TickStore(TickStoreProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    TickStore(TickStoreProperties properties, Clock clock) {
+        if (properties.getSegmentCapacity() < 1 || properties.getSegmentCapacity() > TickSegment.MAX_CAPACITY) {
+            throw new IllegalArgumentException("price.ticks.segment-capacity must be between 1 and "
+                    + TickSegment.MAX_CAPACITY);
+        }
+        if (properties.getIndexStride() < 1) {
+            throw new IllegalArgumentException("price.ticks.index-stride must be positive");
+        }
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    @Override
+    public void onPrice(PriceSnapshot snapshot) {
+        if (snapshot.updatedAt() == null) {
+            return;
+        }
+        try {
+            append(snapshot);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to store tick of {}: {}", snapshot.symbol(), e.getMessage());
+        }
+    }
+
+    /**
+     * Passes every tick recorded in {@code [from, to)}, of the pair unless it is {@code null}, to the consumer in
+     * recorded order. The {@link TickView} reads straight from the mapped segment and is reused for the next tick.
+     *
+     * @return the number of ticks passed
+     */
+    public long scan(Long tradingPairId, Instant from, Instant to, Consumer<TickView> consumer) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        long fromMicros = micros(from);
+        long toMicros = micros(to);
+        LocalDate firstDay = day(fromMicros);
+        LocalDate lastDay = day(toMicros - 1);
+        TickView view = new TickView();
+        long matched = 0;
+        for (TickSegment segment : segments) {
+            if (!segment.day().isBefore(firstDay) && !segment.day().isAfter(lastDay)) {
+                matched += segment.scan(tradingPairId, fromMicros, toMicros, view, consumer);
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Deletes the segments of days more than {@code price.ticks.retention-days} before today.
+     */
+    @Scheduled(fixedDelayString = "${price.ticks.retention-check-interval:1h}")
+    public void applyRetention() {
+        dropBefore(LocalDate.now(clock.withZone(ZoneOffset.UTC)).minusDays(properties.getRetentionDays()));
+    }
+
+    /**
+     * Deletes the segments of days before {@code day}, except the one being appended to. A scan already reading a
+     * deleted segment finishes on its mapping.
+     *
+     * @return the number of segments deleted
+     */
+    public synchronized int dropBefore(LocalDate day) {
+        int dropped = 0;
+        for (TickSegment segment : segments) {
+            if (segment.day().isBefore(day) && segment != active) {
+                segments.remove(segment);
+                segment.close();
+                try {
+                    Files.deleteIfExists(segment.path());
+                    dropped++;
+                } catch (IOException e) {
+                    log.warn("Failed to delete tick segment {}: {}", segment.path(), e.getMessage());
+                }
+            }
+        }
+        if (dropped > 0) {
+            log.info("Deleted {} tick segments before {}", dropped, day);
+        }
+        return dropped;
+    }
+
+    @Override
+    public synchronized void start() {
+        try {
+            Files.createDirectories(properties.getDir());
+            List<Path> paths = new ArrayList<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(properties.getDir(), SEGMENT_GLOB)) {
+                for (Path path : files) {
+                    if (SEGMENT_NAME.matcher(path.getFileName().toString()).matches()) {
+                        paths.add(path);
+                    }
+                }
+            }
+            // names sort by day, then sequence
+            paths.sort(null);
+            for (int i = 0; i < paths.size(); i++) {
+                boolean last = i == paths.size() - 1;
+                TickSegment segment = TickSegment.open(paths.get(i), properties.getIndexStride(), last);
+                segments.add(segment);
+                lastRecordedMicros = Math.max(lastRecordedMicros, segment.lastRecordedMicros());
+                if (last) {
+                    active = segment;
+                    Matcher name = SEGMENT_NAME.matcher(segment.path().getFileName().toString());
+                    activeSequence = name.matches() ? Integer.parseInt(name.group(2)) : 0;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the tick store", e);
+        }
+        running = true;
+        log.info("Tick store started with {} segments in {}", segments.size(), properties.getDir().toAbsolutePath());
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        for (TickSegment segment : segments) {
+            segment.close();
+        }
+        segments.clear();
+        active = null;
+        log.info("Tick store stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private synchronized void append(PriceSnapshot snapshot) throws IOException {
+        if (!running) {
+            return;
+        }
+        long recordedMicros = Math.max(micros(clock.instant()), lastRecordedMicros);
+        LocalDate day = day(recordedMicros);
+        if (active == null || !active.day().equals(day) || active.isFull()) {
+            roll(day);
+        }
+        active.append(
+                recordedMicros,
+                micros(snapshot.updatedAt().atZone(ZoneId.systemDefault()).toInstant()),
+                snapshot.tradingPairId(),
+                snapshot.bidPrice().units(),
+                snapshot.askPrice().units(),
+                TickSegment.encodeVenue(snapshot.bidExchange()),
+                TickSegment.encodeVenue(snapshot.askExchange()));
+        lastRecordedMicros = recordedMicros;
+    }
+
+    private void roll(LocalDate day) throws IOException {
+        if (active != null) {
+            active.close();
+        }
+        activeSequence = active != null && active.day().equals(day) ? activeSequence + 1 : 0;
+        Path path = properties.getDir().resolve("ticks-%s-%03d.seg".formatted(day, activeSequence));
+        active = TickSegment.create(path, day, properties.getSegmentCapacity(), properties.getIndexStride());
+        segments.add(active);
+        log.debug("Started tick segment {}", path);
+    }
+
+    private static long micros(Instant instant) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    private static LocalDate day(long micros) {
+        return LocalDate.ofEpochDay(Math.floorDiv(micros, MICROS_PER_DAY));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.cryptotrading.ticks;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Reads one tick in place from a segment's mapped buffer. A scan moves the same view from tick to tick, so it is only
+ * valid inside the callback it was passed to; copy out what must outlive it.
+ */
+public final class TickView {
+
+    private ByteBuffer buffer;
+    private int offset;
+
+    TickView() {
+    }
+
+    TickView at(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * When the tick was appended, in microseconds since the epoch. Never decreases across the store; range queries
+     * select on it.
+     */
+    public long recordedMicros() {
+        return buffer.getLong(offset + TickSegment.RECORDED_AT);
+    }
+
+    /**
+     * When the aggregated price was last confirmed, in microseconds since the epoch.
+     */
+    public long priceMicros() {
+        return buffer.getLong(offset + TickSegment.PRICE_TIME);
+    }
+
+    public long tradingPairId() {
+        return buffer.getLong(offset + TickSegment.PAIR_ID);
+    }
+
+    public long bidUnits() {
+        return buffer.getLong(offset + TickSegment.BID);
+    }
+
+    public long askUnits() {
+        return buffer.getLong(offset + TickSegment.ASK);
+    }
+
+    public String bidExchange() {
+        return TickSegment.decodeVenue(buffer.getLong(offset + TickSegment.BID_VENUE));
+    }
+
+    public String askExchange() {
+        return TickSegment.decodeVenue(buffer.getLong(offset + TickSegment.ASK_VENUE));
+    }
+
+    public Instant recordedAt() {
+        return Instant.EPOCH.plus(recordedMicros(), ChronoUnit.MICROS);
+    }
+
+    public Instant priceTime() {
+        return Instant.EPOCH.plus(priceMicros(), ChronoUnit.MICROS);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.cryptotrading.util;
 
+import com.example.cryptotrading.domain.Amount;
 import lombok.experimental.UtilityClass;
 
 import java.math.BigDecimal;
@@ -17,5 +18,9 @@ public class AmountFormatUtil {
         }
         return amount.setScale(SCALE, RoundingMode.DOWN).toPlainString();
     }
+
+    public static String format(Amount amount) {
+        return amount == null ? ZERO_FORMATTED : amount.toString();
+    }
 }
 
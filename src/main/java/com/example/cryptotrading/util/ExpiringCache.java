@@ -0,0 +1,127 @@
+package com.example.cryptotrading.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Bounded map whose entries expire a fixed time after they are created. {@link #computeIfAbsent} coalesces
+ * concurrent callers: the first computes the value, the others wait for its result. A failed computation is not
+ * cached, so the next caller tries again.
+ * <p>
+ * Entries are kept in creation order, which with a single time-to-live is also expiry order, so expired entries and
+ * the oldest entries beyond the bound are both removed from the head.
+ */
+public class ExpiringCache<K, V> {
+
+    private final Duration timeToLive;
+    private final int maxEntries;
+    private final Clock clock;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>();
+
+    public ExpiringCache(Duration timeToLive, int maxEntries) {
+        this(timeToLive, maxEntries, Clock.systemUTC());
+    }
+
+    public ExpiringCache(Duration timeToLive, int maxEntries, Clock clock) {
+        this.timeToLive = timeToLive;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    public V computeIfAbsent(K key, Supplier<V> loader) {
+        CompletableFuture<V> result;
+        boolean owner = false;
+        synchronized (entries) {
+            long now = clock.millis();
+            evict(now);
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry<>(new CompletableFuture<>(), now + timeToLive.toMillis());
+                entries.put(key, entry);
+                owner = true;
+            }
+            result = entry.value();
+        }
+
+        if (owner) {
+            try {
+                V value = loader.get();
+                result.complete(value);
+                return value;
+            } catch (RuntimeException e) {
+                remove(key, result);
+                result.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public void put(K key, V value) {
+        synchronized (entries) {
+            long now = clock.millis();
+            evict(now);
+            // re-inserted so that creation order stays expiry order
+            entries.remove(key);
+            entries.put(key, new Entry<>(CompletableFuture.completedFuture(value), now + timeToLive.toMillis()));
+        }
+    }
+
+    /**
+     * Removes and returns the value for {@code key}; null when there is none, it has expired or it is still being
+     * computed.
+     */
+    public V remove(K key) {
+        synchronized (entries) {
+            evict(clock.millis());
+            Entry<V> entry = entries.get(key);
+            if (entry == null || !entry.value().isDone() || entry.value().isCompletedExceptionally()) {
+                return null;
+            }
+            entries.remove(key);
+            return entry.value().join();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void remove(K key, CompletableFuture<V> value) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.value() == value) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    private void evict(long now) {
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry<V> entry = iterator.next().getValue();
+            if (entry.expiresAt() > now && entries.size() < maxEntries) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    private record Entry<V>(CompletableFuture<V> value, long expiresAt) {
+    }
+}
@@ -18,3 +18,6 @@ INSERT INTO crypto_user (id, username, ctl_act, ctl_tcn, ctl_cre_ts, ctl_cre_uid
 INSERT INTO crypto_wallet (id, user_id, currency_id, balance, ctl_act, ctl_tcn, ctl_cre_ts, ctl_cre_uid) VALUES (1, 1, 3, 50000.00000000, true, 0, CURRENT_TIMESTAMP, 'system-auto');
 INSERT INTO crypto_wallet (id, user_id, currency_id, balance, ctl_act, ctl_tcn, ctl_cre_ts, ctl_cre_uid) VALUES (2, 1, 1, 0.00000000, true, 0, CURRENT_TIMESTAMP, 'system-auto');
 INSERT INTO crypto_wallet (id, user_id, currency_id, balance, ctl_act, ctl_tcn, ctl_cre_ts, ctl_cre_uid) VALUES (3, 1, 2, 0.00000000, true, 0, CURRENT_TIMESTAMP, 'system-auto');
+
+-- Demo user trade counter, kept in step with crypto_trade by the trade path
+INSERT INTO crypto_trade_counter (user_id, trade_count, ctl_act, ctl_tcn, ctl_cre_ts, ctl_cre_uid) VALUES (1, 0, true, 0, CURRENT_TIMESTAMP, 'system-auto');
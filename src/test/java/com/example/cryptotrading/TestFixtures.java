@@ -1,7 +1,9 @@
 package com.example.cryptotrading;
 
-import com.example.cryptotrading.client.BinanceClient.BookTicker;
+import com.example.cryptotrading.client.BookTicker;
+import com.example.cryptotrading.domain.Amount;
 import com.example.cryptotrading.domain.OrderSideCodeEnum;
+import com.example.cryptotrading.domain.PriceSnapshot;
 import com.example.cryptotrading.entity.AggregatedPriceEntity;
 import com.example.cryptotrading.entity.CurrencyEntity;
 import com.example.cryptotrading.entity.OrderSideEntity;
@@ -98,29 +100,27 @@ public final class TestFixtures {
     // Aggregated price entities
     public static AggregatedPriceEntity btcAggregatedPrice() {
         AggregatedPriceEntity price = new AggregatedPriceEntity(
-                btcusdtPair(), BTC_BID, BTC_ASK, BINANCE, HUOBI);
+                btcusdtPair(), Amount.of(BTC_BID), Amount.of(BTC_ASK), BINANCE, HUOBI);
         LocalDateTime now = LocalDateTime.now();
         price.setCtlCreTs(now);
         price.setLastCheckedAt(now);
         return price;
     }
 
-    public static AggregatedPriceEntity ethAggregatedPrice() {
-        AggregatedPriceEntity price = new AggregatedPriceEntity(
-                ethusdtPair(), ETH_BID, ETH_ASK, HUOBI, BINANCE);
-        LocalDateTime now = LocalDateTime.now();
-        price.setCtlCreTs(now);
-        price.setLastCheckedAt(now);
-        return price;
+    // Price book snapshots
+    public static PriceSnapshot btcPriceSnapshot() {
+        return new PriceSnapshot(BTCUSDT_PAIR_ID, BTCUSDT, Amount.of(BTC_BID), Amount.of(BTC_ASK), BINANCE, HUOBI,
+                LocalDateTime.now());
     }
 
-    public static AggregatedPriceEntity staleBtcPrice() {
-        AggregatedPriceEntity price = new AggregatedPriceEntity(
-                btcusdtPair(), BTC_BID, BTC_ASK, BINANCE, HUOBI);
-        LocalDateTime stale = LocalDateTime.now().minusSeconds(60);
-        price.setCtlCreTs(stale);
-        price.setLastCheckedAt(stale);
-        return price;
+    public static PriceSnapshot ethPriceSnapshot() {
+        return new PriceSnapshot(ETHUSDT_PAIR_ID, ETHUSDT, Amount.of(ETH_BID), Amount.of(ETH_ASK), HUOBI, BINANCE,
+                LocalDateTime.now());
+    }
+
+    public static PriceSnapshot staleBtcPriceSnapshot() {
+        return new PriceSnapshot(BTCUSDT_PAIR_ID, BTCUSDT, Amount.of(BTC_BID), Amount.of(BTC_ASK), BINANCE, HUOBI,
+                LocalDateTime.now().minusSeconds(60));
     }
 
     public static BookTicker btcBinanceTicker() {
@@ -0,0 +1,98 @@
+package com.example.cryptotrading.client;
+
+import com.example.cryptotrading.config.ExchangeProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.example.cryptotrading.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class BinanceClientTest {
+
+    private static final String BASE_URL = "http://binance.test";
+
+    private RestTemplate restTemplate;
+    private MockRestServiceServer server;
+    private ExchangeProperties properties;
+    private BinanceClient client;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        properties = new ExchangeProperties();
+        ExchangeProperties.Venue venue = new ExchangeProperties.Venue();
+        venue.setBaseUrl(BASE_URL);
+        venue.setMaxScopedSymbols(2);
+        properties.getExchanges().put("binance", venue);
+        client = new BinanceClient(restTemplate, properties);
+    }
+
+    @Test
+    void getBookTickers_smallPairSet_requestsOnlyThoseSymbols() {
+        server.expect(requestTo(BASE_URL + "/api/v3/ticker/bookTicker?symbols=%5B%22BTCUSDT%22,%22ETHUSDT%22%5D"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("""
+                        [{"symbol":"BTCUSDT","bidPrice":"50000.00","askPrice":"50100.00"},
+                         {"symbol":"ETHUSDT","bidPrice":"3000.00","askPrice":"3010.00"}]
+                        """, MediaType.APPLICATION_JSON));
+
+        Map<String, BookTicker> tickers = client.getBookTickers(ALL_SYMBOLS);
+
+        server.verify();
+        assertEquals(new BookTicker(new BigDecimal("50000.00"), new BigDecimal("50100.00")), tickers.get(BTCUSDT));
+        assertEquals(2, tickers.size());
+    }
+
+    @Test
+    void getBookTickers_largePairSet_fallsBackToFullMarket() {
+        server.expect(requestTo(BASE_URL + "/api/v3/ticker/bookTicker"))
+                .andRespond(withSuccess("""
+                        [{"symbol":"BTCUSDT","bidPrice":"50000.00","askPrice":"50100.00"},
+                         {"symbol":"LTCUSDT","bidPrice":"70.00","askPrice":"70.10"}]
+                        """, MediaType.APPLICATION_JSON));
+
+        Map<String, BookTicker> tickers = client.getBookTickers(Set.of(BTCUSDT, ETHUSDT, "XRPUSDT"));
+
+        server.verify();
+        assertEquals(Set.of(BTCUSDT), tickers.keySet());
+    }
+
+    @Test
+    void getBookTickers_unlistedSymbol_fallsBackToFullMarketAndStaysThere() throws IOException {
+        try (ExchangeStubServer stub = new ExchangeStubServer("""
+                [{"symbol":"BTCUSDT","bidPrice":"50000.00","askPrice":"50100.00"},
+                 {"symbol":"LTCUSDT","bidPrice":"70.00","askPrice":"70.10"}]
+                """)) {
+            stub.enqueue(ExchangeStubServer.Reply.status(400, """
+                    {"code":-1121,"msg":"Invalid symbol."}
+                    """));
+            properties.venue("binance").setBaseUrl(stub.baseUrl());
+            BinanceClient stubClient = new BinanceClient(new RestTemplate(), properties);
+
+            Map<String, BookTicker> tickers = stubClient.getBookTickers(Set.of(BTCUSDT, "HTXONLY"));
+            Map<String, BookTicker> next = stubClient.getBookTickers(Set.of(BTCUSDT, "HTXONLY"));
+
+            assertEquals(Set.of(BTCUSDT), tickers.keySet());
+            assertEquals(Set.of(BTCUSDT), next.keySet());
+            List<String> uris = stub.requestUris();
+            assertEquals(3, uris.size());
+            assertTrue(uris.get(0).contains("symbols="));
+            assertEquals(List.of("/api/v3/ticker/bookTicker", "/api/v3/ticker/bookTicker"), uris.subList(1, 3));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.cryptotrading.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+
+import static com.example.cryptotrading.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookTickerDecoderTest {
+
+    private static InputStream json(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void decodeBinance_keepsOnlyActiveSymbols() throws IOException {
+        String body = """
+                [
+                  {"symbol":"LTCBTC","bidPrice":"0.00100000","bidQty":"1.0","askPrice":"0.00110000","askQty":"2.0"},
+                  {"symbol":"BTCUSDT","bidPrice":"50000.01000000","bidQty":"1.5","askPrice":"50000.02000000","askQty":"0.3"},
+                  {"symbol":"ETHUSDT","bidPrice":"3000.10000000","bidQty":"9.0","askPrice":"3000.20000000","askQty":"4.0"}
+                ]
+                """;
+
+        Map<String, BookTicker> tickers = BookTickerDecoder.decodeBinance(json(body), ALL_SYMBOLS);
+
+        assertEquals(2, tickers.size());
+        assertEquals(new BookTicker(new BigDecimal("50000.01000000"), new BigDecimal("50000.02000000")),
+                tickers.get(BTCUSDT));
+        assertEquals(new BookTicker(new BigDecimal("3000.10000000"), new BigDecimal("3000.20000000")),
+                tickers.get(ETHUSDT));
+    }
+
+    @Test
+    void decodeBinance_pricesBeforeSymbol_andNestedValues() throws IOException {
+        String body = """
+                [
+                  {"bidPrice":"1.1","askPrice":"1.2","symbol":"DOGEUSDT","extra":{"a":[1,2,{"b":3}]}},
+                  {"bidPrice":"49999.5","extra":[{"symbol":"ETHUSDT"}],"askPrice":"50001","symbol":"BTCUSDT"}
+                ]
+                """;
+
+        Map<String, BookTicker> tickers = BookTickerDecoder.decodeBinance(json(body), ALL_SYMBOLS);
+
+        assertEquals(Map.of(BTCUSDT, new BookTicker(new BigDecimal("49999.5"), new BigDecimal("50001"))), tickers);
+    }
+
+    @Test
+    void decodeHuobi_readsDataArray_caseInsensitively() throws IOException {
+        String body = """
+                {
+                  "status":"ok",
+                  "ts":1700000000000,
+                  "data":[
+                    {"symbol":"btcusdt","open":49000.0,"bid":50050.5,"bidSize":0.1,"ask":50080.25,"askSize":0.2},
+                    {"symbol":"xrpusdt","open":0.5,"bid":0.51,"bidSize":100,"ask":0.52,"askSize":100}
+                  ]
+                }
+                """;
+
+        Map<String, BookTicker> tickers = BookTickerDecoder.decodeHuobi(json(body), Set.of(BTCUSDT));
+
+        assertEquals(Map.of(BTCUSDT, new BookTicker(new BigDecimal("50050.5"), new BigDecimal("50080.25"))), tickers);
+    }
+
+    @Test
+    void decodeHuobi_errorEnvelope_returnsEmpty() throws IOException {
+        String body = """
+                {"status":"error","err-code":"invalid-parameter","err-msg":"invalid symbol"}
+                """;
+
+        assertTrue(BookTickerDecoder.decodeHuobi(json(body), ALL_SYMBOLS).isEmpty());
+    }
+}
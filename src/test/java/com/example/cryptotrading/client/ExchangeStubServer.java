@@ -0,0 +1,105 @@
+package com.example.cryptotrading.client;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local venue stub answering every request with a fixed body. Each request takes the next scripted {@link Reply}
+ * (latency, status and optionally its own body), falling back to the default reply once the script is used up.
+ */
+class ExchangeStubServer implements AutoCloseable {
+
+    record Reply(long delayMillis, int status, String body) {
+
+        static Reply ok(long delayMillis) {
+            return new Reply(delayMillis, 200, null);
+        }
+
+        static Reply status(int status) {
+            return new Reply(0, status, null);
+        }
+
+        static Reply status(int status, String body) {
+            return new Reply(0, status, body);
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Queue<Reply> script = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final Queue<String> requestUris = new ConcurrentLinkedQueue<>();
+    private volatile Reply defaultReply = Reply.ok(0);
+
+    ExchangeStubServer(String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            requestUris.add(exchange.getRequestURI().toString());
+            Reply reply = script.poll();
+            if (reply == null) {
+                reply = defaultReply;
+            }
+            try {
+                Thread.sleep(reply.delayMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            byte[] replyBytes = reply.body() != null ? reply.body().getBytes(StandardCharsets.UTF_8) : bytes;
+            if (reply.status() != 200 && reply.body() == null) {
+                exchange.sendResponseHeaders(reply.status(), -1);
+                exchange.close();
+                return;
+            }
+            exchange.sendResponseHeaders(reply.status(), replyBytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(replyBytes);
+            } catch (IOException ignored) {
+                // client gave up on this request
+            }
+        });
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    void enqueue(Reply... replies) {
+        script.addAll(List.of(replies));
+    }
+
+    void setDefaultReply(Reply reply) {
+        this.defaultReply = reply;
+    }
+
+    int requestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Path and raw query of every request received, oldest first.
+     */
+    List<String> requestUris() {
+        return List.copyOf(requestUris);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.cryptotrading.client;
+
+import com.example.cryptotrading.config.ExchangeProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.example.cryptotrading.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GuardedExchangeClientTest {
+
+    private static final String BODY = """
+            [{"symbol":"BTCUSDT","bidPrice":"50000.00","askPrice":"50100.00"}]
+            """;
+
+    private ExchangeStubServer stub;
+    private ExecutorService executor;
+    private SimpleMeterRegistry meterRegistry;
+    private ExchangeProperties.Venue venue;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = new ExchangeStubServer(BODY);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        meterRegistry = new SimpleMeterRegistry();
+        venue = new ExchangeProperties.Venue();
+        venue.setBaseUrl(stub.baseUrl());
+        venue.getBreaker().setFailureThreshold(3);
+        venue.getBreaker().setOpenDuration(Duration.ofMillis(200));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+        executor.shutdownNow();
+    }
+
+    private GuardedExchangeClient newClient() {
+        ExchangeProperties properties = new ExchangeProperties();
+        properties.getExchanges().put("binance", venue);
+        BinanceClient binance = new BinanceClient(new RestTemplate(), properties);
+        return new GuardedExchangeClient(binance, venue, executor, meterRegistry);
+    }
+
+    @Test
+    void breaker_opensAfterConsecutiveFailures_andSkipsVenue() {
+        stub.setDefaultReply(ExchangeStubServer.Reply.status(500));
+        GuardedExchangeClient client = newClient();
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(HttpServerErrorException.class, () -> client.getBookTickers(Set.of(BTCUSDT)));
+        }
+        assertThrows(CircuitOpenException.class, () -> client.getBookTickers(Set.of(BTCUSDT)));
+
+        assertEquals(3, stub.requestCount());
+        assertEquals(CircuitBreaker.State.OPEN, client.breakerState());
+        assertEquals(2.0, meterRegistry.get(GuardedExchangeClient.BREAKER_STATE_GAUGE)
+                .tag("exchange", BINANCE).gauge().value());
+        assertEquals(1.0, meterRegistry.get(GuardedExchangeClient.BREAKER_REJECTED_COUNTER)
+                .tag("exchange", BINANCE).counter().count());
+    }
+
+    @Test
+    void breaker_halfOpenProbeSucceeds_closes() throws InterruptedException {
+        stub.enqueue(ExchangeStubServer.Reply.status(500), ExchangeStubServer.Reply.status(500),
+                ExchangeStubServer.Reply.status(500));
+        GuardedExchangeClient client = newClient();
+        for (int i = 0; i < 3; i++) {
+            assertThrows(HttpServerErrorException.class, () -> client.getBookTickers(Set.of(BTCUSDT)));
+        }
+
+        Thread.sleep(250);
+        Map<String, BookTicker> tickers = client.getBookTickers(Set.of(BTCUSDT));
+
+        assertEquals(1, tickers.size());
+        assertEquals(CircuitBreaker.State.CLOSED, client.breakerState());
+    }
+
+    @Test
+    void breaker_halfOpenProbeFails_reopens() throws InterruptedException {
+        stub.setDefaultReply(ExchangeStubServer.Reply.status(503));
+        GuardedExchangeClient client = newClient();
+        for (int i = 0; i < 3; i++) {
+            assertThrows(HttpServerErrorException.class, () -> client.getBookTickers(Set.of(BTCUSDT)));
+        }
+
+        Thread.sleep(250);
+        assertThrows(HttpServerErrorException.class, () -> client.getBookTickers(Set.of(BTCUSDT)));
+
+        assertEquals(CircuitBreaker.State.OPEN, client.breakerState());
+        assertThrows(CircuitOpenException.class, () -> client.getBookTickers(Set.of(BTCUSDT)));
+        assertEquals(4, stub.requestCount());
+    }
+
+    @Test
+    void hedge_slowFirstRequest_fasterHedgeWins() {
+        venue.getHedge().setEnabled(true);
+        venue.getHedge().setMinDelay(Duration.ofMillis(50));
+        stub.enqueue(ExchangeStubServer.Reply.ok(3000));
+        GuardedExchangeClient client = newClient();
+
+        long start = System.nanoTime();
+        Map<String, BookTicker> tickers = client.getBookTickers(Set.of(BTCUSDT));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertEquals(1, tickers.size());
+        assertTrue(elapsedMillis < 1500, "waited " + elapsedMillis + " ms for the slow request");
+        assertEquals(2, stub.requestCount());
+        assertEquals(1.0, meterRegistry.get(GuardedExchangeClient.HEDGE_COUNTER)
+                .tags("exchange", BINANCE, "outcome", "won").counter().count());
+    }
+
+    @Test
+    void hedge_fastVenue_isNotAskedTwice() {
+        venue.getHedge().setEnabled(true);
+        venue.getHedge().setMinDelay(Duration.ofMillis(500));
+        GuardedExchangeClient client = newClient();
+
+        client.getBookTickers(Set.of(BTCUSDT));
+        client.getBookTickers(Set.of(BTCUSDT));
+
+        assertEquals(2, stub.requestCount());
+        assertEquals(0.0, meterRegistry.get(GuardedExchangeClient.HEDGE_COUNTER)
+                .tags("exchange", BINANCE, "outcome", "sent").counter().count());
+    }
+}
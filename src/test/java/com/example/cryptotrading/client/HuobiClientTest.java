@@ -0,0 +1,94 @@
+package com.example.cryptotrading.client;
+
+import com.example.cryptotrading.config.ExchangeProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.example.cryptotrading.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class HuobiClientTest {
+
+    private static final String BASE_URL = "http://huobi.test";
+
+    private MockRestServiceServer server;
+    private ExecutorService executor;
+    private HuobiClient client;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+        ExchangeProperties properties = new ExchangeProperties();
+        ExchangeProperties.Venue venue = new ExchangeProperties.Venue();
+        venue.setBaseUrl(BASE_URL);
+        venue.setMaxScopedSymbols(2);
+        properties.getExchanges().put("huobi", venue);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        client = new HuobiClient(restTemplate, properties, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static String merged(String symbol, String bid, String ask) {
+        return """
+                {"ch":"market.%s.detail.merged","status":"ok","ts":1700000000000,
+                 "tick":{"id":1,"open":1.0,"close":1.0,"bid":[%s,0.5],"ask":[%s,0.7],"count":10}}
+                """.formatted(symbol, bid, ask);
+    }
+
+    @Test
+    void getBookTickers_smallPairSet_fansOutMergedTickerCalls() {
+        server.expect(requestTo(BASE_URL + "/market/detail/merged?symbol=btcusdt"))
+                .andRespond(withSuccess(merged("btcusdt", "50050.5", "50080.25"), MediaType.APPLICATION_JSON));
+        server.expect(requestTo(BASE_URL + "/market/detail/merged?symbol=ethusdt"))
+                .andRespond(withSuccess(merged("ethusdt", "2990", "3005"), MediaType.APPLICATION_JSON));
+
+        Map<String, BookTicker> tickers = client.getBookTickers(ALL_SYMBOLS);
+
+        server.verify();
+        assertEquals(new BookTicker(new BigDecimal("50050.5"), new BigDecimal("50080.25")), tickers.get(BTCUSDT));
+        assertEquals(new BookTicker(new BigDecimal("2990"), new BigDecimal("3005")), tickers.get(ETHUSDT));
+    }
+
+    @Test
+    void getBookTickers_oneSymbolFails_returnsTheOthers() {
+        server.expect(requestTo(BASE_URL + "/market/detail/merged?symbol=btcusdt"))
+                .andRespond(withServerError());
+        server.expect(requestTo(BASE_URL + "/market/detail/merged?symbol=ethusdt"))
+                .andRespond(withSuccess(merged("ethusdt", "2990", "3005"), MediaType.APPLICATION_JSON));
+
+        Map<String, BookTicker> tickers = client.getBookTickers(ALL_SYMBOLS);
+
+        assertEquals(Set.of(ETHUSDT), tickers.keySet());
+    }
+
+    @Test
+    void getBookTickers_largePairSet_fallsBackToFullMarket() {
+        server.expect(requestTo(BASE_URL + "/market/tickers"))
+                .andRespond(withSuccess("""
+                        {"status":"ok","data":[{"symbol":"btcusdt","bid":50050.5,"ask":50080.25}]}
+                        """, MediaType.APPLICATION_JSON));
+
+        Map<String, BookTicker> tickers = client.getBookTickers(Set.of(BTCUSDT, ETHUSDT, "XRPUSDT"));
+
+        server.verify();
+        assertEquals(Set.of(BTCUSDT), tickers.keySet());
+    }
+}
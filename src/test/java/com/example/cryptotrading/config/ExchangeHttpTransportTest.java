@@ -0,0 +1,111 @@
+package com.example.cryptotrading.config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExchangeHttpTransportTest {
+
+    private static final String BODY = "[{\"symbol\":\"BTCUSDT\",\"bidPrice\":\"50000.00\",\"askPrice\":\"50100.00\"}]";
+
+    private final List<Integer> clientPorts = new CopyOnWriteArrayList<>();
+    private final List<String> acceptEncodings = new CopyOnWriteArrayList<>();
+
+    private HttpServer server;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ticker", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            acceptEncodings.add(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            byte[] body = gzip(BODY);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        AppConfig config = new AppConfig();
+        ExchangeHttpProperties properties = new ExchangeHttpProperties();
+        connectionManager = config.exchangeConnectionManager(properties);
+        httpClient = config.exchangeHttpClient(connectionManager, properties);
+        restTemplate = config.restTemplate(new RestTemplateBuilder(), httpClient);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        connectionManager.close();
+        server.stop(0);
+    }
+
+    @Test
+    void requestsCompressionAndDecodesGzipBody() {
+        String body = restTemplate.getForObject(url(), String.class);
+
+        assertEquals(BODY, body);
+        assertNotNull(acceptEncodings.get(0));
+        assertTrue(acceptEncodings.get(0).contains("gzip"), acceptEncodings.get(0));
+    }
+
+    @Test
+    void reusesConnectionAcrossRequests() {
+        restTemplate.getForObject(url(), String.class);
+        restTemplate.getForObject(url(), String.class);
+        restTemplate.getForObject(url(), String.class);
+
+        assertEquals(3, clientPorts.size());
+        assertEquals(1, clientPorts.stream().distinct().count(), "expected one kept-alive connection: " + clientPorts);
+    }
+
+    @Test
+    void exposesPoolMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new AppConfig().exchangeConnectionPoolMetrics(connectionManager).bindTo(registry);
+
+        restTemplate.getForObject(url(), String.class);
+
+        assertEquals(1.0, registry.get("httpcomponents.httpclient.pool.total.connections")
+                .tag("httpclient", "exchange").tag("state", "available").gauge().value());
+        assertEquals(10.0, registry.get("httpcomponents.httpclient.pool.route.max.default")
+                .tag("httpclient", "exchange").gauge().value());
+    }
+
+    private String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/ticker";
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -1,10 +1,15 @@
 package com.example.cryptotrading.controller;
 
+import com.example.cryptotrading.domain.Amount;
 import com.example.cryptotrading.entity.AggregatedPriceEntity;
 import com.example.cryptotrading.repository.AggregatedPriceRepository;
+import com.example.cryptotrading.repository.PositionRepository;
 import com.example.cryptotrading.repository.TradingPairRepository;
+import com.example.cryptotrading.repository.TradeCounterRepository;
 import com.example.cryptotrading.repository.TradeRepository;
 import com.example.cryptotrading.repository.WalletRepository;
+import com.example.cryptotrading.service.PriceService;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,15 +18,27 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
 
 import static com.example.cryptotrading.TestFixtures.*;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -40,12 +57,23 @@ class TradeControllerIntegrationTest {
     @Autowired
     private TradeRepository tradeRepository;
 
+    @Autowired
+    private TradeCounterRepository tradeCounterRepository;
+
+    @Autowired
+    private PositionRepository positionRepository;
+
     @Autowired
     private WalletRepository walletRepository;
 
+    @Autowired
+    private PriceService priceService;
+
     @BeforeEach
     void setUp() {
         tradeRepository.deleteAll();
+        tradeCounterRepository.deleteAll();
+        positionRepository.deleteAll();
         priceRepository.deleteAll();
 
         resetWalletBalance(USDT, new BigDecimal("50000.00000000"));
@@ -55,20 +83,22 @@ class TradeControllerIntegrationTest {
         var btcPair = tradingPairRepository.findById(BTCUSDT_PAIR_ID).orElseThrow();
         var ethPair = tradingPairRepository.findById(ETHUSDT_PAIR_ID).orElseThrow();
 
-        var btcPrice = new AggregatedPriceEntity(btcPair, BTC_BID, BTC_ASK, BINANCE, HUOBI);
+        var btcPrice = new AggregatedPriceEntity(btcPair, Amount.of(BTC_BID), Amount.of(BTC_ASK), BINANCE, HUOBI);
         btcPrice.setCtlCreTs(LocalDateTime.now());
         btcPrice.setLastCheckedAt(LocalDateTime.now());
         priceRepository.save(btcPrice);
 
-        var ethPrice = new AggregatedPriceEntity(ethPair, ETH_BID, ETH_ASK, HUOBI, BINANCE);
+        var ethPrice = new AggregatedPriceEntity(ethPair, Amount.of(ETH_BID), Amount.of(ETH_ASK), HUOBI, BINANCE);
         ethPrice.setCtlCreTs(LocalDateTime.now());
         ethPrice.setLastCheckedAt(LocalDateTime.now());
         priceRepository.save(ethPrice);
+
+        priceService.warmStart();
     }
 
     private void resetWalletBalance(String currencyCode, BigDecimal balance) {
         walletRepository.findByUserIdAndCurrencyCode(DEFAULT_USER_ID, currencyCode).ifPresent(wallet -> {
-            wallet.setBalance(balance);
+            wallet.setBalance(Amount.of(balance));
             walletRepository.save(wallet);
         });
     }
@@ -113,7 +143,8 @@ class TradeControllerIntegrationTest {
         mockMvc.perform(post("/api/trades")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(buyRequest))
-                .andExpect(status().isCreated());
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.currentBalance").value(2));
 
         mockMvc.perform(get("/api/wallets"))
                 .andExpect(status().isOk())
@@ -121,6 +152,116 @@ class TradeControllerIntegrationTest {
                 .andExpect(jsonPath("$[?(@.currency == 'ETH')].balance").value("2.00000000"));
     }
 
+    @Test
+    void executeTrade_withQuote_tradesAtQuotedPriceOnce() throws Exception {
+        String quoteResponse = mockMvc.perform(post("/api/quotes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                { "symbol": "%s", "side": "%s" }
+                                """.formatted(BTCUSDT, BUY)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.price").value(BTC_ASK.intValue()))
+                .andReturn().getResponse().getContentAsString();
+        String quoteId = JsonPath.read(quoteResponse, "$.quoteId");
+
+        // the market moves after the quote was given
+        AggregatedPriceEntity btcPrice = priceRepository.findAll().stream()
+                .filter(price -> BTCUSDT_PAIR_ID.equals(price.getTradingPair().getId()))
+                .findFirst().orElseThrow();
+        btcPrice.setAskPrice(Amount.of("60000"));
+        priceRepository.save(btcPrice);
+        priceService.warmStart();
+
+        String quotedTrade = """
+                {
+                    "symbol": "%s",
+                    "side": "%s",
+                    "quantity": 0.1,
+                    "quoteId": "%s"
+                }
+                """.formatted(BTCUSDT, BUY, quoteId);
+        mockMvc.perform(post("/api/trades")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(quotedTrade))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.price").value(BTC_ASK.intValue()));
+
+        mockMvc.perform(post("/api/trades")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(quotedTrade))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void executeTrade_retriedWithIdempotencyKey_tradesOnce() throws Exception {
+        String buyRequest = """
+                {
+                    "symbol": "%s",
+                    "side": "%s",
+                    "quantity": 1
+                }
+                """.formatted(ETHUSDT, BUY);
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/trades")
+                            .header("Idempotency-Key", idempotencyKey)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(buyRequest))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.currentBalance").value(1));
+        }
+
+        mockMvc.perform(get("/api/trades"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCount").value(1));
+        mockMvc.perform(get("/api/wallets"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.currency == 'ETH')].balance").value("1.00000000"));
+    }
+
+    @Test
+    void executeTradeBatch_settlesEachOrderAgainstRunningBalance() throws Exception {
+        String batchRequest = """
+                {
+                    "orders": [
+                        {"symbol": "%s", "side": "BUY", "quantity": 0.5},
+                        {"symbol": "DOGEUSDT", "side": "BUY", "quantity": 1},
+                        {"symbol": "%s", "side": "BUY", "quantity": 10},
+                        {"symbol": "%s", "side": "SELL", "quantity": 0.2}
+                    ]
+                }
+                """.formatted(BTCUSDT, ETHUSDT, BTCUSDT);
+
+        mockMvc.perform(post("/api/trades/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchRequest))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.executed").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.results", hasSize(4)))
+                .andExpect(jsonPath("$.results[0].trade.currentBalance").value(0.5))
+                .andExpect(jsonPath("$.results[1].error").value("Unsupported trading pair: DOGEUSDT"))
+                .andExpect(jsonPath("$.results[2].error").value(startsWith("Insufficient USDT balance")))
+                .andExpect(jsonPath("$.results[3].trade.currentBalance").value(0.3));
+
+        mockMvc.perform(get("/api/wallets"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.currency == 'BTC')].balance").value("0.30000000"))
+                .andExpect(jsonPath("$[?(@.currency == 'USDT')].balance").value("34950.00000000"));
+        mockMvc.perform(get("/api/trades"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCount").value(2));
+    }
+
+    @Test
+    void executeTradeBatch_emptyOrders_returnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/trades/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orders\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void executeTrade_invalidSymbol_returnsBadRequest() throws Exception {
         String requestBody = """
@@ -137,6 +278,24 @@ class TradeControllerIntegrationTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void executeTrade_invalidQuantity_returnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/trades")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"symbol": "%s", "side": "%s", "quantity": 0.123456789}
+                                """.formatted(BTCUSDT, BUY)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("quantity: Amount supports at most 8 decimal places"));
+        mockMvc.perform(post("/api/trades")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"symbol": "%s", "side": "%s", "quantity": 0}
+                                """.formatted(BTCUSDT, BUY)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("quantity: Quantity must be positive"));
+    }
+
     @Test
     void getTradeHistory_afterTrade_returnsTrades() throws Exception {
         String buyRequest = """
@@ -162,6 +321,183 @@ class TradeControllerIntegrationTest {
                 .andExpect(jsonPath("$.pageSize").exists());
     }
 
+    @Test
+    void getTradeHistory_withoutTotal_reportsNextSliceInstead() throws Exception {
+        String batchRequest = """
+                {
+                    "orders": [
+                        {"symbol": "%s", "side": "BUY", "quantity": 0.01},
+                        {"symbol": "%s", "side": "BUY", "quantity": 0.01},
+                        {"symbol": "%s", "side": "BUY", "quantity": 0.01}
+                    ]
+                }
+                """.formatted(BTCUSDT, BTCUSDT, BTCUSDT);
+        mockMvc.perform(post("/api/trades/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchRequest))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.executed").value(3));
+
+        mockMvc.perform(get("/api/trades").param("pageNumber", "0").param("pageSize", "2")
+                        .param("includeTotal", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(2)))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalCount").doesNotExist());
+        mockMvc.perform(get("/api/trades").param("pageNumber", "1").param("pageSize", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(1)))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.totalCount").value(3));
+    }
+
+    @Test
+    void getTradeHistory_filtersBySymbolSideAndTime() throws Exception {
+        String batchRequest = """
+                {
+                    "orders": [
+                        {"symbol": "%s", "side": "BUY", "quantity": 0.5},
+                        {"symbol": "%s", "side": "BUY", "quantity": 1},
+                        {"symbol": "%s", "side": "SELL", "quantity": 0.2}
+                    ]
+                }
+                """.formatted(BTCUSDT, ETHUSDT, BTCUSDT);
+        mockMvc.perform(post("/api/trades/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchRequest))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.executed").value(3));
+
+        mockMvc.perform(get("/api/trades").param("symbol", BTCUSDT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(2)))
+                .andExpect(jsonPath("$.data[*].symbol", everyItem(is(BTCUSDT))))
+                .andExpect(jsonPath("$.totalCount").value(2));
+        mockMvc.perform(get("/api/trades").param("symbol", BTCUSDT).param("side", "sell"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(1)))
+                .andExpect(jsonPath("$.data[0].quantity").value(0.2))
+                .andExpect(jsonPath("$.totalCount").value(1));
+        mockMvc.perform(get("/api/trades").param("side", "BUY")
+                        .param("from", LocalDateTime.now().minusHours(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(2)))
+                .andExpect(jsonPath("$.totalCount").value(2));
+        mockMvc.perform(get("/api/trades").param("to", LocalDateTime.now().minusHours(1).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", hasSize(0)))
+                .andExpect(jsonPath("$.totalCount").value(0));
+        mockMvc.perform(get("/api/trades").param("symbol", "DOGEUSDT"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/trades").param("from", "yesterday"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getPositions_tracksAverageCostAndPnlAcrossTrades() throws Exception {
+        String batchRequest = """
+                {
+                    "orders": [
+                        {"symbol": "%s", "side": "BUY", "quantity": 0.5},
+                        {"symbol": "%s", "side": "SELL", "quantity": 0.2}
+                    ]
+                }
+                """.formatted(BTCUSDT, BTCUSDT);
+        mockMvc.perform(post("/api/trades/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchRequest))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.executed").value(2));
+
+        // bought 0.5 at the 50100 ask, sold 0.2 at the 50000 bid, marked at the bid
+        mockMvc.perform(get("/api/positions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].symbol").value(BTCUSDT))
+                .andExpect(jsonPath("$[0].netQuantity").value("0.30000000"))
+                .andExpect(jsonPath("$[0].averagePrice").value("50100.00000000"))
+                .andExpect(jsonPath("$[0].costBasis").value("15030.00000000"))
+                .andExpect(jsonPath("$[0].markPrice").value("50000.00000000"))
+                .andExpect(jsonPath("$[0].unrealizedPnl").value("-30.00000000"))
+                .andExpect(jsonPath("$[0].realizedPnl").value("-20.00000000"))
+                .andExpect(jsonPath("$[0].tradeCount").value(2));
+    }
+
+    @Test
+    void exportTradeHistory_streamsAllTradesOldestFirstAsNdjsonOrCsv() throws Exception {
+        String batchRequest = """
+                {
+                    "orders": [
+                        {"symbol": "%s", "side": "BUY", "quantity": 0.5},
+                        {"symbol": "%s", "side": "SELL", "quantity": 0.2}
+                    ]
+                }
+                """.formatted(BTCUSDT, BTCUSDT);
+        mockMvc.perform(post("/api/trades/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchRequest))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.executed").value(2));
+
+        MvcResult ndjson = mockMvc.perform(get("/api/trades/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String[] lines = mockMvc.perform(asyncDispatch(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(BUY.name(), JsonPath.read(lines[0], "$.side"));
+        assertEquals(0.5, JsonPath.<Double>read(lines[0], "$.quantity"));
+        assertEquals("SELL", JsonPath.read(lines[1], "$.side"));
+
+        MvcResult csv = mockMvc.perform(get("/api/trades/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        lines = mockMvc.perform(asyncDispatch(csv))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"trades.csv\""))
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("tradeId,symbol,side,price,quantity,cost,createdAt", lines[0]);
+        String[] first = lines[1].split(",");
+        assertEquals(List.of(BTCUSDT, BUY.name(), "0.50000000"), List.of(first[1], first[2], first[4]));
+    }
+
+    @Test
+    void getTradeHistoryPage_walksAllTradesNewestFirst() throws Exception {
+        List<Integer> tradeIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            String response = mockMvc.perform(post("/api/trades")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("""
+                                    { "symbol": "%s", "side": "%s", "quantity": 0.01 }
+                                    """.formatted(BTCUSDT, BUY)))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            tradeIds.add(0, JsonPath.read(response, "$.tradeId"));
+        }
+
+        List<Integer> pagedIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/api/trades/cursor").param("limit", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String page = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            pagedIds.addAll(JsonPath.read(page, "$.data[*].tradeId"));
+            cursor = JsonPath.read(page, "$.nextCursor");
+        } while (cursor != null);
+
+        assertEquals(tradeIds, pagedIds);
+
+        mockMvc.perform(get("/api/trades/cursor").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getWalletBalances_returnsInitialBalances() throws Exception {
         mockMvc.perform(get("/api/wallets"))
@@ -0,0 +1,59 @@
+package com.example.cryptotrading.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AmountTest {
+
+    @Test
+    void parseUnits_matchesBigDecimalRoundedHalfUp() {
+        for (String text : new String[]{"0", "1", "-1", "50000.01", "0.000000015", "-0.000000015", "0.000000014",
+                "12.5", "+3.", ".25", "92233720368.54775807", "1e3", "2.5E-9"}) {
+            long expected = new BigDecimal(text).setScale(8, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            assertEquals(expected, Amount.parseUnits(text), text);
+        }
+    }
+
+    @Test
+    void parseUnits_rejectsMalformedAndOversizedText() {
+        assertThrows(NumberFormatException.class, () -> Amount.parseUnits(""));
+        assertThrows(NumberFormatException.class, () -> Amount.parseUnits("-"));
+        assertThrows(NumberFormatException.class, () -> Amount.parseUnits("1.2.3"));
+        assertThrows(NumberFormatException.class, () -> Amount.parseUnits("12a"));
+        assertThrows(ArithmeticException.class, () -> Amount.parseUnits("100000000000000000000"));
+    }
+
+    @Test
+    void multiplyUnits_matchesBigDecimalRoundedHalfUp() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < 10_000; i++) {
+            // up to 10^5 with 8 decimals each side, so the product overflows 64 bits before it is scaled back
+            long a = random.nextLong(-10_000_000_000_000L, 10_000_000_000_000L);
+            long b = random.nextLong(-10_000_000_000_000L, 10_000_000_000_000L);
+            BigDecimal expected = Amount.toBigDecimal(a).multiply(Amount.toBigDecimal(b))
+                    .setScale(8, RoundingMode.HALF_UP);
+            assertEquals(expected, Amount.toBigDecimal(Amount.multiplyUnits(a, b)), a + " * " + b);
+        }
+    }
+
+    @Test
+    void multiplyUnits_throwsWhenResultDoesNotFit() {
+        long large = Amount.unitsOf(new BigDecimal("10000000000"));
+
+        assertThrows(ArithmeticException.class, () -> Amount.multiplyUnits(large, large));
+        assertThrows(ArithmeticException.class, () -> Amount.multiplyUnits(Long.MIN_VALUE, 1));
+    }
+
+    @Test
+    void equalsIgnoresScaleOfTheSource() {
+        assertEquals(Amount.of(new BigDecimal("100.1")), Amount.of("100.10000000"));
+        assertEquals("100.10000000", Amount.of("100.1").toString());
+        assertEquals(new BigDecimal("0.00000000"), Amount.ZERO.toBigDecimal());
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.cryptotrading.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static com.example.cryptotrading.domain.OrderSideCodeEnum.BUY;
+import static com.example.cryptotrading.domain.OrderSideCodeEnum.SELL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PositionTest {
+
+    @Test
+    void apply_partialSellRealizesAgainstAverageCost() {
+        Position position = Position.EMPTY
+                .apply(BUY, new BigDecimal("1"), new BigDecimal("100"))
+                .apply(BUY, new BigDecimal("1"), new BigDecimal("120"))
+                .apply(SELL, new BigDecimal("0.5"), new BigDecimal("65"));
+
+        assertAmount("1.5", position.netQuantity());
+        assertAmount("165", position.costBasis());
+        assertAmount("10", position.realizedPnl());
+        assertAmount("110", position.averagePrice());
+        assertAmount("15", position.unrealizedPnl(new BigDecimal("120")));
+        assertEquals(3, position.tradeCount());
+    }
+
+    @Test
+    void apply_sellBeyondLongOpensShortThatBuyingBackCloses() {
+        Position position = Position.EMPTY
+                .apply(BUY, new BigDecimal("2"), new BigDecimal("200"))
+                .apply(SELL, new BigDecimal("3"), new BigDecimal("330"));
+
+        assertAmount("-1", position.netQuantity());
+        assertAmount("-110", position.costBasis());
+        assertAmount("20", position.realizedPnl());
+        assertAmount("110", position.averagePrice());
+        assertAmount("10", position.unrealizedPnl(new BigDecimal("100")));
+
+        position = position.apply(BUY, new BigDecimal("1"), new BigDecimal("100"));
+
+        assertAmount("0", position.netQuantity());
+        assertAmount("0", position.costBasis());
+        assertAmount("30", position.realizedPnl());
+        assertNull(position.averagePrice());
+        assertEquals(3, position.tradeCount());
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> expected + " != " + actual);
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.cryptotrading.engine;
+
+import com.example.cryptotrading.config.TradingEngineProperties;
+import com.example.cryptotrading.domain.Amount;
+import com.example.cryptotrading.domain.IdempotencyKey;
+import com.example.cryptotrading.domain.TradeOrder;
+import com.example.cryptotrading.dto.TradeResponseDto;
+import com.example.cryptotrading.entity.PositionEntity;
+import com.example.cryptotrading.exception.DuplicateTradeException;
+import com.example.cryptotrading.exception.InsufficientBalanceException;
+import com.example.cryptotrading.repository.EngineCheckpointRepository;
+import com.example.cryptotrading.repository.PositionRepository;
+import com.example.cryptotrading.repository.TradeCounterRepository;
+import com.example.cryptotrading.repository.TradeRepository;
+import com.example.cryptotrading.repository.WalletRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.example.cryptotrading.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.scheduling.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:enginedb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "trading.engine.enabled=true",
+        "trading.engine.shards=2",
+        "trading.engine.persist-max-attempts=3",
+        "trading.engine.persist-initial-backoff=10ms",
+        "trading.engine.max-journal-bytes=1",
+        "trading.engine.journal-dir=build/test-journal/${random.uuid}"
+})
+class TradingEngineTest {
+
+    @Autowired
+    private TradingEngine engine;
+
+    @Autowired
+    private TradingEngineProperties properties;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private TradeCounterRepository tradeCounterRepository;
+
+    @Autowired
+    private EngineCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private PositionRepository positionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void execute_acknowledgesFromMemoryAndPersistsAsynchronously() throws InterruptedException {
+        Amount usdtBefore = balance(USDT_CURRENCY_ID);
+        Amount btcBefore = balance(BTC_CURRENCY_ID);
+        TradeOrder order = new TradeOrder(btcusdtPair(), buySide(),
+                Amount.of(BTC_ASK), Amount.of("0.1"), Amount.of("5010"));
+
+        TradeResponseDto response = engine.execute(DEFAULT_USER_ID, null, order);
+
+        assertEquals(BTCUSDT, response.symbol());
+        assertEquals(BUY, response.side());
+        assertEquals(0, btcBefore.add(Amount.of("0.1")).toBigDecimal().compareTo(response.currentBalance()));
+
+        awaitPersisted();
+        assertTrue(tradeRepository.existsById(response.tradeId()));
+        assertEquals(tradeRepository.count(), tradeCounterRepository.findTradeCount(DEFAULT_USER_ID).orElseThrow());
+        assertEquals(usdtBefore.subtract(Amount.of("5010")), balance(USDT_CURRENCY_ID));
+        assertEquals(0, response.currentBalance().compareTo(balance(BTC_CURRENCY_ID).toBigDecimal()));
+    }
+
+    @Test
+    void execute_rejectsInsufficientBalanceWithoutJournaling() {
+        TradeOrder order = new TradeOrder(btcusdtPair(), buySide(),
+                Amount.of(BTC_ASK), Amount.of("1000"), Amount.of("50100000"));
+
+        assertThrows(InsufficientBalanceException.class, () -> engine.execute(DEFAULT_USER_ID, null, order));
+    }
+
+    @Test
+    void execute_settlesRetriedIdempotencyKeyOnce() throws InterruptedException {
+        IdempotencyKey key = new IdempotencyKey(DEFAULT_USER_ID, "engine-retry");
+        TradeOrder order = new TradeOrder(btcusdtPair(), buySide(),
+                Amount.of(BTC_ASK), Amount.of("0.01"), Amount.of("501"));
+
+        TradeResponseDto first = engine.execute(DEFAULT_USER_ID, key, order);
+        try {
+            assertEquals(first, engine.execute(DEFAULT_USER_ID, key, order));
+        } catch (DuplicateTradeException e) {
+            // the first trade already reached the database, where the service looks it up
+        }
+        awaitPersisted();
+        assertThrows(DuplicateTradeException.class, () -> engine.execute(DEFAULT_USER_ID, key, order));
+        assertEquals(0, first.currentBalance().compareTo(balance(BTC_CURRENCY_ID).toBigDecimal()));
+    }
+
+    @Test
+    void start_replaysJournalEntriesMissingFromTheDatabase() throws Exception {
+        awaitPersisted();
+        engine.stop();
+        long checkpoint = checkpointRepository.findById(0L).orElseThrow().getLastSequence();
+        Amount usdtBefore = balance(USDT_CURRENCY_ID);
+        Amount ethBefore = balance(ETH_CURRENCY_ID);
+        Amount ethAfter = ethBefore.add(Amount.of("1"));
+        Amount usdtAfter = usdtBefore.subtract(Amount.of(ETH_ASK));
+        long ethTradesBefore = positionTrades(ETHUSDT_PAIR_ID);
+
+        long tradeId = 1_000_000L;
+        try (Journal journal = Journal.open(properties.getJournalDir().resolve("shard-0.journal"), false)) {
+            journal.readAll();
+            journal.append(List.of(new JournalEntry(0, checkpoint + 1, tradeId, DEFAULT_USER_ID, null,
+                    ETHUSDT_PAIR_ID, BUY_SIDE_ID, Amount.of(ETH_ASK), Amount.of("1"), Amount.of(ETH_ASK),
+                    USDT_CURRENCY_ID, usdtAfter, ETH_CURRENCY_ID, ethAfter, LocalDateTime.now())));
+        }
+        engine.start();
+
+        assertTrue(tradeRepository.existsById(tradeId));
+        assertEquals(ethAfter, balance(ETH_CURRENCY_ID));
+        assertEquals(usdtAfter, balance(USDT_CURRENCY_ID));
+        assertEquals(checkpoint + 1, checkpointRepository.findById(0L).orElseThrow().getLastSequence());
+        assertEquals(ethTradesBefore + 1, positionTrades(ETHUSDT_PAIR_ID));
+    }
+
+    @Test
+    void persistFailure_stopsAcceptingTradesUntilRestart() throws Exception {
+        awaitPersisted();
+        TradeOrder poisoned = new TradeOrder(btcusdtPair(), buySide(),
+                Amount.of(BTC_ASK), Amount.of("0.00012345"), Amount.of("6.184845"));
+        TradeOrder next = new TradeOrder(btcusdtPair(), buySide(),
+                Amount.of(BTC_ASK), Amount.of("0.001"), Amount.of("50.1"));
+        jdbcTemplate.execute("ALTER TABLE crypto_trade ADD CONSTRAINT engine_poison CHECK (quantity <> 0.00012345)");
+        try {
+            TradeResponseDto acknowledged = engine.execute(DEFAULT_USER_ID, null, poisoned);
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (engine.health().getStatus() != Status.DOWN) {
+                assertTrue(System.currentTimeMillis() < deadline, "engine did not give up on the batch in time");
+                Thread.sleep(20);
+            }
+            assertThrows(IllegalStateException.class, () -> engine.execute(DEFAULT_USER_ID, null, next));
+            assertFalse(tradeRepository.existsById(acknowledged.tradeId()));
+
+            engine.stop();
+            jdbcTemplate.execute("ALTER TABLE crypto_trade DROP CONSTRAINT engine_poison");
+            engine.start();
+
+            assertTrue(tradeRepository.existsById(acknowledged.tradeId()), "journaled trade is replayed on start");
+            assertEquals(Status.UP, engine.health().getStatus());
+            engine.execute(DEFAULT_USER_ID, null, next);
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE crypto_trade DROP CONSTRAINT IF EXISTS engine_poison");
+        }
+    }
+
+    private long positionTrades(Long tradingPairId) {
+        return positionRepository.findByUserIdAndTradingPairIdIn(DEFAULT_USER_ID, List.of(tradingPairId)).stream()
+                .mapToLong(PositionEntity::getTradeCount)
+                .sum();
+    }
+
+    @Test
+    void journal_dropsPersistedEntriesWhileRunning() throws Exception {
+        Path journal = properties.getJournalDir().resolve(
+                "shard-" + Math.floorMod(Long.hashCode(DEFAULT_USER_ID), properties.getShards()) + ".journal");
+        for (int i = 0; i < 5; i++) {
+            engine.execute(DEFAULT_USER_ID, null, new TradeOrder(btcusdtPair(), buySide(),
+                    Amount.of(BTC_ASK), Amount.of("0.001"), Amount.of("50.1")));
+        }
+        assertTrue(Files.size(journal) > 0);
+
+        awaitPersisted();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (Files.size(journal) > 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "journal was not compacted in time");
+            Thread.sleep(20);
+        }
+        assertTrue(engine.isCaughtUp());
+    }
+
+    @Test
+    void journalEntry_readsEntriesWrittenWithDecimalStrings() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(3);
+        out.writeLong(7L);
+        out.writeLong(42L);
+        out.writeLong(DEFAULT_USER_ID);
+        out.writeBoolean(false);
+        out.writeLong(BTCUSDT_PAIR_ID);
+        out.writeLong(BUY_SIDE_ID);
+        out.writeUTF("50100");
+        out.writeUTF("0.1");
+        out.writeUTF("5010.00000000");
+        out.writeLong(USDT_CURRENCY_ID);
+        out.writeUTF("4990.00000000");
+        out.writeLong(BTC_CURRENCY_ID);
+        out.writeUTF("0.1");
+        out.writeLong(1_700_000_000L);
+        out.writeInt(0);
+
+        JournalEntry legacy = JournalEntry.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(3, legacy.shard());
+        assertEquals(42L, legacy.tradeId());
+        assertEquals(Amount.of("5010"), legacy.cost());
+        assertEquals(Amount.of("0.1"), legacy.creditBalance());
+
+        bytes.reset();
+        legacy.writeTo(out);
+        assertEquals(legacy, JournalEntry.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+    }
+
+    private Amount balance(Long currencyId) {
+        return walletRepository.findByUserIdAndCurrencyId(DEFAULT_USER_ID, currencyId).orElseThrow().getBalance();
+    }
+
+    private void awaitPersisted() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!engine.isCaughtUp()) {
+            assertTrue(System.currentTimeMillis() < deadline, "engine did not persist its journal in time");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.cryptotrading.scheduler;
+
+import com.example.cryptotrading.config.PriceAggregationProperties;
+import com.example.cryptotrading.domain.Amount;
+import com.example.cryptotrading.domain.PriceSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static com.example.cryptotrading.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptivePollScheduleTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    private AdaptivePollSchedule schedule;
+
+    @BeforeEach
+    void setUp() {
+        schedule = new AdaptivePollSchedule(new PriceAggregationProperties());
+    }
+
+    @Test
+    void unknownSymbol_isDueAtMaxInterval() {
+        assertTrue(schedule.isDue(BTCUSDT, NOW));
+        assertEquals(Duration.ofSeconds(10), schedule.interval(BTCUSDT));
+    }
+
+    @Test
+    void movingQuotes_halveInterval_downToMinimum() {
+        schedule.record(BTCUSDT, price("50000", NOW), price("50100", NOW), false, NOW);
+        assertEquals(Duration.ofSeconds(5), schedule.interval(BTCUSDT));
+        assertFalse(schedule.isDue(BTCUSDT, NOW.plusSeconds(4)));
+        assertTrue(schedule.isDue(BTCUSDT, NOW.plusSeconds(5)));
+
+        for (int i = 0; i < 5; i++) {
+            schedule.record(BTCUSDT, price("50000", NOW), price("50100", NOW), false, NOW);
+        }
+        assertEquals(Duration.ofSeconds(1), schedule.interval(BTCUSDT));
+    }
+
+    @Test
+    void quietQuotes_backOffUpToMaximum() {
+        schedule.record(BTCUSDT, price("50000", NOW), price("50100", NOW), false, NOW);
+        schedule.record(BTCUSDT, price("50100", NOW), price("50101", NOW), false, NOW);
+
+        assertEquals(Duration.ofMillis(7500), schedule.interval(BTCUSDT));
+
+        schedule.record(BTCUSDT, price("50101", NOW), price("50101", NOW), false, NOW);
+        assertEquals(Duration.ofSeconds(10), schedule.interval(BTCUSDT));
+    }
+
+    @Test
+    void priceNearFreshnessLimit_isPolledAtMinimum() {
+        PriceSnapshot aging = price("50000", NOW.minusSeconds(16));
+
+        schedule.record(BTCUSDT, aging, aging, false, NOW);
+
+        assertEquals(Duration.ofSeconds(1), schedule.interval(BTCUSDT));
+    }
+
+    @Test
+    void throttledVenue_doublesInterval_evenWhenMoving() {
+        schedule.record(BTCUSDT, price("50000", NOW), price("50100", NOW), false, NOW);
+        schedule.record(BTCUSDT, price("50100", NOW), price("51000", NOW), true, NOW);
+
+        assertEquals(Duration.ofSeconds(10), schedule.interval(BTCUSDT));
+    }
+
+    @Test
+    void maxInterval_isBoundedByFreshnessLimit() {
+        PriceAggregationProperties properties = new PriceAggregationProperties();
+        properties.setMaxPriceAge(Duration.ofSeconds(12));
+        schedule = new AdaptivePollSchedule(properties);
+
+        assertEquals(Duration.ofSeconds(4), schedule.interval(BTCUSDT));
+    }
+
+    private static PriceSnapshot price(String bid, LocalDateTime updatedAt) {
+        Amount bidPrice = Amount.of(bid);
+        return new PriceSnapshot(BTCUSDT_PAIR_ID, BTCUSDT, bidPrice, bidPrice.add(Amount.of("1")),
+                BINANCE, BINANCE, updatedAt);
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.cryptotrading.service;
+
+import com.example.cryptotrading.config.CandleProperties;
+import com.example.cryptotrading.domain.Amount;
+import com.example.cryptotrading.domain.PriceSnapshot;
+import com.example.cryptotrading.dto.CandleResponseDto;
+import com.example.cryptotrading.entity.CandleEntity;
+import com.example.cryptotrading.repository.CandleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static com.example.cryptotrading.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CandleServiceTest {
+
+    private static final LocalDateTime TEN_AM = LocalDateTime.of(2025, 1, 1, 10, 0);
+
+    @Mock
+    private CandleRepository candleRepository;
+
+    @Mock
+    private ReferenceDataRegistry referenceData;
+
+    private CandleService candleService;
+
+    @BeforeEach
+    void setUp() {
+        candleService = new CandleService(candleRepository, referenceData, new CandleProperties());
+    }
+
+    @Test
+    void onPrice_buildsMidBarsAndClosesThemOnTheNextBar() {
+        when(referenceData.findPair(BTCUSDT)).thenReturn(Optional.of(btcusdtPair()));
+        candleService.onPrice(price("100", "102", TEN_AM.plusSeconds(5)));
+        candleService.onPrice(price("104", "106", TEN_AM.plusSeconds(30)));
+        candleService.onPrice(price("98", "100", TEN_AM.plusSeconds(50)));
+        candleService.onPrice(price("100", "100", TEN_AM.plusSeconds(70)));
+
+        List<CandleResponseDto> minutes = candleService.getCandles(BTCUSDT, "1m", 2);
+
+        assertEquals(2, minutes.size());
+        CandleResponseDto closed = minutes.get(0);
+        assertEquals(TEN_AM, closed.openTime());
+        assertEquals(List.of(Amount.of("101"), Amount.of("105"), Amount.of("99"), Amount.of("99")),
+                List.of(closed.open(), closed.high(), closed.low(), closed.close()));
+        assertEquals(Amount.of("104"), closed.highBid());
+        assertEquals(Amount.of("100"), closed.lowAsk());
+        assertEquals(3, closed.ticks());
+        assertEquals(TEN_AM.plusMinutes(1), minutes.get(1).openTime());
+        assertEquals(Amount.of("100"), minutes.get(1).close());
+
+        CandleResponseDto fiveMinutes = candleService.getCandles(BTCUSDT, "5m", 1).get(0);
+        assertEquals(Amount.of("100"), fiveMinutes.close());
+        assertEquals(4, fiveMinutes.ticks());
+        verify(candleRepository, never()).findByTradingPairIdAndIntervalCodeAndOpenTimeBeforeOrderByOpenTimeDesc(
+                any(), any(), any(), any());
+
+        // older than the minute in progress, so it cannot change the 1m bars
+        candleService.onPrice(price("1", "1", TEN_AM.plusSeconds(55)));
+        assertEquals(minutes, candleService.getCandles(BTCUSDT, "1m", 2));
+
+        candleService.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CandleEntity>> saved = ArgumentCaptor.forClass(List.class);
+        verify(candleRepository).saveAll(saved.capture());
+        assertEquals(1, saved.getValue().size());
+        assertEquals("1m", saved.getValue().get(0).getIntervalCode());
+        assertEquals(TEN_AM, saved.getValue().get(0).getOpenTime());
+    }
+
+    @Test
+    void shutdown_storesBarsInProgressAndRestartContinuesThem() {
+        when(referenceData.findPair(BTCUSDT)).thenReturn(Optional.of(btcusdtPair()));
+        candleService.onPrice(price("100", "102", TEN_AM.plusSeconds(5)));
+        candleService.onPrice(price("104", "106", TEN_AM.plusSeconds(30)));
+
+        candleService.stop();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CandleEntity>> saved = ArgumentCaptor.forClass(List.class);
+        verify(candleRepository).saveAll(saved.capture());
+        assertEquals(3, saved.getValue().size());
+        CandleEntity minute = saved.getValue().stream()
+                .filter(bar -> bar.getIntervalCode().equals("1m"))
+                .findFirst().orElseThrow();
+        assertEquals(TEN_AM, minute.getOpenTime());
+        assertEquals(2, minute.getTicks());
+
+        minute.setId(7L);
+        when(candleRepository.findNewestBars()).thenReturn(List.of(minute));
+        CandleService restarted = new CandleService(candleRepository, referenceData, new CandleProperties());
+        restarted.start();
+        restarted.onPrice(price("98", "100", TEN_AM.plusSeconds(50)));
+
+        CandleResponseDto resumed = restarted.getCandles(BTCUSDT, "1m", 1).get(0);
+        assertEquals(TEN_AM, resumed.openTime());
+        assertEquals(List.of(Amount.of("101"), Amount.of("105"), Amount.of("99"), Amount.of("99")),
+                List.of(resumed.open(), resumed.high(), resumed.low(), resumed.close()));
+        assertEquals(3, resumed.ticks());
+
+        restarted.onPrice(price("100", "100", TEN_AM.plusSeconds(70)));
+        restarted.flush();
+
+        verify(candleRepository, times(2)).saveAll(saved.capture());
+        assertEquals(1, saved.getValue().size());
+        assertSame(minute, saved.getValue().get(0));
+        assertEquals(3, minute.getTicks());
+    }
+
+    @Test
+    void onPrice_doesNotThrowIntoThePublisher() {
+        PriceSnapshot overflowing = new PriceSnapshot(BTCUSDT_PAIR_ID, BTCUSDT, Amount.ofUnits(Long.MAX_VALUE),
+                Amount.ofUnits(Long.MAX_VALUE), BINANCE, HUOBI, TEN_AM);
+
+        assertDoesNotThrow(() -> candleService.onPrice(overflowing));
+    }
+
+    @Test
+    void getCandles_readsBarsBeforeMemoryFromDatabase() {
+        when(referenceData.findPair(BTCUSDT)).thenReturn(Optional.of(btcusdtPair()));
+        CandleEntity stored = new CandleEntity();
+        stored.setOpenTime(TEN_AM.minusMinutes(1));
+        stored.setOpenPrice(Amount.of("90"));
+        stored.setHighPrice(Amount.of("90"));
+        stored.setLowPrice(Amount.of("90"));
+        stored.setClosePrice(Amount.of("90"));
+        stored.setHighBid(Amount.of("89"));
+        stored.setLowAsk(Amount.of("91"));
+        stored.setTicks(1);
+        when(candleRepository.findByTradingPairIdAndIntervalCodeAndOpenTimeBeforeOrderByOpenTimeDesc(
+                BTCUSDT_PAIR_ID, "1m", TEN_AM, Limit.of(9))).thenReturn(List.of(stored));
+
+        candleService.onPrice(price("100", "102", TEN_AM.plusSeconds(5)));
+        List<CandleResponseDto> minutes = candleService.getCandles("btcusdt", "1m", 10);
+
+        assertEquals(List.of(TEN_AM.minusMinutes(1), TEN_AM), minutes.stream().map(CandleResponseDto::openTime).toList());
+    }
+
+    @Test
+    void getCandles_rejectsUnknownIntervalAndLimit() {
+        when(referenceData.findPair(BTCUSDT)).thenReturn(Optional.of(btcusdtPair()));
+
+        assertThrows(IllegalArgumentException.class, () -> candleService.getCandles(BTCUSDT, "2m", null));
+        assertThrows(IllegalArgumentException.class, () -> candleService.getCandles(BTCUSDT, "1m", 0));
+        verify(candleRepository, never()).saveAll(anyList());
+        verify(candleRepository, never()).findByTradingPairIdAndIntervalCodeOrderByOpenTimeDesc(
+                eq(BTCUSDT_PAIR_ID), any(), any());
+    }
+
+    private static PriceSnapshot price(String bid, String ask, LocalDateTime at) {
+        return new PriceSnapshot(BTCUSDT_PAIR_ID, BTCUSDT, Amount.of(bid), Amount.of(ask), BINANCE, HUOBI, at);
+    }
+}
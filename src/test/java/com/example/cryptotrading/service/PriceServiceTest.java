@@ -1,31 +1,45 @@
 package com.example.cryptotrading.service;
 
-import com.example.cryptotrading.client.BinanceClient;
-import com.example.cryptotrading.client.BinanceClient.BookTicker;
-import com.example.cryptotrading.client.HuobiClient;
+import com.example.cryptotrading.client.BookTicker;
+import com.example.cryptotrading.client.ExchangeClient;
+import com.example.cryptotrading.client.ExchangeClientRegistry;
+import com.example.cryptotrading.config.ExchangeProperties;
+import com.example.cryptotrading.config.PriceAggregationProperties;
+import com.example.cryptotrading.domain.Amount;
+import com.example.cryptotrading.domain.PriceSnapshot;
 import com.example.cryptotrading.entity.AggregatedPriceEntity;
 import com.example.cryptotrading.entity.TradingPairEntity;
 import com.example.cryptotrading.repository.AggregatedPriceRepository;
-import com.example.cryptotrading.repository.TradingPairRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static com.example.cryptotrading.TestFixtures.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -35,22 +49,68 @@ import static org.mockito.Mockito.when;
 class PriceServiceTest {
 
     @Mock
-    private BinanceClient binanceClient;
+    private ExchangeClient binanceClient;
 
     @Mock
-    private HuobiClient huobiClient;
+    private ExchangeClient huobiClient;
+
+    @Mock
+    private ExchangeClient okxClient;
 
     @Mock
     private AggregatedPriceRepository priceRepository;
 
     @Mock
-    private TradingPairRepository tradingPairRepository;
+    private ReferenceDataRegistry referenceData;
+
+    private ExecutorService exchangeFetchExecutor;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PriceAggregationProperties properties;
+
+    private PriceBook priceBook;
 
-    @InjectMocks
     private PriceService priceService;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(binanceClient.name()).thenReturn(BINANCE);
+        lenient().when(huobiClient.name()).thenReturn(HUOBI);
+        exchangeFetchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new PriceAggregationProperties();
+        priceBook = new PriceBook(List.of());
+        priceService = newPriceService(binanceClient, huobiClient);
+    }
+
+    private PriceService newPriceService(ExchangeClient... clients) {
+        ExchangeClientRegistry registry = new ExchangeClientRegistry(List.of(clients), new ExchangeProperties(),
+                exchangeFetchExecutor, meterRegistry);
+        return new PriceService(registry, priceBook, new AggregatedPriceWriter(priceRepository, priceBook),
+                priceRepository, referenceData, exchangeFetchExecutor, meterRegistry, properties);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<AggregatedPriceEntity> savedPrices() {
+        ArgumentCaptor<List<AggregatedPriceEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(priceRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private AggregatedPriceEntity singleSavedPrice() {
+        List<AggregatedPriceEntity> saved = savedPrices();
+        assertEquals(1, saved.size());
+        return saved.get(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        exchangeFetchExecutor.shutdownNow();
+    }
+
     private void mockActivePairs(TradingPairEntity... pairs) {
-        when(tradingPairRepository.findByCtlActTrue()).thenReturn(List.of(pairs));
+        when(referenceData.activePairs()).thenReturn(List.of(pairs));
     }
 
     @Test
@@ -68,31 +128,94 @@ class PriceServiceTest {
 
         when(binanceClient.getBookTickers(ALL_SYMBOLS)).thenReturn(binance);
         when(huobiClient.getBookTickers(ALL_SYMBOLS)).thenReturn(huobi);
-        when(priceRepository.findByTradingPair(any())).thenReturn(Optional.empty());
-        when(priceRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(priceRepository.findByTradingPairIn(any())).thenReturn(List.of());
 
         priceService.aggregatePrices();
 
-        ArgumentCaptor<AggregatedPriceEntity> captor = ArgumentCaptor.forClass(AggregatedPriceEntity.class);
-        verify(priceRepository, times(2)).save(captor.capture());
-
-        var savedPrices = captor.getAllValues();
+        List<AggregatedPriceEntity> savedPrices = savedPrices();
+        assertEquals(2, savedPrices.size());
 
         AggregatedPriceEntity btc = savedPrices.stream()
                 .filter(p -> p.getTradingPair().getId().equals(BTCUSDT_PAIR_ID)).findFirst().orElseThrow();
-        assertEquals(new BigDecimal("50050"), btc.getBidPrice());
+        assertEquals(Amount.of("50050"), btc.getBidPrice());
         assertEquals(HUOBI, btc.getBidExchange());
-        assertEquals(new BigDecimal("50080"), btc.getAskPrice());
+        assertEquals(Amount.of("50080"), btc.getAskPrice());
         assertEquals(HUOBI, btc.getAskExchange());
 
         AggregatedPriceEntity eth = savedPrices.stream()
                 .filter(p -> p.getTradingPair().getId().equals(ETHUSDT_PAIR_ID)).findFirst().orElseThrow();
-        assertEquals(new BigDecimal("3000"), eth.getBidPrice());
+        assertEquals(Amount.of("3000"), eth.getBidPrice());
         assertEquals(BINANCE, eth.getBidExchange());
-        assertEquals(new BigDecimal("3005"), eth.getAskPrice());
+        assertEquals(Amount.of("3005"), eth.getAskPrice());
         assertEquals(HUOBI, eth.getAskExchange());
     }
 
+    @Test
+    void aggregatePrices_reducesAcrossAnyNumberOfExchanges() {
+        when(okxClient.name()).thenReturn("OKX");
+        priceService = newPriceService(binanceClient, huobiClient, okxClient);
+        mockActivePairs(btcusdtPairRef());
+
+        when(binanceClient.getBookTickers(Set.of(BTCUSDT))).thenReturn(Map.of(
+                BTCUSDT, new BookTicker(new BigDecimal("50000"), new BigDecimal("50100"))));
+        when(huobiClient.getBookTickers(Set.of(BTCUSDT))).thenReturn(Map.of(
+                BTCUSDT, new BookTicker(new BigDecimal("50050"), new BigDecimal("50080"))));
+        when(okxClient.getBookTickers(Set.of(BTCUSDT))).thenReturn(Map.of(
+                BTCUSDT, new BookTicker(new BigDecimal("50060"), new BigDecimal("50090"))));
+        when(priceRepository.findByTradingPairIn(any())).thenReturn(List.of());
+
+        priceService.aggregatePrices();
+
+        AggregatedPriceEntity saved = singleSavedPrice();
+        assertEquals(Amount.of("50060"), saved.getBidPrice());
+        assertEquals("OKX", saved.getBidExchange());
+        assertEquals(Amount.of("50080"), saved.getAskPrice());
+        assertEquals(HUOBI, saved.getAskExchange());
+    }
+
+    @Test
+    void aggregatePrices_failingExchange_isSkipped() {
+        mockActivePairs(btcusdtPairRef());
+
+        when(binanceClient.getBookTickers(Set.of(BTCUSDT))).thenThrow(new IllegalStateException("boom"));
+        when(huobiClient.getBookTickers(Set.of(BTCUSDT))).thenReturn(Map.of(BTCUSDT, btcBinanceTicker()));
+        when(priceRepository.findByTradingPairIn(any())).thenReturn(List.of());
+
+        priceService.aggregatePrices();
+
+        AggregatedPriceEntity saved = singleSavedPrice();
+        assertEquals(HUOBI, saved.getBidExchange());
+    }
+
+    @Test
+    void aggregatePrices_rateLimitedExchange_isReportedAsThrottled() {
+        mockActivePairs(btcusdtPairRef());
+
+        when(binanceClient.getBookTickers(Set.of(BTCUSDT)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests",
+                        HttpHeaders.EMPTY, new byte[0], null));
+        when(huobiClient.getBookTickers(Set.of(BTCUSDT))).thenReturn(Map.of(BTCUSDT, btcBinanceTicker()));
+        when(priceRepository.findByTradingPairIn(any())).thenReturn(List.of());
+
+        AggregationCycle cycle = priceService.aggregatePrices();
+
+        assertEquals(Set.of(BTCUSDT), cycle.symbols());
+        assertEquals(Set.of(BINANCE), cycle.throttledExchanges());
+    }
+
+    @Test
+    void aggregatePrices_onlyDueSymbols_areRequested() {
+        mockActivePairs(btcusdtPairRef(), ethusdtPairRef());
+
+        when(binanceClient.getBookTickers(Set.of(ETHUSDT))).thenReturn(Collections.emptyMap());
+        when(huobiClient.getBookTickers(Set.of(ETHUSDT))).thenReturn(Collections.emptyMap());
+
+        AggregationCycle cycle = priceService.aggregatePrices(ETHUSDT::equals);
+
+        assertEquals(Set.of(ETHUSDT), cycle.symbols());
+        assertTrue(cycle.throttledExchanges().isEmpty());
+    }
+
     @Test
     void aggregatePrices_onlyOneExchangeAvailable_usesThatExchange() {
         mockActivePairs(btcusdtPairRef(), ethusdtPairRef());
@@ -101,22 +224,42 @@ class PriceServiceTest {
 
         when(binanceClient.getBookTickers(ALL_SYMBOLS)).thenReturn(binance);
         when(huobiClient.getBookTickers(ALL_SYMBOLS)).thenReturn(Collections.emptyMap());
-        when(priceRepository.findByTradingPair(any())).thenReturn(Optional.empty());
-        when(priceRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(priceRepository.findByTradingPairIn(any())).thenReturn(List.of());
 
         priceService.aggregatePrices();
 
-        ArgumentCaptor<AggregatedPriceEntity> captor = ArgumentCaptor.forClass(AggregatedPriceEntity.class);
-        verify(priceRepository).save(captor.capture());
+        AggregatedPriceEntity saved = singleSavedPrice();
 
-        AggregatedPriceEntity saved = captor.getValue();
         assertEquals(BTCUSDT_PAIR_ID, saved.getTradingPair().getId());
-        assertEquals(BTC_BID, saved.getBidPrice());
-        assertEquals(BTC_ASK, saved.getAskPrice());
+        assertEquals(Amount.of(BTC_BID), saved.getBidPrice());
+        assertEquals(Amount.of(BTC_ASK), saved.getAskPrice());
         assertEquals(BINANCE, saved.getBidExchange());
         assertEquals(BINANCE, saved.getAskExchange());
     }
 
+    @Test
+    void aggregatePrices_slowExchange_isDroppedAfterDeadline() {
+        properties.setFetchTimeout(Duration.ofMillis(200));
+        mockActivePairs(btcusdtPairRef());
+
+        when(binanceClient.getBookTickers(Set.of(BTCUSDT))).thenReturn(Map.of(BTCUSDT, btcBinanceTicker()));
+        when(huobiClient.getBookTickers(Set.of(BTCUSDT))).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return Map.of(BTCUSDT, new BookTicker(new BigDecimal("60000"), new BigDecimal("40000")));
+        });
+        when(priceRepository.findByTradingPairIn(any())).thenReturn(List.of());
+
+        long start = System.nanoTime();
+        priceService.aggregatePrices();
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        AggregatedPriceEntity saved = singleSavedPrice();
+        assertEquals(Amount.of(BTC_BID), saved.getBidPrice());
+        assertEquals(BINANCE, saved.getAskExchange());
+        assertTrue(elapsedMillis < 2000, "aggregation waited " + elapsedMillis + " ms for the slow venue");
+        assertEquals(1.0, meterRegistry.counter(PriceService.FETCH_TIMEOUT_COUNTER, "exchange", HUOBI).count());
+    }
+
     @Test
     void aggregatePrices_comparesWithStoredPrice_andKeepsBest() {
         mockActivePairs(btcusdtPairRef());
@@ -133,21 +276,41 @@ class PriceServiceTest {
         // Stored price has better bid (50100) and better ask (49990) than both exchanges
         AggregatedPriceEntity storedPrice = new AggregatedPriceEntity(
                 btcusdtPairRef(),
-                new BigDecimal("50100"), new BigDecimal("49990"),
+                Amount.of("50100"), Amount.of("49990"),
                 BINANCE, HUOBI);
         storedPrice.setCtlCreTs(LocalDateTime.now().minusSeconds(1));
         storedPrice.setCtlModTs(LocalDateTime.now());
 
         when(binanceClient.getBookTickers(Set.of(BTCUSDT))).thenReturn(binance);
         when(huobiClient.getBookTickers(Set.of(BTCUSDT))).thenReturn(huobi);
-        when(priceRepository.findByTradingPair(any())).thenReturn(Optional.of(storedPrice));
-        when(priceRepository.touchLastChecked(any(), any())).thenReturn(1);
+        when(priceRepository.findByTradingPairIn(any())).thenReturn(List.of(storedPrice));
 
         priceService.aggregatePrices();
 
         // Stored price was best; only touchLastChecked (no full save)
-        verify(priceRepository).touchLastChecked(any(), any());
-        verify(priceRepository, never()).save(any());
+        verify(priceRepository).touchLastChecked(eq(List.of(BTCUSDT_PAIR_ID)), any());
+        verify(priceRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void aggregatePrices_sameValueDifferentScale_onlyTouchesRow() {
+        mockActivePairs(btcusdtPairRef());
+
+        AggregatedPriceEntity storedPrice = new AggregatedPriceEntity(
+                btcusdtPairRef(),
+                Amount.of("50000.00000000"), Amount.of("50100.00000000"),
+                BINANCE, BINANCE);
+
+        when(binanceClient.getBookTickers(Set.of(BTCUSDT))).thenReturn(Map.of(
+                BTCUSDT, new BookTicker(new BigDecimal("50000"), new BigDecimal("50100"))));
+        when(huobiClient.getBookTickers(Set.of(BTCUSDT))).thenReturn(Collections.emptyMap());
+        when(priceRepository.findByTradingPairIn(any())).thenReturn(List.of(storedPrice));
+
+        priceService.aggregatePrices();
+
+        verify(priceRepository).touchLastChecked(eq(List.of(BTCUSDT_PAIR_ID)), any());
+        verify(priceRepository, never()).saveAll(any());
+        assertEquals(Amount.of("50000.00000000"), storedPrice.getBidPrice());
     }
 
     @Test
@@ -160,28 +323,86 @@ class PriceServiceTest {
         priceService.aggregatePrices();
 
         verify(priceRepository, never()).touchLastChecked(any(), any());
-        verify(priceRepository, never()).save(any());
+        verify(priceRepository, never()).saveAll(any());
     }
 
     @Test
     void aggregatePrices_noActivePairs_skipsAggregation() {
-        when(tradingPairRepository.findByCtlActTrue()).thenReturn(Collections.emptyList());
+        when(referenceData.activePairs()).thenReturn(Collections.emptyList());
 
         priceService.aggregatePrices();
 
         verify(binanceClient, never()).getBookTickers(any());
         verify(huobiClient, never()).getBookTickers(any());
-        verify(priceRepository, never()).save(any());
+        verify(priceRepository, never()).saveAll(any());
     }
 
     @Test
-    void getLatestPrice_delegatesToRepository() {
+    void aggregatePrices_publishesToPriceBook() {
+        mockActivePairs(btcusdtPairRef());
+
+        when(binanceClient.getBookTickers(Set.of(BTCUSDT))).thenReturn(Map.of(BTCUSDT, btcBinanceTicker()));
+        when(huobiClient.getBookTickers(Set.of(BTCUSDT))).thenReturn(Collections.emptyMap());
+        when(priceRepository.findByTradingPairIn(any())).thenReturn(List.of());
+
+        priceService.aggregatePrices();
+
+        PriceSnapshot snapshot = priceService.getLatestPrice(BTCUSDT).orElseThrow();
+        assertEquals(Amount.of(BTC_BID), snapshot.bidPrice());
+        assertEquals(Amount.of(BTC_ASK), snapshot.askPrice());
+        assertEquals(BINANCE, snapshot.bidExchange());
+        assertEquals(1, priceService.getLatestPrices().size());
+        verify(priceRepository, never()).findByTradingPairSymbol(any());
+    }
+
+    @Test
+    void getLatestPrice_bookMiss_readsThroughRepositoryOnce() {
         AggregatedPriceEntity entity = btcAggregatedPrice();
         when(priceRepository.findByTradingPairSymbol(BTCUSDT)).thenReturn(Optional.of(entity));
 
-        Optional<AggregatedPriceEntity> result = priceService.getLatestPrice(BTCUSDT);
+        Optional<PriceSnapshot> result = priceService.getLatestPrice(BTCUSDT);
+        priceService.getLatestPrice(BTCUSDT);
 
         assertTrue(result.isPresent());
-        assertEquals(BTC_BID, result.get().getBidPrice());
+        assertEquals(Amount.of(BTC_BID), result.get().bidPrice());
+        verify(priceRepository, times(1)).findByTradingPairSymbol(BTCUSDT);
+    }
+
+    @Test
+    void getLatestPrice_bookMiss_doesNotNotifyListeners() {
+        PriceListener listener = mock(PriceListener.class);
+        priceBook = new PriceBook(List.of(listener));
+        priceService = newPriceService(binanceClient, huobiClient);
+        when(priceRepository.findByTradingPairSymbol(BTCUSDT)).thenReturn(Optional.of(btcAggregatedPrice()));
+
+        assertTrue(priceService.getLatestPrice(BTCUSDT).isPresent());
+
+        verify(listener, never()).onPrice(any());
+    }
+
+    @Test
+    void priceBook_ignoresOlderSnapshot() {
+        PriceSnapshot newer = btcPriceSnapshot();
+        PriceSnapshot older = staleBtcPriceSnapshot();
+
+        priceBook.publish(newer);
+        priceBook.publish(older);
+
+        assertEquals(newer, priceBook.get(BTCUSDT).orElseThrow());
+    }
+
+    @Test
+    void warmStart_keepsPricesPublishedBeforeIt() {
+        PriceSnapshot streamed = new PriceSnapshot(BTCUSDT_PAIR_ID, BTCUSDT, Amount.of("50001"), Amount.of("50002"),
+                BINANCE, BINANCE, LocalDateTime.now().plusSeconds(60));
+        PriceSnapshot eth = ethPriceSnapshot();
+        priceBook.publish(streamed);
+        priceBook.publish(eth);
+        when(priceRepository.findAllWithTradingPair()).thenReturn(List.of(btcAggregatedPrice()));
+
+        priceService.warmStart();
+
+        assertEquals(streamed, priceBook.get(BTCUSDT).orElseThrow());
+        assertEquals(eth, priceBook.get(ETHUSDT).orElseThrow());
     }
 }
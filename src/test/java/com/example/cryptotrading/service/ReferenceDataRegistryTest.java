@@ -0,0 +1,58 @@
+package com.example.cryptotrading.service;
+
+import com.example.cryptotrading.entity.CurrencyEntity;
+import com.example.cryptotrading.repository.CurrencyRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import static com.example.cryptotrading.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@TestPropertySource(properties = "spring.scheduling.enabled=false")
+class ReferenceDataRegistryTest {
+
+    @Autowired
+    private ReferenceDataRegistry referenceData;
+
+    @Autowired
+    private CurrencyRepository currencyRepository;
+
+    @Test
+    void resolvesSeededReferenceData() {
+        var btcPair = referenceData.findActivePair(BTCUSDT).orElseThrow();
+
+        assertEquals(BTC, btcPair.getBaseCurrency().getCode());
+        assertEquals(USDT, btcPair.getQuoteCurrency().getCode());
+        assertEquals(BUY, referenceData.findOrderSide(BUY).orElseThrow().getCode());
+        assertSame(btcPair, referenceData.pair(BTCUSDT_PAIR_ID));
+        assertTrue(referenceData.findActivePair("DOGEUSDT").isEmpty());
+        assertSame(btcPair, referenceData.findPair(BTCUSDT).orElseThrow());
+        assertTrue(referenceData.findPair("DOGEUSDT").isEmpty());
+    }
+
+    @Test
+    void refreshIfChanged_reloadsAfterTableUpdate() {
+        CurrencyEntity btc = currencyRepository.findById(BTC_CURRENCY_ID).orElseThrow();
+        String originalName = btc.getName();
+        referenceData.refreshIfChanged();
+        assertEquals(originalName, referenceData.currency(BTC_CURRENCY_ID).getName());
+
+        try {
+            btc.setName("Bitcoin (renamed)");
+            btc = currencyRepository.save(btc);
+
+            referenceData.refreshIfChanged();
+
+            assertEquals("Bitcoin (renamed)", referenceData.currency(BTC_CURRENCY_ID).getName());
+        } finally {
+            btc.setName(originalName);
+            currencyRepository.save(btc);
+            referenceData.refresh();
+        }
+    }
+}
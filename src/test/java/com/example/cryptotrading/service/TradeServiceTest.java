@@ -1,28 +1,61 @@
 package com.example.cryptotrading.service;
 
+import com.example.cryptotrading.config.ContentionProperties;
+import com.example.cryptotrading.config.PriceAggregationProperties;
+import com.example.cryptotrading.config.QuoteProperties;
+import com.example.cryptotrading.domain.Amount;
+import com.example.cryptotrading.domain.BatchSettlement;
+import com.example.cryptotrading.domain.IdempotencyKey;
+import com.example.cryptotrading.domain.Settlement;
+import com.example.cryptotrading.dto.QuoteRequestDto;
+import com.example.cryptotrading.dto.QuoteResponseDto;
+import com.example.cryptotrading.dto.TradeBatchResponseDto;
 import com.example.cryptotrading.dto.TradeRequestDto;
 import com.example.cryptotrading.dto.TradeResponseDto;
+import com.example.cryptotrading.engine.TradingEngine;
+import com.example.cryptotrading.entity.TradeEntity;
+import com.example.cryptotrading.entity.WalletEntity;
 import com.example.cryptotrading.exception.InsufficientBalanceException;
 import com.example.cryptotrading.exception.PriceUnavailableException;
-import com.example.cryptotrading.repository.OrderSideRepository;
+import com.example.cryptotrading.repository.TradeCounterRepository;
 import com.example.cryptotrading.repository.TradeRepository;
-import com.example.cryptotrading.repository.TradingPairRepository;
+import com.example.cryptotrading.util.ExpiringCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.Optional;
 
 import static com.example.cryptotrading.TestFixtures.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -39,37 +72,78 @@ class TradeServiceTest {
     private TradeRepository tradeRepository;
 
     @Mock
-    private TradingPairRepository tradingPairRepository;
+    private TradeCounterRepository tradeCounterRepository;
 
     @Mock
-    private OrderSideRepository orderSideRepository;
+    private PositionService positionService;
+
+    @Mock
+    private ReferenceDataRegistry referenceData;
+
+    @Spy
+    private PriceAggregationProperties priceProperties = new PriceAggregationProperties();
+
+    @Mock
+    private ObjectProvider<TradingEngine> tradingEngine;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private ExpiringCache<IdempotencyKey, TradeResponseDto> executedTrades =
+            new ExpiringCache<>(Duration.ofMinutes(1), 100);
+
+    @Spy
+    private QuoteStore quoteStore = new QuoteStore(new QuoteProperties());
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private ContentionRetry contentionRetry = new ContentionRetry(noBackoff(), meterRegistry);
 
     @InjectMocks
     private TradeService tradeService;
 
+    @BeforeEach
+    void runTransactionsInline() {
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private static ContentionProperties noBackoff() {
+        ContentionProperties properties = new ContentionProperties();
+        properties.setMaxAttempts(3);
+        properties.setInitialBackoff(Duration.ZERO);
+        return properties;
+    }
+
     private void mockBtcPair() {
-        when(tradingPairRepository.findBySymbol(BTCUSDT)).thenReturn(Optional.of(btcusdtPair()));
+        when(referenceData.findActivePair(BTCUSDT)).thenReturn(Optional.of(btcusdtPair()));
     }
 
     private void mockEthPair() {
-        when(tradingPairRepository.findBySymbol(ETHUSDT)).thenReturn(Optional.of(ethusdtPair()));
+        when(referenceData.findActivePair(ETHUSDT)).thenReturn(Optional.of(ethusdtPair()));
     }
 
     private void mockBuySide() {
-        when(orderSideRepository.findByCode(BUY)).thenReturn(Optional.of(buySide()));
+        when(referenceData.findOrderSide(BUY)).thenReturn(Optional.of(buySide()));
     }
 
     private void mockSellSide() {
-        when(orderSideRepository.findByCode(SELL)).thenReturn(Optional.of(sellSide()));
+        when(referenceData.findOrderSide(SELL)).thenReturn(Optional.of(sellSide()));
     }
 
     private void mockFreshBtcPrice() {
-        when(priceService.getLatestPrice(BTCUSDT)).thenReturn(Optional.of(btcAggregatedPrice()));
+        when(priceService.getLatestPrice(BTCUSDT)).thenReturn(Optional.of(btcPriceSnapshot()));
     }
 
     private void mockWalletAndSave() {
-        doNothing().when(walletService).debit(any(), any(), any());
-        doNothing().when(walletService).credit(any(), any(), any());
+        when(walletService.settle(any(), any(), any(), any(), any()))
+                .thenReturn(new Settlement(Amount.of("1000"), Amount.of("10")));
         when(tradeRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
     }
 
@@ -80,43 +154,47 @@ class TradeServiceTest {
         mockFreshBtcPrice();
         mockWalletAndSave();
 
-        TradeRequestDto request = new TradeRequestDto(BTCUSDT, BUY, new BigDecimal("0.5"));
+        TradeRequestDto request = new TradeRequestDto(BTCUSDT, BUY, Amount.of("0.5"));
         TradeResponseDto response = tradeService.executeTrade(DEFAULT_USER_ID, request);
 
         assertNotNull(response);
         assertEquals(BTCUSDT, response.symbol());
         assertEquals(BUY, response.side());
-        assertEquals(BTC_ASK, response.price());
-        assertEquals(new BigDecimal("0.5"), response.quantity());
+        assertEquals(0, BTC_ASK.compareTo(response.price()));
+        assertEquals(0, new BigDecimal("0.5").compareTo(response.quantity()));
+
+        assertEquals(0, new BigDecimal("10").compareTo(response.currentBalance()));
 
-        verify(walletService).debit(DEFAULT_USER_ID, USDT, new BigDecimal("25050.00000000"));
-        verify(walletService).credit(DEFAULT_USER_ID, BTC, new BigDecimal("0.5"));
+        verify(walletService).settle(eq(DEFAULT_USER_ID), argThat(c -> USDT.equals(c.getCode())),
+                eq(Amount.of("25050")), argThat(c -> BTC.equals(c.getCode())), eq(Amount.of("0.5")));
     }
 
     @Test
     void executeSellTrade_success() {
         mockEthPair();
         mockSellSide();
-        when(priceService.getLatestPrice(ETHUSDT)).thenReturn(Optional.of(ethAggregatedPrice()));
+        when(priceService.getLatestPrice(ETHUSDT)).thenReturn(Optional.of(ethPriceSnapshot()));
         mockWalletAndSave();
 
-        TradeRequestDto request = new TradeRequestDto(ETHUSDT, SELL, new BigDecimal("2"));
+        TradeRequestDto request = new TradeRequestDto(ETHUSDT, SELL, Amount.of("2"));
         TradeResponseDto response = tradeService.executeTrade(DEFAULT_USER_ID, request);
 
         assertNotNull(response);
         assertEquals(ETHUSDT, response.symbol());
         assertEquals(SELL, response.side());
-        assertEquals(ETH_BID, response.price());
+        assertEquals(0, ETH_BID.compareTo(response.price()));
 
-        verify(walletService).debit(DEFAULT_USER_ID, ETH, new BigDecimal("2"));
-        verify(walletService).credit(DEFAULT_USER_ID, USDT, new BigDecimal("6000.00000000"));
+        assertEquals(0, new BigDecimal("1000").compareTo(response.currentBalance()));
+
+        verify(walletService).settle(eq(DEFAULT_USER_ID), argThat(c -> ETH.equals(c.getCode())),
+                eq(Amount.of("2")), argThat(c -> USDT.equals(c.getCode())), eq(Amount.of("6000")));
     }
 
     @Test
     void executeTrade_unsupportedSymbol_throwsException() {
-        when(tradingPairRepository.findBySymbol("DOGEUSDT")).thenReturn(Optional.empty());
+        when(referenceData.findActivePair("DOGEUSDT")).thenReturn(Optional.empty());
 
-        TradeRequestDto request = new TradeRequestDto("DOGEUSDT", BUY, new BigDecimal("100"));
+        TradeRequestDto request = new TradeRequestDto("DOGEUSDT", BUY, Amount.of("100"));
 
         assertThrows(IllegalArgumentException.class,
                 () -> tradeService.executeTrade(DEFAULT_USER_ID, request));
@@ -125,9 +203,9 @@ class TradeServiceTest {
     @Test
     void executeTrade_invalidSide_throwsException() {
         mockBtcPair();
-        when(orderSideRepository.findByCode(BUY)).thenReturn(Optional.empty());
+        when(referenceData.findOrderSide(BUY)).thenReturn(Optional.empty());
 
-        TradeRequestDto request = new TradeRequestDto(BTCUSDT, BUY, new BigDecimal("1"));
+        TradeRequestDto request = new TradeRequestDto(BTCUSDT, BUY, Amount.of("1"));
 
         assertThrows(IllegalArgumentException.class,
                 () -> tradeService.executeTrade(DEFAULT_USER_ID, request));
@@ -139,7 +217,7 @@ class TradeServiceTest {
         mockBuySide();
         when(priceService.getLatestPrice(BTCUSDT)).thenReturn(Optional.empty());
 
-        TradeRequestDto request = new TradeRequestDto(BTCUSDT, BUY, new BigDecimal("1"));
+        TradeRequestDto request = new TradeRequestDto(BTCUSDT, BUY, Amount.of("1"));
 
         assertThrows(PriceUnavailableException.class,
                 () -> tradeService.executeTrade(DEFAULT_USER_ID, request));
@@ -149,9 +227,9 @@ class TradeServiceTest {
     void executeTrade_stalePrice_throwsException() {
         mockBtcPair();
         mockBuySide();
-        when(priceService.getLatestPrice(BTCUSDT)).thenReturn(Optional.of(staleBtcPrice()));
+        when(priceService.getLatestPrice(BTCUSDT)).thenReturn(Optional.of(staleBtcPriceSnapshot()));
 
-        TradeRequestDto request = new TradeRequestDto(BTCUSDT, BUY, new BigDecimal("1"));
+        TradeRequestDto request = new TradeRequestDto(BTCUSDT, BUY, Amount.of("1"));
 
         assertThrows(PriceUnavailableException.class,
                 () -> tradeService.executeTrade(DEFAULT_USER_ID, request));
@@ -162,12 +240,153 @@ class TradeServiceTest {
         mockBtcPair();
         mockBuySide();
         mockFreshBtcPrice();
-        doThrow(new InsufficientBalanceException("Insufficient USDT balance"))
-                .when(walletService).debit(any(), any(), any());
+        when(walletService.settle(any(), any(), any(), any(), any()))
+                .thenThrow(new InsufficientBalanceException("Insufficient USDT balance"));
 
-        TradeRequestDto request = new TradeRequestDto(BTCUSDT, BUY, new BigDecimal("1000"));
+        TradeRequestDto request = new TradeRequestDto(BTCUSDT, BUY, Amount.of("1000"));
 
         assertThrows(InsufficientBalanceException.class,
                 () -> tradeService.executeTrade(DEFAULT_USER_ID, request));
     }
+
+    @Test
+    void executeTrade_withQuote_executesAtQuotedPriceWithoutPriceLookup() {
+        mockBtcPair();
+        mockBuySide();
+        mockFreshBtcPrice();
+        mockWalletAndSave();
+
+        QuoteResponseDto quote = tradeService.createQuote(DEFAULT_USER_ID, new QuoteRequestDto(BTCUSDT, BUY));
+        TradeResponseDto response = tradeService.executeTrade(DEFAULT_USER_ID,
+                new TradeRequestDto(BTCUSDT, BUY, Amount.of("0.5"), quote.quoteId()));
+
+        assertEquals(0, BTC_ASK.compareTo(quote.price().toBigDecimal()));
+        assertEquals(0, BTC_ASK.compareTo(response.price()));
+        verify(priceService, times(1)).getLatestPrice(BTCUSDT);
+    }
+
+    @Test
+    void executeTrade_quoteUsedTwiceOrForOtherSide_throwsException() {
+        mockBtcPair();
+        mockBuySide();
+        mockFreshBtcPrice();
+        mockWalletAndSave();
+
+        String quoteId = tradeService.createQuote(DEFAULT_USER_ID, new QuoteRequestDto(BTCUSDT, BUY)).quoteId();
+        tradeService.executeTrade(DEFAULT_USER_ID, new TradeRequestDto(BTCUSDT, BUY, Amount.of("1"), quoteId));
+
+        assertThrows(PriceUnavailableException.class, () -> tradeService.executeTrade(DEFAULT_USER_ID,
+                new TradeRequestDto(BTCUSDT, BUY, Amount.of("1"), quoteId)));
+
+        mockSellSide();
+        String buyQuoteId = tradeService.createQuote(DEFAULT_USER_ID, new QuoteRequestDto(BTCUSDT, BUY)).quoteId();
+        assertThrows(IllegalArgumentException.class, () -> tradeService.executeTrade(DEFAULT_USER_ID,
+                new TradeRequestDto(BTCUSDT, SELL, Amount.of("1"), buyQuoteId)));
+        verify(walletService, times(1)).settle(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void executeTrade_walletVersionConflict_retriesInNewTransaction() {
+        mockBtcPair();
+        mockBuySide();
+        mockFreshBtcPrice();
+        when(tradeRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(walletService.settle(any(), any(), any(), any(), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(WalletEntity.class, 1L))
+                .thenReturn(new Settlement(Amount.of("1000"), Amount.of("10")));
+
+        TradeResponseDto response = tradeService.executeTrade(DEFAULT_USER_ID,
+                new TradeRequestDto(BTCUSDT, BUY, Amount.of("0.5")));
+
+        assertEquals(0, new BigDecimal("10").compareTo(response.currentBalance()));
+        verify(transactionTemplate, times(2)).execute(any());
+        assertEquals(1, meterRegistry.counter(ContentionRetry.RETRY_COUNTER, "currency", USDT).count());
+        assertEquals(1, meterRegistry.timer(ContentionRetry.SETTLE_TIMER, "outcome", "settled").count());
+    }
+
+    @Test
+    void executeTrade_walletConflictOnEveryAttempt_givesUp() {
+        mockBtcPair();
+        mockBuySide();
+        mockFreshBtcPrice();
+        when(walletService.settle(any(), any(), any(), any(), any()))
+                .thenThrow(new CannotAcquireLockException("lock timeout"));
+
+        assertThrows(CannotAcquireLockException.class, () -> tradeService.executeTrade(DEFAULT_USER_ID,
+                new TradeRequestDto(BTCUSDT, BUY, Amount.of("0.5"))));
+
+        verify(walletService, times(3)).settle(any(), any(), any(), any(), any());
+        assertEquals(3, meterRegistry.counter(ContentionRetry.CONFLICT_COUNTER, "currency", BTC).count());
+        assertEquals(1, meterRegistry.timer(ContentionRetry.SETTLE_TIMER, "outcome", "conflict").count());
+    }
+
+    @Test
+    void executeTrade_retriedIdempotencyKey_settlesOnce() {
+        mockBtcPair();
+        mockBuySide();
+        mockFreshBtcPrice();
+        mockWalletAndSave();
+
+        TradeRequestDto request = new TradeRequestDto(BTCUSDT, BUY, Amount.of("0.5"));
+        TradeResponseDto first = tradeService.executeTrade(DEFAULT_USER_ID, request, "retry-1");
+        TradeResponseDto retry = tradeService.executeTrade(DEFAULT_USER_ID, request, "retry-1");
+
+        assertSame(first, retry);
+        verify(walletService, times(1)).settle(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void executeTrade_idempotencyKeyAlreadyStored_returnsStoredTrade() {
+        mockBtcPair();
+        mockBuySide();
+        mockFreshBtcPrice();
+        TradeEntity stored = new TradeEntity(DEFAULT_USER_ID, btcusdtPair(), buySide(),
+                BTC_ASK, new BigDecimal("0.5"), new BigDecimal("25050.00000000"));
+        stored.setId(42L);
+        when(tradeRepository.existsByUserIdAndIdempotencyKey(DEFAULT_USER_ID, "retry-2")).thenReturn(true);
+        when(tradeRepository.findByUserIdAndIdempotencyKey(DEFAULT_USER_ID, "retry-2")).thenReturn(Optional.of(stored));
+        when(referenceData.pair(BTCUSDT_PAIR_ID)).thenReturn(btcusdtPair());
+        when(referenceData.orderSide(BUY_SIDE_ID)).thenReturn(buySide());
+        when(walletService.getBalance(eq(DEFAULT_USER_ID), any())).thenReturn(Amount.of("0.5"));
+
+        TradeRequestDto request = new TradeRequestDto(BTCUSDT, BUY, Amount.of("0.5"));
+        TradeResponseDto response = tradeService.executeTrade(DEFAULT_USER_ID, request, "retry-2");
+
+        assertEquals(42L, response.tradeId());
+        assertEquals(BTCUSDT, response.symbol());
+        assertEquals(0, new BigDecimal("0.5").compareTo(response.currentBalance()));
+        verify(walletService, never()).settle(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void executeTrade_overlongIdempotencyKey_throwsException() {
+        TradeRequestDto request = new TradeRequestDto(BTCUSDT, BUY, Amount.of("0.5"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> tradeService.executeTrade(DEFAULT_USER_ID, request, "k".repeat(65)));
+    }
+
+    @Test
+    void executeTrades_pricesOncePerSymbolAndRejectsOrdersIndividually() {
+        mockBtcPair();
+        mockBuySide();
+        mockFreshBtcPrice();
+        when(referenceData.findActivePair("DOGEUSDT")).thenReturn(Optional.empty());
+        when(walletService.settleAll(eq(DEFAULT_USER_ID), any())).thenReturn(new BatchSettlement(
+                Arrays.asList(new Settlement(Amount.of("1000"), Amount.of("1")), null),
+                Map.of(1, InsufficientBalanceException.of(USDT, Amount.of("1000"), Amount.of("50100")))));
+        when(tradeRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TradeBatchResponseDto response = tradeService.executeTrades(DEFAULT_USER_ID, List.of(
+                new TradeRequestDto(BTCUSDT, BUY, Amount.of("1")),
+                new TradeRequestDto("DOGEUSDT", BUY, Amount.of("1")),
+                new TradeRequestDto(BTCUSDT, BUY, Amount.of("1"))));
+
+        assertEquals(1, response.executed());
+        assertEquals(2, response.rejected());
+        assertEquals(0, new BigDecimal("1").compareTo(response.results().get(0).trade().currentBalance()));
+        assertEquals("Unsupported trading pair: DOGEUSDT", response.results().get(1).error());
+        assertTrue(response.results().get(2).error().startsWith("Insufficient USDT balance"));
+        verify(priceService, times(1)).getLatestPrice(BTCUSDT);
+    }
 }
@@ -0,0 +1,153 @@
+package com.example.cryptotrading.service;
+
+import com.example.cryptotrading.domain.Amount;
+import com.example.cryptotrading.dto.TradeRequestDto;
+import com.example.cryptotrading.entity.AggregatedPriceEntity;
+import com.example.cryptotrading.entity.PositionEntity;
+import com.example.cryptotrading.entity.TradeEntity;
+import com.example.cryptotrading.entity.WalletEntity;
+import com.example.cryptotrading.repository.AggregatedPriceRepository;
+import com.example.cryptotrading.repository.PositionRepository;
+import com.example.cryptotrading.repository.TradeCounterRepository;
+import com.example.cryptotrading.repository.TradeRepository;
+import com.example.cryptotrading.repository.TradingPairRepository;
+import com.example.cryptotrading.repository.WalletRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.cryptotrading.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Many threads trading on the same wallets at once: every trade must settle, and the wallets must end up exactly
+ * where the stored trades say, i.e. no update is lost to a concurrent one. Throughput is only logged; it is measured
+ * by {@code TradeExecutionBenchmark}.
+ */
+@Slf4j
+@SpringBootTest
+@TestPropertySource(properties = "spring.scheduling.enabled=false")
+class WalletContentionStressTest {
+
+    private static final int THREADS = 8;
+    private static final int TRADES_PER_THREAD = 50;
+    private static final BigDecimal BTC_QUANTITY = new BigDecimal("0.001");
+    private static final BigDecimal ETH_QUANTITY = new BigDecimal("0.01");
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private PriceService priceService;
+
+    @Autowired
+    private AggregatedPriceRepository priceRepository;
+
+    @Autowired
+    private TradingPairRepository tradingPairRepository;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private TradeCounterRepository tradeCounterRepository;
+
+    @Autowired
+    private PositionRepository positionRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        tradeRepository.deleteAll();
+        tradeCounterRepository.deleteAll();
+        positionRepository.deleteAll();
+        priceRepository.deleteAll();
+        setBalance(USDT, new BigDecimal("50000.00000000"));
+        setBalance(BTC, BigDecimal.ZERO);
+        setBalance(ETH, BigDecimal.ZERO);
+
+        var btcPrice = new AggregatedPriceEntity(tradingPairRepository.findById(BTCUSDT_PAIR_ID).orElseThrow(),
+                Amount.of(BTC_BID), Amount.of(BTC_ASK), BINANCE, HUOBI);
+        btcPrice.setLastCheckedAt(LocalDateTime.now());
+        var ethPrice = new AggregatedPriceEntity(tradingPairRepository.findById(ETHUSDT_PAIR_ID).orElseThrow(),
+                Amount.of(ETH_BID), Amount.of(ETH_ASK), HUOBI, BINANCE);
+        ethPrice.setLastCheckedAt(LocalDateTime.now());
+        priceRepository.saveAll(List.of(btcPrice, ethPrice));
+        priceService.warmStart();
+    }
+
+    private void setBalance(String currency, BigDecimal balance) {
+        WalletEntity wallet = wallet(currency);
+        wallet.setBalance(Amount.of(balance));
+        walletRepository.save(wallet);
+    }
+
+    private WalletEntity wallet(String currency) {
+        return walletRepository.findByUserIdAndCurrencyCode(DEFAULT_USER_ID, currency).orElseThrow();
+    }
+
+    @Test
+    void concurrentTradesOnSharedWallets_loseNoUpdates() throws Exception {
+        long usdtVersionBefore = wallet(USDT).getCtlTcn();
+        double settledBefore = settledCount();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            boolean btc = t % 2 == 0;
+            workers.add(executor.submit(() -> {
+                for (int i = 0; i < TRADES_PER_THREAD; i++) {
+                    tradeService.executeTrade(DEFAULT_USER_ID, btc
+                            ? new TradeRequestDto(BTCUSDT, BUY, Amount.of(BTC_QUANTITY))
+                            : new TradeRequestDto(ETHUSDT, BUY, Amount.of(ETH_QUANTITY)));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+
+        int trades = THREADS * TRADES_PER_THREAD;
+        List<TradeEntity> stored = tradeRepository.findAll();
+        assertEquals(trades, stored.size());
+        assertEquals(trades, tradeCounterRepository.findTradeCount(DEFAULT_USER_ID).orElseThrow().intValue());
+        assertEquals(trades, positionRepository.findByUserIdOrderByTradingPairId(DEFAULT_USER_ID).stream()
+                .mapToLong(PositionEntity::getTradeCount)
+                .sum());
+        BigDecimal spent = stored.stream().map(TradeEntity::getCost).reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        int tradesPerPair = trades / 2;
+        assertEquals(Amount.of(BTC_QUANTITY.multiply(BigDecimal.valueOf(tradesPerPair))), wallet(BTC).getBalance());
+        assertEquals(Amount.of(ETH_QUANTITY.multiply(BigDecimal.valueOf(tradesPerPair))), wallet(ETH).getBalance());
+        assertEquals(Amount.of(new BigDecimal("50000").subtract(spent)), wallet(USDT).getBalance());
+        assertEquals(usdtVersionBefore + trades, wallet(USDT).getCtlTcn());
+        assertEquals(trades, settledCount() - settledBefore);
+        log.info("{} contended trades settled at {} trades/s", trades, Math.round(trades / seconds));
+    }
+
+    private double settledCount() {
+        return meterRegistry.timer(ContentionRetry.SETTLE_TIMER, "outcome", "settled").count();
+    }
+}
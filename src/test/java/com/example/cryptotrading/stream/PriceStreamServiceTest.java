@@ -0,0 +1,82 @@
+package com.example.cryptotrading.stream;
+
+import com.example.cryptotrading.config.ExchangeProperties;
+import com.example.cryptotrading.config.PriceStreamingProperties;
+import com.example.cryptotrading.service.PriceService;
+import com.example.cryptotrading.service.ReferenceDataRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.example.cryptotrading.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PriceStreamServiceTest {
+
+    private static final String BTC_TICK = """
+            {"stream":"btcusdt@bookTicker","data":{"s":"BTCUSDT","b":"50000.10","a":"50000.20"}}
+            """;
+    private static final String ETH_TICK = """
+            {"stream":"ethusdt@bookTicker","data":{"s":"ETHUSDT","b":"3000.10","a":"3000.20"}}
+            """;
+
+    private WebSocketStubServer server;
+    private PriceStreamService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new WebSocketStubServer();
+        ExchangeProperties exchangeProperties = new ExchangeProperties();
+        ExchangeProperties.Venue venue = new ExchangeProperties.Venue();
+        venue.setStreamUrl(server.url());
+        exchangeProperties.getExchanges().put("binance", venue);
+        PriceStreamingProperties properties = new PriceStreamingProperties();
+        properties.setStaleAfter(Duration.ofMillis(500));
+        ReferenceDataRegistry referenceData = mock(ReferenceDataRegistry.class);
+        when(referenceData.activePairs()).thenReturn(List.of(btcusdtPair(), ethusdtPair()));
+
+        service = new PriceStreamService(List.of(new BinanceStream(exchangeProperties)), exchangeProperties,
+                properties, referenceData, mock(PriceService.class));
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        service.stop();
+        server.close();
+    }
+
+    @Test
+    void isStreaming_quietSymbolOnLiveStream_isLeftToPolling() throws Exception {
+        WebSocketStubServer.Connection session = server.awaitConnection();
+        session.sendText(BTC_TICK);
+        session.sendText(ETH_TICK);
+        awaitStreaming(ETHUSDT);
+
+        // only BTCUSDT keeps ticking, so the connection stays live while ETHUSDT goes stale
+        long quietUntil = System.nanoTime() + Duration.ofMillis(1000).toNanos();
+        while (System.nanoTime() < quietUntil) {
+            session.sendText(BTC_TICK);
+            Thread.sleep(50);
+        }
+        session.sendText(BTC_TICK);
+        awaitStreaming(BTCUSDT);
+
+        assertFalse(service.isStreaming(ETHUSDT));
+        assertFalse(service.isStreaming("SOLUSDT"), "pairs not subscribed at start-up are polled");
+    }
+
+    private void awaitStreaming(String symbol) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!service.isStreaming(symbol) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(service.isStreaming(symbol), symbol + " did not tick within 10s");
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.cryptotrading.stream;
+
+import com.example.cryptotrading.client.BookTicker;
+import com.example.cryptotrading.config.ExchangeProperties;
+import com.example.cryptotrading.config.PriceStreamingProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.cryptotrading.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamConnectionTest {
+
+    private WebSocketStubServer server;
+    private HttpClient httpClient;
+    private ScheduledExecutorService scheduler;
+    private ExchangeProperties exchangeProperties;
+    private PriceStreamingProperties properties;
+    private RecordingListener listener;
+    private StreamConnection connection;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new WebSocketStubServer();
+        httpClient = HttpClient.newHttpClient();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        exchangeProperties = new ExchangeProperties();
+        properties = new PriceStreamingProperties();
+        properties.setInitialBackoff(Duration.ofMillis(50));
+        properties.setMaxBackoff(Duration.ofMillis(200));
+        listener = new RecordingListener();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (connection != null) {
+            connection.close();
+        }
+        scheduler.shutdownNow();
+        httpClient.close();
+        server.close();
+    }
+
+    private StreamConnection connect(ExchangeStream stream) {
+        ExchangeProperties.Venue venue = new ExchangeProperties.Venue();
+        venue.setStreamUrl(server.url());
+        exchangeProperties.getExchanges().put(stream.name().toLowerCase(), venue);
+        connection = new StreamConnection(stream, ALL_SYMBOLS, httpClient, scheduler, properties, listener);
+        connection.connect();
+        return connection;
+    }
+
+    @Test
+    void binanceStream_deliversBookTickerEvents() throws Exception {
+        connect(new BinanceStream(exchangeProperties));
+        WebSocketStubServer.Connection session = server.awaitConnection();
+
+        assertEquals("/stream?streams=btcusdt@bookTicker/ethusdt@bookTicker", session.path());
+        session.sendText("""
+                {"stream":"btcusdt@bookTicker","data":{"u":1,"s":"BTCUSDT","b":"50000.10","B":"1.5","a":"50000.20","A":"2"}}
+                """);
+
+        Tick tick = listener.nextTick();
+        assertEquals(new Tick("BINANCE", BTCUSDT,
+                new BookTicker(new BigDecimal("50000.10"), new BigDecimal("50000.20"))), tick);
+        assertTrue(connection.isLive(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    void huobiStream_subscribesAnswersPingsAndDecodesGzipFrames() throws Exception {
+        connect(new HuobiStream(exchangeProperties));
+        WebSocketStubServer.Connection session = server.awaitConnection();
+
+        assertEquals("/ws", session.path());
+        assertEquals("{\"sub\":\"market.btcusdt.bbo\",\"id\":\"btcusdt\"}", session.readText());
+        assertEquals("{\"sub\":\"market.ethusdt.bbo\",\"id\":\"ethusdt\"}", session.readText());
+
+        session.sendGzip("{\"ping\":1700000000000}");
+        assertEquals("{\"pong\":1700000000000}", session.readText());
+
+        session.sendGzip("""
+                {"ch":"market.ethusdt.bbo","ts":1700000000001,
+                 "tick":{"seqId":7,"ask":3005.5,"askSize":1.2,"bid":3004.5,"bidSize":0.8,"symbol":"ethusdt"}}
+                """);
+
+        assertEquals(new Tick("HUOBI", ETHUSDT,
+                new BookTicker(new BigDecimal("3004.5"), new BigDecimal("3005.5"))), listener.nextTick());
+    }
+
+    @Test
+    void droppedConnection_reportsDisconnectAndReconnects() throws Exception {
+        connect(new BinanceStream(exchangeProperties));
+        server.awaitConnection().drop();
+
+        assertEquals("BINANCE", listener.disconnects.poll(10, TimeUnit.SECONDS));
+        assertFalse(connection.isLive(Duration.ofSeconds(5)));
+
+        WebSocketStubServer.Connection second = server.awaitConnection();
+        second.sendText("""
+                {"stream":"ethusdt@bookTicker","data":{"s":"ETHUSDT","b":"3000","a":"3001"}}
+                """);
+        assertEquals(ETHUSDT, listener.nextTick().symbol());
+    }
+
+    private record Tick(String venue, String symbol, BookTicker ticker) {
+    }
+
+    private static final class RecordingListener implements StreamConnection.TickListener {
+
+        private final BlockingQueue<Tick> ticks = new LinkedBlockingQueue<>();
+        private final BlockingQueue<String> disconnects = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onTick(String venue, String symbol, BookTicker ticker) {
+            ticks.add(new Tick(venue, symbol, ticker));
+        }
+
+        @Override
+        public void onDisconnect(String venue) {
+            disconnects.add(venue);
+        }
+
+        Tick nextTick() throws InterruptedException {
+            Tick tick = ticks.poll(10, TimeUnit.SECONDS);
+            assertNotNull(tick, "no tick within 10s");
+            return tick;
+        }
+    }
+}
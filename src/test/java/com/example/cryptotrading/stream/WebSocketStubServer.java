@@ -0,0 +1,195 @@
+package com.example.cryptotrading.stream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Minimal RFC 6455 server for tests: accepts connections on a local port, completes the opening handshake and lets
+ * the test exchange single-frame messages with the client.
+ */
+class WebSocketStubServer implements AutoCloseable {
+
+    private static final String ACCEPT_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    private final ServerSocket serverSocket;
+    private final BlockingQueue<Connection> connections = new LinkedBlockingQueue<>();
+    private final Thread acceptor;
+
+    WebSocketStubServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        acceptor = Thread.ofVirtual().start(this::acceptLoop);
+    }
+
+    String url() {
+        return "ws://localhost:" + serverSocket.getLocalPort();
+    }
+
+    Connection awaitConnection() throws InterruptedException {
+        Connection connection = connections.poll(10, TimeUnit.SECONDS);
+        if (connection == null) {
+            throw new AssertionError("No WebSocket connection within 10s");
+        }
+        return connection;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        acceptor.interrupt();
+        for (Connection connection : connections) {
+            connection.drop();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.add(handshake(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private static Connection handshake(Socket socket) throws IOException {
+        InputStream in = socket.getInputStream();
+        String path = null;
+        String key = null;
+        for (String line = readLine(in); !line.isEmpty(); line = readLine(in)) {
+            if (path == null) {
+                path = line.split(" ")[1];
+            } else if (line.toLowerCase().startsWith("sec-websocket-key:")) {
+                key = line.substring(line.indexOf(':') + 1).trim();
+            }
+        }
+        String response = "HTTP/1.1 101 Switching Protocols\r\n"
+                + "Upgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n"
+                + "Sec-WebSocket-Accept: " + accept(key) + "\r\n\r\n";
+        socket.getOutputStream().write(response.getBytes(StandardCharsets.US_ASCII));
+        socket.getOutputStream().flush();
+        return new Connection(socket, path);
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1 && c != '\n') {
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+        return line.toString();
+    }
+
+    private static String accept(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1")
+                    .digest((key + ACCEPT_GUID).getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static final class Connection {
+
+        private final Socket socket;
+        private final String path;
+
+        private Connection(Socket socket, String path) {
+            this.socket = socket;
+            this.path = path;
+        }
+
+        String path() {
+            return path;
+        }
+
+        void sendText(String message) throws IOException {
+            writeFrame(0x1, message.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void sendGzip(String message) throws IOException {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(message.getBytes(StandardCharsets.UTF_8));
+            }
+            writeFrame(0x2, compressed.toByteArray());
+        }
+
+        /**
+         * Reads the next text message from the client, skipping control frames.
+         */
+        String readText() throws IOException {
+            socket.setSoTimeout(10_000);
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            while (true) {
+                int opcode = in.readUnsignedByte() & 0x0F;
+                int second = in.readUnsignedByte();
+                long length = second & 0x7F;
+                if (length == 126) {
+                    length = in.readUnsignedShort();
+                } else if (length == 127) {
+                    length = in.readLong();
+                }
+                byte[] mask = new byte[4];
+                if ((second & 0x80) != 0) {
+                    in.readFully(mask);
+                }
+                byte[] payload = new byte[(int) length];
+                in.readFully(payload);
+                for (int i = 0; i < payload.length; i++) {
+                    payload[i] ^= mask[i % 4];
+                }
+                if (opcode == 0x1) {
+                    return new String(payload, StandardCharsets.UTF_8);
+                }
+                if (opcode == 0x8) {
+                    return null;
+                }
+            }
+        }
+
+        /**
+         * Closes the TCP connection without a close handshake, as a crashed or rebooted venue would.
+         */
+        void drop() throws IOException {
+            socket.close();
+        }
+
+        private synchronized void writeFrame(int opcode, byte[] payload) throws IOException {
+            OutputStream out = socket.getOutputStream();
+            out.write(0x80 | opcode);
+            if (payload.length < 126) {
+                out.write(payload.length);
+            } else if (payload.length < 65536) {
+                out.write(126);
+                out.write(payload.length >>> 8);
+                out.write(payload.length & 0xFF);
+            } else {
+                out.write(127);
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    out.write((int) ((long) payload.length >>> shift) & 0xFF);
+                }
+            }
+            out.write(payload);
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.cryptotrading.ticks;
+
+import com.example.cryptotrading.config.TickStoreProperties;
+import com.example.cryptotrading.domain.Amount;
+import com.example.cryptotrading.domain.PriceSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.example.cryptotrading.TestFixtures.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TickStoreTest {
+
+    private static final Instant START = Instant.parse("2025-01-01T23:59:00Z");
+
+    @TempDir
+    Path dir;
+
+    private final MutableClock clock = new MutableClock();
+    private TickStoreProperties properties;
+    private TickStore tickStore;
+
+    @BeforeEach
+    void setUp() {
+        properties = new TickStoreProperties();
+        properties.setDir(dir);
+        properties.setSegmentCapacity(4);
+        properties.setIndexStride(2);
+        properties.setRetentionDays(1);
+        tickStore = start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        tickStore.stop();
+    }
+
+    @Test
+    void scan_readsTheRangeOfOnePairAcrossSegments() {
+        for (int i = 0; i < 10; i++) {
+            tickStore.onPrice(price(i % 2 == 0 ? BTCUSDT_PAIR_ID : ETHUSDT_PAIR_ID, 100 + i));
+            clock.advance(Duration.ofSeconds(1));
+        }
+
+        List<Long> bids = new ArrayList<>();
+        long matched = tickStore.scan(BTCUSDT_PAIR_ID, START.plusSeconds(3), START.plusSeconds(9),
+                tick -> bids.add(tick.bidUnits()));
+
+        assertEquals(3, matched);
+        assertEquals(List.of(units(104), units(106), units(108)), bids);
+        assertEquals(3, segmentFiles().size());
+
+        List<String> ticks = new ArrayList<>();
+        tickStore.scan(null, START, START.plusSeconds(2), tick -> ticks.add(tick.tradingPairId() + " "
+                + tick.recordedAt() + " " + tick.askUnits() + " " + tick.bidExchange() + "/" + tick.askExchange()));
+        assertEquals(List.of(
+                "1 2025-01-01T23:59:00Z " + units(101) + " BINANCE/HUOBI",
+                "2 2025-01-01T23:59:01Z " + units(102) + " BINANCE/HUOBI"), ticks);
+    }
+
+    @Test
+    void start_reopensSegmentsAndKeepsAppendingInOrder() {
+        tickStore.onPrice(price(BTCUSDT_PAIR_ID, 100));
+        clock.advance(Duration.ofSeconds(1));
+        tickStore.onPrice(price(BTCUSDT_PAIR_ID, 101));
+        tickStore.stop();
+
+        // a clock set back must not break the order the index relies on
+        clock.advance(Duration.ofSeconds(-10));
+        tickStore = start();
+        tickStore.onPrice(price(BTCUSDT_PAIR_ID, 102));
+
+        List<Instant> recorded = new ArrayList<>();
+        tickStore.scan(BTCUSDT_PAIR_ID, START.minusSeconds(60), START.plusSeconds(60),
+                tick -> recorded.add(tick.recordedAt()));
+
+        assertEquals(List.of(START, START.plusSeconds(1), START.plusSeconds(1)), recorded);
+        assertEquals(1, segmentFiles().size());
+    }
+
+    @Test
+    void dropBefore_deletesWholeSegmentsOfPastDays() {
+        tickStore.onPrice(price(BTCUSDT_PAIR_ID, 100));
+        clock.advance(Duration.ofMinutes(2));
+        tickStore.onPrice(price(BTCUSDT_PAIR_ID, 101));
+        clock.advance(Duration.ofDays(1));
+        tickStore.onPrice(price(BTCUSDT_PAIR_ID, 102));
+        assertEquals(List.of("ticks-2025-01-01-000.seg", "ticks-2025-01-02-000.seg", "ticks-2025-01-03-000.seg"),
+                segmentFiles());
+
+        tickStore.applyRetention();
+
+        assertEquals(List.of("ticks-2025-01-02-000.seg", "ticks-2025-01-03-000.seg"), segmentFiles());
+        List<Long> bids = new ArrayList<>();
+        tickStore.scan(BTCUSDT_PAIR_ID, START, START.plus(Duration.ofDays(2)), tick -> bids.add(tick.bidUnits()));
+        assertEquals(List.of(units(101), units(102)), bids);
+    }
+
+    @Test
+    void scan_rejectsAnEmptyRange() {
+        assertThrows(IllegalArgumentException.class, () -> tickStore.scan(null, START, START, tick -> {
+        }));
+    }
+
+    private TickStore start() {
+        TickStore store = new TickStore(properties, clock);
+        store.start();
+        return store;
+    }
+
+    private List<String> segmentFiles() {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(path -> path.getFileName().toString()).sorted().toList();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private PriceSnapshot price(Long tradingPairId, int bid) {
+        return new PriceSnapshot(tradingPairId, tradingPairId.equals(BTCUSDT_PAIR_ID) ? BTCUSDT : ETHUSDT,
+                Amount.of(String.valueOf(bid)), Amount.of(String.valueOf(bid + 1)), BINANCE, HUOBI,
+                LocalDateTime.ofInstant(clock.instant(), ZoneId.systemDefault()));
+    }
+
+    private static long units(int price) {
+        return price * Amount.UNITS_PER_ONE;
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = START;
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
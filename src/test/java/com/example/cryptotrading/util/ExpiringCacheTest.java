@@ -0,0 +1,104 @@
+package com.example.cryptotrading.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExpiringCacheTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final ExpiringCache<String, Integer> cache = new ExpiringCache<>(Duration.ofMinutes(1), 2, clock);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void computeIfAbsent_reusesValueUntilExpiry() {
+        assertEquals(1, cache.computeIfAbsent("a", loads::incrementAndGet));
+        assertEquals(1, cache.computeIfAbsent("a", loads::incrementAndGet));
+
+        clock.advance(Duration.ofMinutes(1));
+
+        assertEquals(2, cache.computeIfAbsent("a", loads::incrementAndGet));
+    }
+
+    @Test
+    void computeIfAbsent_dropsOldestBeyondBound() {
+        cache.computeIfAbsent("a", loads::incrementAndGet);
+        cache.computeIfAbsent("b", loads::incrementAndGet);
+        cache.computeIfAbsent("c", loads::incrementAndGet);
+
+        assertEquals(2, cache.size());
+        assertEquals(4, cache.computeIfAbsent("a", loads::incrementAndGet));
+    }
+
+    @Test
+    void computeIfAbsent_doesNotCacheFailures() {
+        assertThrows(IllegalStateException.class, () -> cache.computeIfAbsent("a", () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals(1, cache.computeIfAbsent("a", loads::incrementAndGet));
+    }
+
+    @Test
+    void computeIfAbsent_coalescesConcurrentCallers() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<Integer> first = executor.submit(() -> cache.computeIfAbsent("a", () -> {
+                loading.countDown();
+                await(release);
+                return loads.incrementAndGet();
+            }));
+            loading.await();
+            Future<Integer> second = executor.submit(() -> cache.computeIfAbsent("a", loads::incrementAndGet));
+            release.countDown();
+
+            assertEquals(1, first.get());
+            assertEquals(1, second.get());
+        }
+        assertEquals(1, loads.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}